@@ -0,0 +1,14 @@
+-- =====================================================
+-- Thêm index cho danh sách phân công của trợ lý
+-- Database: animalhospital
+-- =====================================================
+-- GET /api/appointments/assistant/assigned lọc appointment_action theo
+-- assigned_to_id + action_type = 'ASSIGN_ASSISTANT' (+ status) trong một query,
+-- subquery lấy action đầu tiên của mỗi appointment cũng đi theo index này.
+
+USE animalhospital;
+
+CREATE INDEX idx_appointment_action_assignee_type_status ON appointment_action(assigned_to_id, action_type, status);
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM appointment_action;
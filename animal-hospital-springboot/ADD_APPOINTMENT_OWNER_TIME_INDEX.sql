@@ -0,0 +1,15 @@
+-- =====================================================
+-- Thêm index cho danh sách lịch hẹn phân trang theo cursor
+-- Database: animalhospital
+-- =====================================================
+-- GET /api/appointments phân trang keyset theo (time_start, id) cho owner và vet.
+-- InnoDB tự thêm khóa chính (id) vào cuối index phụ, nên (owner_id, time_start)
+-- đủ để trang sâu cũng chỉ đọc đúng số dòng cần lấy.
+-- Phía vet dùng index idx_appointment_vet_time_start đã có.
+
+USE animalhospital;
+
+CREATE INDEX idx_appointment_owner_time_start ON appointment(owner_id, time_start);
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM appointment;
@@ -0,0 +1,43 @@
+-- =====================================================
+-- Thêm bảng appointment_slot chống đặt trùng lịch
+-- Database: animalhospital
+-- =====================================================
+-- Mỗi lịch hẹn đang hoạt động (khác CANCELLED / REJECTED) giữ các slot 15 phút
+-- phủ [time_start, time_start + 60 phút) của bác sĩ. Unique (vet_id, slot_start)
+-- khiến lần đặt thứ hai cho cùng slot bị DB từ chối, không cần khóa bảng.
+
+USE animalhospital;
+
+CREATE TABLE IF NOT EXISTS appointment_slot (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    slot_start DATETIME(6) NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    vet_id BIGINT NOT NULL,
+    CONSTRAINT fk_slot_appointment FOREIGN KEY (appointment_id) REFERENCES appointment(id) ON DELETE CASCADE,
+    CONSTRAINT fk_slot_vet FOREIGN KEY (vet_id) REFERENCES vet(id) ON DELETE CASCADE,
+    CONSTRAINT uk_appointment_slot_vet_start UNIQUE (vet_id, slot_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_appointment_slot_appointment ON appointment_slot(appointment_id);
+
+-- Tạo slot cho các lịch hẹn đang hoạt động. Dữ liệu cũ có thể đã trùng lịch:
+-- INSERT IGNORE giữ slot cho lịch đến trước, các lịch trùng sau đó cần xử lý tay.
+INSERT IGNORE INTO appointment_slot (appointment_id, vet_id, slot_start)
+SELECT a.id, a.vet_id, TIMESTAMP('1970-01-01 00:00:00') + INTERVAL ((s.first_slot + n.n) * 900) SECOND
+FROM (
+    SELECT id, vet_id, time_start,
+           FLOOR(TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', time_start) / 900) AS first_slot,
+           CEIL((TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', time_start) + 3600) / 900) AS end_slot
+    FROM appointment
+    WHERE vet_id IS NOT NULL AND status NOT IN ('CANCELLED', 'REJECTED')
+) s
+JOIN appointment a ON a.id = s.id
+JOIN (SELECT 0 AS n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4) n
+    ON n.n < s.end_slot - s.first_slot
+ORDER BY a.time_start, a.id, n.n;
+
+-- Các lịch hẹn đang hoạt động không giữ được slot (đã trùng lịch từ trước)
+SELECT a.id, a.vet_id, a.time_start, a.status
+FROM appointment a
+WHERE a.vet_id IS NOT NULL AND a.status NOT IN ('CANCELLED', 'REJECTED')
+  AND NOT EXISTS (SELECT 1 FROM appointment_slot s WHERE s.appointment_id = a.id);
@@ -0,0 +1,19 @@
+-- =====================================================
+-- Thêm index cho các truy vấn lịch hẹn theo ngày
+-- Database: animalhospital
+-- =====================================================
+-- Các query theo ngày giờ lọc theo khoảng time_start >= dayStart AND time_start < nextDayStart
+-- (không còn dùng DATE(time_start)), nên MySQL có thể dùng các index dưới đây.
+
+USE animalhospital;
+
+CREATE INDEX idx_appointment_time_start ON appointment(time_start);
+
+-- Lịch trong ngày của một bác sĩ, kiểm tra trùng lịch
+CREATE INDEX idx_appointment_vet_time_start ON appointment(vet_id, time_start);
+
+-- Danh sách lịch EMERGENCY / NORMAL theo ngày
+CREATE INDEX idx_appointment_type_time_start ON appointment(appointment_type, time_start);
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM appointment;
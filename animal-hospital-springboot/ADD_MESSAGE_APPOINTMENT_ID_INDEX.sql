@@ -0,0 +1,15 @@
+-- =====================================================
+-- Index cho phân trang tin nhắn theo id
+-- Database: animalhospital
+-- =====================================================
+-- GET /api/appointments/{id}/messages?afterId= / ?beforeId=&limit= và replay SSE
+-- đọc theo appointment_id rồi khoảng id. (appointment_id, id) thay cho index
+-- chỉ có appointment_id (vẫn đủ cho foreign key fk_message_appointment).
+
+USE animalhospital;
+
+CREATE INDEX idx_message_appointment_id ON appointment_message(appointment_id, id);
+DROP INDEX idx_message_appointment ON appointment_message;
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM appointment_message;
@@ -0,0 +1,32 @@
+-- =====================================================
+-- Thêm bảng outbox_event cho thông báo của workflow bác sĩ
+-- Database: animalhospital
+-- =====================================================
+-- Đổi lịch / yêu cầu khám tại nhà ghi một outbox_event trong cùng transaction,
+-- OutboxDispatcher gửi tin nhắn + email sau commit và thử lại khi lỗi.
+-- source_event_id (unique) trên appointment_message: gửi lại một event
+-- không tạo tin nhắn thứ hai.
+
+USE animalhospital;
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    appointment_id BIGINT,
+    payload TEXT,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6),
+    last_error VARCHAR(500)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_outbox_event_status_available ON outbox_event(status, available_at);
+
+ALTER TABLE appointment_message ADD COLUMN source_event_id BIGINT NULL;
+ALTER TABLE appointment_message ADD CONSTRAINT uk_message_source_event UNIQUE (source_event_id);
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM outbox_event;
+SHOW INDEX FROM appointment_message;
@@ -0,0 +1,30 @@
+-- =====================================================
+-- Thêm bảng refresh_token
+-- Database: animalhospital
+-- =====================================================
+-- POST /api/authenticate trả thêm refresh_token; POST /api/authenticate/refresh đổi nó
+-- lấy access token mới mà không cần mật khẩu. Chỉ lưu SHA-256 của token. Token hết hạn
+-- được xóa hàng loạt theo expires_at.
+
+USE animalhospital;
+
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_hash CHAR(64) NOT NULL,
+    family_id BIGINT,
+    user_id BIGINT NOT NULL,
+    login VARCHAR(50) NOT NULL,
+    authorities VARCHAR(255),
+    remember_me BOOLEAN NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at DATETIME(6),
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES jhi_user(id) ON DELETE CASCADE,
+    CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_refresh_token_family ON refresh_token(family_id);
+CREATE INDEX idx_refresh_token_user ON refresh_token(user_id);
+CREATE INDEX idx_refresh_token_expires ON refresh_token(expires_at);
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM refresh_token;
@@ -0,0 +1,25 @@
+-- =====================================================
+-- Thêm bảng revoked_token
+-- Database: animalhospital
+-- =====================================================
+-- Danh sách access token (JWT) bị thu hồi trước khi hết hạn: theo jti (logout) hoặc theo
+-- user_id (đổi / reset mật khẩu, xóa user - mọi token cấp trước revoked_at). Không có khóa
+-- ngoại tới jhi_user để bản ghi vẫn còn sau khi user bị xóa. Bản ghi được xóa khi token
+-- cuối cùng mà nó chặn đã hết hạn (expires_at).
+
+USE animalhospital;
+
+CREATE TABLE IF NOT EXISTS revoked_token (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    jti VARCHAR(64),
+    user_id BIGINT,
+    revoked_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_revoked_token_jti ON revoked_token(jti);
+CREATE INDEX idx_revoked_token_user ON revoked_token(user_id);
+CREATE INDEX idx_revoked_token_expires ON revoked_token(expires_at);
+
+-- Kiểm tra kết quả
+SHOW INDEX FROM revoked_token;
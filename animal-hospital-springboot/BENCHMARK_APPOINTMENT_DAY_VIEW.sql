@@ -0,0 +1,106 @@
+-- =====================================================
+-- Benchmark: lịch trong ngày của một bác sĩ (vet day view)
+-- Database: animalhospital_bench (database riêng, KHÔNG chạy trên animalhospital)
+-- =====================================================
+-- So sánh query cũ DATE(time_start) = ? với query mới time_start >= ? AND time_start < ?
+-- ở 10 nghìn và 1 triệu dòng. Với index (vet_id, time_start), query mới giữ nguyên
+-- độ trễ khi bảng lớn lên; query cũ phải quét toàn bộ index / bảng.
+--
+-- Chạy: mysql -u root -p < BENCHMARK_APPOINTMENT_DAY_VIEW.sql
+-- So sánh dòng "actual time" trong kết quả EXPLAIN ANALYZE (MySQL 8.0.18+).
+
+DROP DATABASE IF EXISTS animalhospital_bench;
+CREATE DATABASE animalhospital_bench CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
+USE animalhospital_bench;
+
+CREATE TABLE appointment (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    time_start DATETIME(6) NOT NULL,
+    time_end DATETIME(6) NULL,
+    type VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    notes VARCHAR(255),
+    appointment_type VARCHAR(50) NOT NULL DEFAULT 'NORMAL',
+    location_type VARCHAR(50) NOT NULL DEFAULT 'AT_CLINIC',
+    pet_id BIGINT,
+    vet_id BIGINT,
+    owner_id BIGINT
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_appointment_vet ON appointment(vet_id);
+CREATE INDEX idx_appointment_time_start ON appointment(time_start);
+CREATE INDEX idx_appointment_vet_time_start ON appointment(vet_id, time_start);
+CREATE INDEX idx_appointment_type_time_start ON appointment(appointment_type, time_start);
+
+-- Bảng số 0..9 để sinh dữ liệu
+CREATE TABLE digits (d INT PRIMARY KEY);
+INSERT INTO digits VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+-- Sinh n dòng: 50 bác sĩ, lịch trải đều trong khoảng 3 năm, bước 1 giờ
+DROP PROCEDURE IF EXISTS seed_appointments;
+DELIMITER //
+CREATE PROCEDURE seed_appointments(IN from_n INT, IN to_n INT)
+BEGIN
+    INSERT INTO appointment (time_start, time_end, type, status, appointment_type, location_type, pet_id, vet_id, owner_id)
+    SELECT
+        TIMESTAMP('2024-01-01 00:00:00') + INTERVAL (n DIV 50) HOUR,
+        TIMESTAMP('2024-01-01 01:00:00') + INTERVAL (n DIV 50) HOUR,
+        'CHECKUP',
+        IF(n % 10 = 0, 'CANCELLED', 'APPROVED'),
+        IF(n % 7 = 0, 'EMERGENCY', 'NORMAL'),
+        'AT_CLINIC',
+        n % 5000 + 1,
+        n % 50 + 1,
+        n % 3000 + 1
+    FROM (
+        SELECT a.d + b.d * 10 + c.d * 100 + e.d * 1000 + f.d * 10000 + g.d * 100000 AS n
+        FROM digits a, digits b, digits c, digits e, digits f, digits g
+    ) numbers
+    WHERE n >= from_n AND n < to_n;
+END //
+DELIMITER ;
+
+-- ---------- 10 nghìn dòng ----------
+CALL seed_appointments(0, 10000);
+ANALYZE TABLE appointment;
+SELECT COUNT(*) AS row_count FROM appointment;
+
+-- Query cũ
+EXPLAIN ANALYZE
+SELECT * FROM appointment
+WHERE vet_id = 7 AND status NOT IN ('CANCELLED', 'REJECTED') AND DATE(time_start) = '2024-01-05';
+
+-- Query mới
+EXPLAIN ANALYZE
+SELECT * FROM appointment
+WHERE vet_id = 7 AND status NOT IN ('CANCELLED', 'REJECTED')
+  AND time_start >= '2024-01-05 00:00:00' AND time_start < '2024-01-06 00:00:00';
+
+EXPLAIN ANALYZE
+SELECT * FROM appointment
+WHERE appointment_type = 'EMERGENCY'
+  AND time_start >= '2024-01-05 00:00:00' AND time_start < '2024-01-06 00:00:00';
+
+-- ---------- 1 triệu dòng ----------
+CALL seed_appointments(10000, 1000000);
+ANALYZE TABLE appointment;
+SELECT COUNT(*) AS row_count FROM appointment;
+
+-- Query cũ: độ trễ tăng theo số dòng
+EXPLAIN ANALYZE
+SELECT * FROM appointment
+WHERE vet_id = 7 AND status NOT IN ('CANCELLED', 'REJECTED') AND DATE(time_start) = '2024-01-05';
+
+-- Query mới: vẫn chỉ đọc các dòng của ngày đó qua idx_appointment_vet_time_start
+EXPLAIN ANALYZE
+SELECT * FROM appointment
+WHERE vet_id = 7 AND status NOT IN ('CANCELLED', 'REJECTED')
+  AND time_start >= '2024-01-05 00:00:00' AND time_start < '2024-01-06 00:00:00';
+
+EXPLAIN ANALYZE
+SELECT * FROM appointment
+WHERE appointment_type = 'EMERGENCY'
+  AND time_start >= '2024-01-05 00:00:00' AND time_start < '2024-01-06 00:00:00';
+
+-- Dọn dẹp
+DROP DATABASE animalhospital_bench;
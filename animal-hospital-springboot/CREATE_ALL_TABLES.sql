@@ -122,6 +122,10 @@ CREATE INDEX idx_appointment_vet ON appointment(vet_id);
 CREATE INDEX idx_appointment_owner ON appointment(owner_id);
 CREATE INDEX idx_appointment_type ON appointment(appointment_type);
 CREATE INDEX idx_appointment_location ON appointment(location_type);
+CREATE INDEX idx_appointment_time_start ON appointment(time_start);
+CREATE INDEX idx_appointment_vet_time_start ON appointment(vet_id, time_start);
+CREATE INDEX idx_appointment_owner_time_start ON appointment(owner_id, time_start);
+CREATE INDEX idx_appointment_type_time_start ON appointment(appointment_type, time_start);
 
 -- =====================================================
 -- 6. Appointment Action Table
@@ -149,6 +153,7 @@ CREATE INDEX idx_appointment_action_assigned_to_id ON appointment_action(assigne
 CREATE INDEX idx_appointment_action_created_by_id ON appointment_action(created_by_id);
 CREATE INDEX idx_appointment_action_status ON appointment_action(status);
 CREATE INDEX idx_appointment_action_action_type ON appointment_action(action_type);
+CREATE INDEX idx_appointment_action_assignee_type_status ON appointment_action(assigned_to_id, action_type, status);
 
 -- =====================================================
 -- 7. Lab Test Table
@@ -207,12 +212,14 @@ CREATE TABLE IF NOT EXISTS appointment_message (
     timestamp DATETIME(6) NOT NULL,
     appointment_id BIGINT NOT NULL,
     sender_id BIGINT NOT NULL,
+    source_event_id BIGINT,
     CONSTRAINT fk_message_appointment FOREIGN KEY (appointment_id) REFERENCES appointment(id) ON DELETE CASCADE,
-    CONSTRAINT fk_message_sender FOREIGN KEY (sender_id) REFERENCES jhi_user(id) ON DELETE CASCADE
+    CONSTRAINT fk_message_sender FOREIGN KEY (sender_id) REFERENCES jhi_user(id) ON DELETE CASCADE,
+    CONSTRAINT uk_message_source_event UNIQUE (source_event_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Indexes for appointment_message
-CREATE INDEX idx_message_appointment ON appointment_message(appointment_id);
+CREATE INDEX idx_message_appointment_id ON appointment_message(appointment_id, id);
 CREATE INDEX idx_message_sender ON appointment_message(sender_id);
 
 -- =====================================================
@@ -234,6 +241,83 @@ CREATE TABLE IF NOT EXISTS appointment_history (
 CREATE INDEX idx_history_appointment ON appointment_history(appointment_id);
 CREATE INDEX idx_history_user ON appointment_history(user_id);
 
+-- =====================================================
+-- 11. Appointment Slot Table (vet slots reserved by active appointments)
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS appointment_slot (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    slot_start DATETIME(6) NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    vet_id BIGINT NOT NULL,
+    CONSTRAINT fk_slot_appointment FOREIGN KEY (appointment_id) REFERENCES appointment(id) ON DELETE CASCADE,
+    CONSTRAINT fk_slot_vet FOREIGN KEY (vet_id) REFERENCES vet(id) ON DELETE CASCADE,
+    CONSTRAINT uk_appointment_slot_vet_start UNIQUE (vet_id, slot_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Indexes for appointment_slot
+CREATE INDEX idx_appointment_slot_appointment ON appointment_slot(appointment_id);
+
+-- =====================================================
+-- 12. Outbox Event Table (workflow notifications delivered after commit)
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    appointment_id BIGINT,
+    payload TEXT,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6),
+    last_error VARCHAR(500)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Indexes for outbox_event
+CREATE INDEX idx_outbox_event_status_available ON outbox_event(status, available_at);
+
+-- =====================================================
+-- 13. Refresh Token Table
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_hash CHAR(64) NOT NULL,
+    family_id BIGINT,
+    user_id BIGINT NOT NULL,
+    login VARCHAR(50) NOT NULL,
+    authorities VARCHAR(255),
+    remember_me BOOLEAN NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at DATETIME(6),
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES jhi_user(id) ON DELETE CASCADE,
+    CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Indexes for refresh_token
+CREATE INDEX idx_refresh_token_family ON refresh_token(family_id);
+CREATE INDEX idx_refresh_token_user ON refresh_token(user_id);
+CREATE INDEX idx_refresh_token_expires ON refresh_token(expires_at);
+
+-- =====================================================
+-- 14. Revoked Token Table
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS revoked_token (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    jti VARCHAR(64),
+    user_id BIGINT,
+    revoked_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Indexes for revoked_token
+CREATE INDEX idx_revoked_token_jti ON revoked_token(jti);
+CREATE INDEX idx_revoked_token_user ON revoked_token(user_id);
+CREATE INDEX idx_revoked_token_expires ON revoked_token(expires_at);
+
 -- =====================================================
 -- Verification: Show all tables
 -- =====================================================
@@ -0,0 +1,67 @@
+package com.docpet.animalhospital.benchmarks;
+
+import com.docpet.animalhospital.domain.Appointment;
+import com.docpet.animalhospital.domain.Owner;
+import com.docpet.animalhospital.service.dto.AppointmentDTO;
+import com.docpet.animalhospital.service.mapper.AppointmentMapperImpl;
+import com.docpet.animalhospital.service.mapper.OwnerMapper;
+import com.docpet.animalhospital.service.mapper.OwnerMapperImpl;
+import com.docpet.animalhospital.service.mapper.PetMapperImpl;
+import com.docpet.animalhospital.service.mapper.VetMapperImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * MapStruct {@link AppointmentMapperImpl#toDto(Appointment)} with pet, vet and owner set, and the
+ * {@link OwnerMapper} name splitting it runs for the owner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentMappingBenchmark {
+
+    private AppointmentMapperImpl appointmentMapper;
+    private OwnerMapper ownerMapper;
+    private Appointment appointment;
+    private Owner owner;
+
+    @Setup
+    public void setUp() {
+        ownerMapper = new OwnerMapperImpl();
+        appointmentMapper = new AppointmentMapperImpl();
+        // Mapper sinh ra dùng field injection
+        ReflectionTestUtils.setField(appointmentMapper, "petMapper", new PetMapperImpl());
+        ReflectionTestUtils.setField(appointmentMapper, "vetMapper", new VetMapperImpl());
+        ReflectionTestUtils.setField(appointmentMapper, "ownerMapper", ownerMapper);
+        appointment = Fixtures.appointment();
+        owner = appointment.getOwner();
+    }
+
+    @Benchmark
+    public AppointmentDTO appointmentToDto() {
+        return appointmentMapper.toDto(appointment);
+    }
+
+    @Benchmark
+    public String splitFirstName() {
+        return ownerMapper.splitFirstName(owner);
+    }
+
+    @Benchmark
+    public String splitLastName() {
+        return ownerMapper.splitLastName(owner);
+    }
+}
@@ -0,0 +1,121 @@
+package com.docpet.animalhospital.benchmarks;
+
+import com.docpet.animalhospital.domain.Appointment;
+import com.docpet.animalhospital.domain.Owner;
+import com.docpet.animalhospital.domain.Pet;
+import com.docpet.animalhospital.domain.User;
+import com.docpet.animalhospital.domain.Vet;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+/**
+ * Entities and collaborators shared by the benchmarks. Nothing here touches a database or a Spring
+ * context: repositories are proxies answering only the methods a benchmark needs.
+ */
+final class Fixtures {
+
+    static final ZonedDateTime DAY = ZonedDateTime.of(2026, 3, 2, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private Fixtures() {}
+
+    static User user(long id, String login, String firstName, String lastName) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(login);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(login + "@example.com");
+        user.setActivated(true);
+        user.setLangKey("vi");
+        return user;
+    }
+
+    static Owner owner() {
+        Owner owner = new Owner();
+        owner.setId(11L);
+        owner.setName("Nguyễn Văn An");
+        owner.setPhone("0901234567");
+        owner.setAddress("12 Lê Lợi, Quận 1");
+        owner.setUser(user(101L, "owner1", "An", "Nguyễn Văn"));
+        return owner;
+    }
+
+    static Vet vet() {
+        Vet vet = new Vet();
+        vet.setId(21L);
+        vet.setLicenseNo("VN-2026-0042");
+        vet.setSpecialization("Surgery");
+        vet.setUser(user(201L, "vet1", "Bình", "Trần"));
+        return vet;
+    }
+
+    static Pet pet(Owner owner) {
+        Pet pet = new Pet();
+        pet.setId(31L);
+        pet.setName("Mực");
+        pet.setSpecies("Dog");
+        pet.setBreed("Phú Quốc");
+        pet.setSex("M");
+        pet.setDateOfBirth(LocalDate.of(2021, 5, 14));
+        pet.setWeight(new BigDecimal("12.50"));
+        pet.setAllergies("None");
+        pet.setNotes("Vaccinated");
+        pet.setOwner(owner);
+        return pet;
+    }
+
+    static Appointment appointment() {
+        Owner owner = owner();
+        Appointment appointment = new Appointment();
+        appointment.setId(41L);
+        appointment.setTimeStart(DAY.withHour(9));
+        appointment.setTimeEnd(DAY.withHour(10));
+        appointment.setType("CHECKUP");
+        appointment.setStatus("CONFIRMED");
+        appointment.setNotes("Khám định kỳ");
+        appointment.setAppointmentType("NORMAL");
+        appointment.setLocationType("AT_CLINIC");
+        appointment.setPet(pet(owner));
+        appointment.setVet(vet());
+        appointment.setOwner(owner);
+        return appointment;
+    }
+
+    /**
+     * Proxy of a repository interface that answers the given methods by name with fixed results
+     * and throws for anything else.
+     */
+    static <T> T repository(Class<T> type, Map<String, Object> results) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            if (!results.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return results.get(method.getName());
+        });
+        return type.cast(proxy);
+    }
+
+    /** Handle to a private method, so benchmarks call it directly instead of through reflection. */
+    static MethodHandle privateMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type.getDeclaredMethod(name, parameterTypes);
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot access " + type.getSimpleName() + "." + name, e);
+        }
+    }
+}
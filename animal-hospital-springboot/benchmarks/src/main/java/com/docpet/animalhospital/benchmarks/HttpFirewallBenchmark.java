@@ -0,0 +1,61 @@
+package com.docpet.animalhospital.benchmarks;
+
+import com.docpet.animalhospital.config.CustomHttpFirewall;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.firewall.DefaultHttpFirewall;
+import org.springframework.security.web.firewall.FirewalledRequest;
+import org.springframework.security.web.firewall.HttpFirewall;
+
+/**
+ * {@link CustomHttpFirewall#getFirewalledRequest} on every request, against
+ * {@link DefaultHttpFirewall} (which it wraps) as the baseline. Each call also reads the request
+ * URI, as the security filter chain does, since the {@code %0A} stripping happens there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpFirewallBenchmark {
+
+    @Param({ "/api/appointments/41/messages", "/api/appointments/41/messages%0A" })
+    String requestUri;
+
+    private HttpFirewall customFirewall;
+    private HttpFirewall defaultFirewall;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        customFirewall = new CustomHttpFirewall();
+        defaultFirewall = new DefaultHttpFirewall();
+        request = new MockHttpServletRequest("GET", requestUri);
+        request.setServletPath(requestUri);
+        request.setQueryString("afterId=0&size=50");
+    }
+
+    @Benchmark
+    public String customFirewall() {
+        FirewalledRequest firewalled = customFirewall.getFirewalledRequest(request);
+        return firewalled.getRequestURI();
+    }
+
+    @Benchmark
+    public String defaultFirewall() {
+        FirewalledRequest firewalled = defaultFirewall.getFirewalledRequest(request);
+        return firewalled.getRequestURI();
+    }
+}
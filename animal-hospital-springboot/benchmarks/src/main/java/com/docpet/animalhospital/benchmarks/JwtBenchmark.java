@@ -0,0 +1,91 @@
+package com.docpet.animalhospital.benchmarks;
+
+import com.docpet.animalhospital.security.AuthenticatedUser;
+import com.docpet.animalhospital.security.CachingJwtDecoder;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * HS256 access tokens as issued by {@code AuthenticateController} and read on every request:
+ * encoding, decoding with {@link NimbusJwtDecoder} alone, and decoding a token that is already in
+ * {@link CachingJwtDecoder}. The key and claims match the default configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // jwt.secret trong application.yml
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtEncoder jwtEncoder;
+    private JwtDecoder nimbusDecoder;
+    private JwtDecoder cachingDecoder;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] keyBytes = Base64.from(SECRET).decode();
+        SecretKey key = new SecretKeySpec(keyBytes, 0, keyBytes.length, "HS256");
+        jwtEncoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+        cachingDecoder = new CachingJwtDecoder(nimbusDecoder, new SimpleMeterRegistry());
+        token = encode();
+        cachingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public String encode() {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+            .id(UUID.randomUUID().toString())
+            .issuedAt(now)
+            .expiresAt(now.plus(1, ChronoUnit.DAYS))
+            .subject("owner1")
+            .claim("auth", "ROLE_USER")
+            .claim(AuthenticatedUser.USER_ID_CLAIM, 101L)
+            .claim(AuthenticatedUser.OWNER_ID_CLAIM, 11L)
+            .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return nimbusDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return cachingDecoder.decode(token);
+    }
+}
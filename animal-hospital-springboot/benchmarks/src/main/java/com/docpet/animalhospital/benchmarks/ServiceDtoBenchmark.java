@@ -0,0 +1,174 @@
+package com.docpet.animalhospital.benchmarks;
+
+import com.docpet.animalhospital.domain.Appointment;
+import com.docpet.animalhospital.domain.AppointmentAction;
+import com.docpet.animalhospital.domain.AppointmentMessage;
+import com.docpet.animalhospital.domain.LabTest;
+import com.docpet.animalhospital.domain.User;
+import com.docpet.animalhospital.repository.AppointmentMessageRepository;
+import com.docpet.animalhospital.service.AppointmentActionService;
+import com.docpet.animalhospital.service.AppointmentMessageService;
+import com.docpet.animalhospital.service.LabTestService;
+import com.docpet.animalhospital.service.dto.AppointmentActionDTO;
+import com.docpet.animalhospital.service.dto.AppointmentMessageDTO;
+import com.docpet.animalhospital.service.dto.LabTestDTO;
+import java.lang.invoke.MethodHandle;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The hand-written {@code toDto} methods of {@link AppointmentMessageService} (entity and
+ * projection row), {@link LabTestService} and {@link AppointmentActionService}. They are private,
+ * so they are called through method handles, which the JIT inlines like a direct call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceDtoBenchmark {
+
+    private static final MethodHandle MESSAGE_TO_DTO = Fixtures.privateMethod(
+        AppointmentMessageService.class,
+        "toDto",
+        AppointmentMessage.class
+    );
+    private static final MethodHandle MESSAGE_ROW_TO_DTO = Fixtures.privateMethod(
+        AppointmentMessageService.class,
+        "toDto",
+        AppointmentMessageRepository.MessageRow.class
+    );
+    private static final MethodHandle LAB_TEST_TO_DTO = Fixtures.privateMethod(LabTestService.class, "toDto", LabTest.class);
+    private static final MethodHandle ACTION_TO_DTO = Fixtures.privateMethod(AppointmentActionService.class, "toDto", AppointmentAction.class);
+
+    private AppointmentMessageService appointmentMessageService;
+    private LabTestService labTestService;
+    private AppointmentActionService appointmentActionService;
+
+    private AppointmentMessage message;
+    private AppointmentMessageRepository.MessageRow messageRow;
+    private LabTest labTest;
+    private AppointmentAction action;
+
+    @Setup
+    public void setUp() {
+        // toDto không dùng tới repository / cache của service
+        appointmentMessageService = new AppointmentMessageService(null, null, null, null, null, null);
+        labTestService = new LabTestService(null, null, null, null);
+        appointmentActionService = new AppointmentActionService(null, null, null, null);
+
+        Appointment appointment = Fixtures.appointment();
+        User vetUser = appointment.getVet().getUser();
+        User assistantUser = Fixtures.user(301L, "assistant1", "Chi", "Lê");
+        ZonedDateTime time = appointment.getTimeStart();
+
+        message = new AppointmentMessage();
+        message.setId(51L);
+        message.setMessage("Bé ăn uống bình thường, hẹn tái khám sau 2 tuần.");
+        message.setTimestamp(time);
+        message.setAppointment(appointment);
+        message.setSender(vetUser);
+        messageRow = new MessageRow(message);
+
+        labTest = new LabTest();
+        labTest.setId(61L);
+        labTest.setTestName("Complete blood count");
+        labTest.setTestType("BLOOD");
+        labTest.setDescription("CBC trước phẫu thuật");
+        labTest.setStatus("COMPLETED");
+        labTest.setResult("Normal");
+        labTest.setNotes("Không bất thường");
+        labTest.setRequestedDate(time);
+        labTest.setSampleCollectedDate(time.plusMinutes(15));
+        labTest.setCompletedDate(time.plusHours(2));
+        labTest.setAppointment(appointment);
+        labTest.setPet(appointment.getPet());
+        labTest.setRequestedBy(vetUser);
+        labTest.setAssignedTo(assistantUser);
+
+        action = new AppointmentAction();
+        action.setId(71L);
+        action.setActionType("ASSIGN_ASSISTANT");
+        action.setStatus("PENDING");
+        action.setDescription("Assistant assigned");
+        action.setNotes("Chuẩn bị phòng mổ");
+        action.setScheduledTime(time);
+        action.setAppointment(appointment);
+        action.setAssignedTo(assistantUser);
+        action.setCreatedBy(vetUser);
+    }
+
+    @Benchmark
+    public AppointmentMessageDTO messageToDto() throws Throwable {
+        return (AppointmentMessageDTO) MESSAGE_TO_DTO.invokeExact(appointmentMessageService, message);
+    }
+
+    @Benchmark
+    public AppointmentMessageDTO messageRowToDto() throws Throwable {
+        return (AppointmentMessageDTO) MESSAGE_ROW_TO_DTO.invokeExact(messageRow);
+    }
+
+    @Benchmark
+    public LabTestDTO labTestToDto() throws Throwable {
+        return (LabTestDTO) LAB_TEST_TO_DTO.invokeExact(labTestService, labTest);
+    }
+
+    @Benchmark
+    public AppointmentActionDTO actionToDto() throws Throwable {
+        return (AppointmentActionDTO) ACTION_TO_DTO.invokeExact(appointmentActionService, action);
+    }
+
+    // Dòng projection như query findRows* trả về
+    private record MessageRow(AppointmentMessage message) implements AppointmentMessageRepository.MessageRow {
+        @Override
+        public Long getId() {
+            return message.getId();
+        }
+
+        @Override
+        public String getMessage() {
+            return message.getMessage();
+        }
+
+        @Override
+        public ZonedDateTime getTimestamp() {
+            return message.getTimestamp();
+        }
+
+        @Override
+        public Long getAppointmentId() {
+            return message.getAppointment().getId();
+        }
+
+        @Override
+        public Long getSenderId() {
+            return message.getSender().getId();
+        }
+
+        @Override
+        public String getSenderLogin() {
+            return message.getSender().getLogin();
+        }
+
+        @Override
+        public String getSenderFirstName() {
+            return message.getSender().getFirstName();
+        }
+
+        @Override
+        public String getSenderLastName() {
+            return message.getSender().getLastName();
+        }
+    }
+}
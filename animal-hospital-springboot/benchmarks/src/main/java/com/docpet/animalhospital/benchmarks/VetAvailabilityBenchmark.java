@@ -0,0 +1,88 @@
+package com.docpet.animalhospital.benchmarks;
+
+import com.docpet.animalhospital.repository.AppointmentActionRepository;
+import com.docpet.animalhospital.repository.AppointmentRepository;
+import com.docpet.animalhospital.repository.VetRepository;
+import com.docpet.animalhospital.service.AppointmentCalendarIndex;
+import com.docpet.animalhospital.service.AppointmentService;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link AppointmentService#checkVetAvailability} once the vet's day is in the calendar index,
+ * i.e. the conflict check every booking and availability request runs. The day holds
+ * {@code appointmentsPerDay} appointments one hour apart from 08:00; {@code conflict} asks for
+ * 09:30 (within an hour of 09:00), {@code free} for 22:00.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VetAvailabilityBenchmark {
+
+    private static final Long VET_ID = 21L;
+
+    @Param({ "4", "12" })
+    int appointmentsPerDay;
+
+    private AppointmentService appointmentService;
+    private ZonedDateTime conflictingStart;
+    private ZonedDateTime freeStart;
+
+    @Setup
+    public void setUp() {
+        List<AppointmentRepository.TimeSlot> slots = new ArrayList<>();
+        for (int i = 0; i < appointmentsPerDay; i++) {
+            slots.add(new Slot(1000L + i, Fixtures.DAY.withHour(8 + i)));
+        }
+        AppointmentCalendarIndex calendarIndex = new AppointmentCalendarIndex(
+            Fixtures.repository(AppointmentRepository.class, Map.of("findActiveTimeSlotsForVet", slots)),
+            Fixtures.repository(AppointmentActionRepository.class, Map.of()),
+            Fixtures.repository(VetRepository.class, Map.of())
+        );
+        // Chỉ index được dùng trong checkVetAvailability
+        appointmentService = new AppointmentService(null, null, null, null, null, null, calendarIndex, null, null);
+        conflictingStart = Fixtures.DAY.withHour(9).withMinute(30);
+        freeStart = Fixtures.DAY.withHour(22);
+        // Nạp trước bucket của ngày, benchmark đo đường đã có trong index
+        appointmentService.checkVetAvailability(VET_ID, freeStart, null);
+    }
+
+    @Benchmark
+    public boolean conflict() {
+        return appointmentService.checkVetAvailability(VET_ID, conflictingStart, null);
+    }
+
+    @Benchmark
+    public boolean free() {
+        return appointmentService.checkVetAvailability(VET_ID, freeStart, null);
+    }
+
+    private record Slot(Long id, ZonedDateTime timeStart) implements AppointmentRepository.TimeSlot {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public ZonedDateTime getTimeStart() {
+            return timeStart;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.docpet.animalhospital.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.cache.spi.support.DirectAccessRegionTemplate;
+import org.hibernate.cache.spi.support.DomainDataRegionTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /management/cacheregions}: size, limits and hit ratio of each second-level cache region
+ * since startup.
+ */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, RegionStats> regions() {
+        CacheImplementor cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        Map<String, RegionStats> regions = new TreeMap<>();
+        for (String name : cache.getCacheRegionNames()) {
+            add(regions, cache.getRegion(name));
+        }
+        if (cache.getTimestampsCache().getRegion() != null) {
+            add(regions, cache.getTimestampsCache().getRegion());
+        }
+        return regions;
+    }
+
+    private static void add(Map<String, RegionStats> regions, Region region) {
+        StorageAccess storage = null;
+        if (region instanceof DomainDataRegionTemplate domainRegion) {
+            storage = domainRegion.getCacheStorageAccess();
+        } else if (region instanceof DirectAccessRegionTemplate directRegion) {
+            storage = directRegion.getStorageAccess();
+        }
+        if (storage instanceof LocalCacheStorage local) {
+            long hits = local.getHits();
+            long misses = local.getMisses();
+            regions.put(
+                region.getName(),
+                new RegionStats(
+                    local.size(),
+                    local.getMaxEntries() == Integer.MAX_VALUE ? null : local.getMaxEntries(),
+                    local.getTtlMillis() == 0 ? null : local.getTtlMillis() / 1000,
+                    hits,
+                    misses,
+                    local.getPuts(),
+                    hits + misses == 0 ? 0 : (double) hits / (hits + misses)
+                )
+            );
+        }
+    }
+
+    public record RegionStats(int size, Integer maxEntries, Long ttlSeconds, long hits, long misses, long puts, double hitRatio) {}
+}
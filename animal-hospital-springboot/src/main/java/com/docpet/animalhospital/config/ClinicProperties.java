@@ -0,0 +1,57 @@
+package com.docpet.animalhospital.config;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "clinic")
+public class ClinicProperties {
+
+    // Múi giờ của phòng khám, dùng để xác định "một ngày" khi lọc lịch hẹn theo ngày
+    private String timeZone = "Asia/Ho_Chi_Minh";
+
+    // Giờ làm việc cho lịch NORMAL (EMERGENCY nhận 24/24), theo múi giờ ở trên
+    private LocalTime openingTime = LocalTime.of(8, 0);
+    private LocalTime closingTime = LocalTime.of(18, 0);
+
+    // Giới hạn khoảng thời gian của một lần tìm slot trống
+    private int maxSlotSearchDays = 14;
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public LocalTime getOpeningTime() {
+        return openingTime;
+    }
+
+    public void setOpeningTime(LocalTime openingTime) {
+        this.openingTime = openingTime;
+    }
+
+    public LocalTime getClosingTime() {
+        return closingTime;
+    }
+
+    public void setClosingTime(LocalTime closingTime) {
+        this.closingTime = closingTime;
+    }
+
+    public int getMaxSlotSearchDays() {
+        return maxSlotSearchDays;
+    }
+
+    public void setMaxSlotSearchDays(int maxSlotSearchDays) {
+        this.maxSlotSearchDays = maxSlotSearchDays;
+    }
+
+    public ZoneId getZoneId() {
+        return ZoneId.of(timeZone);
+    }
+}
@@ -16,6 +16,9 @@ public class CorsConfig {
         config.addAllowedOrigin("http://localhost:5173"); // FE
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        // Cho phép FE đọc header phân trang
+        config.addExposedHeader("Link");
+        config.addExposedHeader("X-Next-Cursor");
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -10,6 +10,8 @@ public class JwtProperties {
     private String secret;
     private long tokenValidityInSeconds = 86400;
     private long tokenValidityInSecondsForRememberMe = 2592000;
+    // Refresh token khi không chọn remember-me (remember-me dùng tokenValidityInSecondsForRememberMe)
+    private long refreshTokenValidityInSeconds = 604800;
 
     public String getSecret() {
         return secret;
@@ -34,4 +36,12 @@ public class JwtProperties {
     public void setTokenValidityInSecondsForRememberMe(long tokenValidityInSecondsForRememberMe) {
         this.tokenValidityInSecondsForRememberMe = tokenValidityInSecondsForRememberMe;
     }
+
+    public long getRefreshTokenValidityInSeconds() {
+        return refreshTokenValidityInSeconds;
+    }
+
+    public void setRefreshTokenValidityInSeconds(long refreshTokenValidityInSeconds) {
+        this.refreshTokenValidityInSeconds = refreshTokenValidityInSeconds;
+    }
 }
@@ -0,0 +1,116 @@
+package com.docpet.animalhospital.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage of one second-level cache region: an LRU map bounded to {@code maxEntries} whose entries
+ * expire {@code ttlMillis} after they were written ({@code 0} = never). Counts hits and misses for
+ * {@link CacheRegionsEndpoint}.
+ */
+public class LocalCacheStorage implements DomainDataStorageAccess {
+
+    private final String regionName;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<Object, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+
+    public LocalCacheStorage(String regionName, int maxEntries, long ttlMillis) {
+        this.regionName = regionName;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > LocalCacheStorage.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Object value = get(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        puts.increment();
+        synchronized (this) {
+            entries.put(key, new Entry(value, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized void evictData() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void evictData(Object key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    private synchronized Object get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() > entry.expiresAt()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    private record Entry(Object value, long expiresAt) {}
+}
@@ -0,0 +1,73 @@
+package com.docpet.animalhospital.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * In-process Hibernate second-level cache, one {@link LocalCacheStorage} per region. Size and TTL
+ * come from {@code hibernate.cache.local.<region>.max-entries} / {@code .ttl-seconds}, falling
+ * back to {@code hibernate.cache.local.default.*}. The update-timestamps region is never bounded:
+ * losing an entry there would let the query cache return stale results.
+ * <p>
+ * Each node has its own cache, so with several nodes a change made on one node is only seen by the
+ * others once their copy expires; keep TTLs short for data that is edited.
+ */
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    public static final String PROPERTY_PREFIX = "hibernate.cache.local.";
+
+    private static final int DEFAULT_MAX_ENTRIES = 1_000;
+    private static final long DEFAULT_TTL_SECONDS = 600;
+
+    private Map<String, Object> configValues = Map.of();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        this.configValues = new HashMap<>(configValues);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        configValues = Map.of();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(
+        DomainDataRegionConfig regionConfig,
+        DomainDataRegionBuildingContext buildingContext
+    ) {
+        return boundedStorage(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return boundedStorage(regionName);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        // Một entry cho mỗi bảng, không cần giới hạn
+        return new LocalCacheStorage(regionName, Integer.MAX_VALUE, 0);
+    }
+
+    private LocalCacheStorage boundedStorage(String regionName) {
+        int maxEntries = (int) setting(regionName, "max-entries", DEFAULT_MAX_ENTRIES);
+        long ttlSeconds = setting(regionName, "ttl-seconds", DEFAULT_TTL_SECONDS);
+        return new LocalCacheStorage(regionName, maxEntries, ttlSeconds * 1000);
+    }
+
+    private long setting(String regionName, String name, long defaultValue) {
+        Object value = configValues.get(PROPERTY_PREFIX + regionName + "." + name);
+        if (value == null) {
+            value = configValues.get(PROPERTY_PREFIX + "default." + name);
+        }
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+}
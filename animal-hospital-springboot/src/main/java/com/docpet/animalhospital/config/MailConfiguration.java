@@ -0,0 +1,24 @@
+package com.docpet.animalhospital.config;
+
+import com.docpet.animalhospital.service.mail.FileMailTransport;
+import com.docpet.animalhospital.service.mail.InMemoryMailTransport;
+import com.docpet.animalhospital.service.mail.LoggingMailTransport;
+import com.docpet.animalhospital.service.mail.MailTransport;
+import java.nio.file.Path;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MailConfiguration {
+
+    // Chọn transport theo mail.transport; SMTP thêm một implementation của MailTransport vào đây
+    @Bean
+    public MailTransport mailTransport(MailProperties mailProperties) {
+        return switch (mailProperties.getTransport()) {
+            case "log" -> new LoggingMailTransport();
+            case "file" -> new FileMailTransport(Path.of(mailProperties.getFileDirectory()));
+            case "memory" -> new InMemoryMailTransport();
+            default -> throw new IllegalArgumentException("Unknown mail.transport: " + mailProperties.getTransport());
+        };
+    }
+}
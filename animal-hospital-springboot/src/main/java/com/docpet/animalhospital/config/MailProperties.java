@@ -0,0 +1,83 @@
+package com.docpet.animalhospital.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "mail")
+public class MailProperties {
+
+    private String from = "no-reply@animalhospital.local";
+
+    // Địa chỉ frontend, dùng cho link trong email (đặt lại mật khẩu, kích hoạt)
+    private String baseUrl = "http://localhost:5173";
+
+    // log (mặc định, chỉ ghi log), file (ghi .eml vào fileDirectory), memory (giữ trong bộ nhớ, cho test)
+    private String transport = "log";
+
+    private String fileDirectory = "target/mails";
+
+    // Email chờ gửi tối đa; đầy thì email mới bị từ chối thay vì làm chậm request
+    private int queueCapacity = 1_000;
+
+    private int workers = 2;
+
+    // Số email tối đa gửi trong một phiên của transport
+    private int batchSize = 20;
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public String getFileDirectory() {
+        return fileDirectory;
+    }
+
+    public void setFileDirectory(String fileDirectory) {
+        this.fileDirectory = fileDirectory;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,31 @@
+package com.docpet.animalhospital.config;
+
+import com.docpet.animalhospital.security.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Timers for service methods ({@code service.invocations}) and Spring Data repository methods
+ * ({@code spring.data.repository.invocations}, timed by Spring Boot), both tagged with the role of
+ * the current user.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public static ServiceMetricsPostProcessor serviceMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceMetricsPostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaultTags = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaultTags.repositoryTags(invocation)).and(Tag.of("role", SecurityUtils.getCurrentUserRole()));
+    }
+}
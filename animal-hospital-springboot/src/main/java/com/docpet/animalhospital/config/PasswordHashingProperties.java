@@ -0,0 +1,42 @@
+package com.docpet.animalhospital.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingProperties {
+
+    // Cost của BCrypt cho hash mới; hash cũ khác cost được hash lại khi đăng nhập thành công
+    private int bcryptStrength = 10;
+
+    // Số thread hash mật khẩu, 0 = số CPU
+    private int threads = 0;
+
+    // Số tác vụ hash chờ tối đa; đầy thì trả 503 ngay thay vì xếp hàng
+    private int queueCapacity = 64;
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
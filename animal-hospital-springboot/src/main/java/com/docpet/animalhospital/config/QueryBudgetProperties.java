@@ -0,0 +1,44 @@
+package com.docpet.animalhospital.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "query-budget")
+public class QueryBudgetProperties {
+
+    // Số câu lệnh SQL tối đa mỗi request, vượt quá thì log warning
+    private int defaultBudget = 20;
+
+    // Cùng một câu lệnh chạy từ chừng này lần trong một request thì coi là N+1
+    private int repeatThreshold = 5;
+
+    // Budget riêng theo endpoint, key dạng "GET /api/appointments/{id}"
+    private Map<String, Integer> endpoints = new LinkedHashMap<>();
+
+    public int getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(int defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    public void setRepeatThreshold(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public Map<String, Integer> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Integer> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
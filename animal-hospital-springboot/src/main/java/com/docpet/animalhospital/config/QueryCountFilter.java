@@ -0,0 +1,116 @@
+package com.docpet.animalhospital.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements executed by each request (on the request thread, including those of
+ * the security filters and of response serialization). Outside the {@code prod} profile the count
+ * is returned in {@code X-Query-Count}. A request over its budget ({@link QueryBudgetProperties})
+ * or running the same statement shape {@code repeatThreshold} times or more (a likely N+1) is
+ * logged as a warning and counted in {@code sql.budget.exceeded{endpoint, reason=budget|repeat}}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final QueryBudgetProperties queryBudgetProperties;
+    private final MeterRegistry meterRegistry;
+    private final boolean exposeHeader;
+
+    public QueryCountFilter(QueryBudgetProperties queryBudgetProperties, MeterRegistry meterRegistry, Environment environment) {
+        this.queryBudgetProperties = queryBudgetProperties;
+        this.meterRegistry = meterRegistry;
+        this.exposeHeader = !environment.acceptsProfiles(Profiles.of("prod"));
+    }
+
+    /** Called for every statement; counts it if the current thread is serving a request. */
+    static void statementExecuted(String shape) {
+        RequestQueries queries = CURRENT.get();
+        if (queries != null) {
+            queries.count++;
+            queries.perShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RequestQueries queries = new RequestQueries();
+        CURRENT.set(queries);
+        try {
+            filterChain.doFilter(request, exposeHeader ? new QueryCountResponse(response, queries) : response);
+        } finally {
+            CURRENT.remove();
+            if (exposeHeader && !response.isCommitted()) {
+                response.setHeader(QUERY_COUNT_HEADER, String.valueOf(queries.count));
+            }
+            checkBudget(request, queries);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, RequestQueries queries) {
+        if (queries.count == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? request.getMethod() + " " + pattern : "unmapped";
+        int budget = queryBudgetProperties.getEndpoints().getOrDefault(endpoint, queryBudgetProperties.getDefaultBudget());
+        if (queries.count > budget) {
+            LOG.warn("{} executed {} SQL statement(s), budget is {}", endpoint, queries.count, budget);
+            Counter.builder("sql.budget.exceeded").tag("endpoint", endpoint).tag("reason", "budget").register(meterRegistry).increment();
+        }
+        for (Map.Entry<String, Integer> entry : queries.perShape.entrySet()) {
+            if (entry.getValue() >= queryBudgetProperties.getRepeatThreshold()) {
+                LOG.warn("{} executed the same statement {} times (possible N+1): {}", endpoint, entry.getValue(), entry.getKey());
+                Counter.builder("sql.budget.exceeded").tag("endpoint", endpoint).tag("reason", "repeat").register(meterRegistry).increment();
+            }
+        }
+    }
+
+    // Chỉ dùng trên thread của request, không cần đồng bộ
+    private static final class RequestQueries {
+
+        private int count;
+        private final Map<String, Integer> perShape = new HashMap<>();
+    }
+
+    // Header phải được đặt trước khi response commit (lúc đó các câu lệnh của request đã chạy xong)
+    private static final class QueryCountResponse extends OnCommittedResponseWrapper {
+
+        private final RequestQueries queries;
+
+        QueryCountResponse(HttpServletResponse response, RequestQueries queries) {
+            super(response);
+            this.queries = queries;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(QUERY_COUNT_HEADER, String.valueOf(queries.count));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.docpet.animalhospital.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Bucket không dùng quá thời gian này (đã đầy lại) thì bị xóa
+    private long idleSeconds = 600;
+
+    // Số bucket tối đa mỗi nhóm; vượt quá thì các client mới dùng chung một bucket của nhóm
+    private int maxBuckets = 100_000;
+
+    // Nhóm route theo thứ tự khai báo, request thuộc nhóm đầu tiên khớp
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getIdleSeconds() {
+        return idleSeconds;
+    }
+
+    public void setIdleSeconds(long idleSeconds) {
+        this.idleSeconds = idleSeconds;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Map<String, Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, Group> groups) {
+        this.groups = groups;
+    }
+
+    public static class Group {
+
+        // "METHOD /path/pattern" (Ant pattern), method có thể bỏ trống
+        private List<String> routes = new ArrayList<>();
+
+        // Số request liên tiếp tối đa
+        private int capacity = 10;
+
+        // Tốc độ nạp lại token
+        private int refillPerMinute = 60;
+
+        public List<String> getRoutes() {
+            return routes;
+        }
+
+        public void setRoutes(List<String> routes) {
+            this.routes = routes;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getRefillPerMinute() {
+            return refillPerMinute;
+        }
+
+        public void setRefillPerMinute(int refillPerMinute) {
+            this.refillPerMinute = refillPerMinute;
+        }
+    }
+}
@@ -2,10 +2,17 @@ package com.docpet.animalhospital.config;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import com.docpet.animalhospital.security.AuthenticatedUser;
+import com.docpet.animalhospital.security.AuthenticatedUserToken;
 import com.docpet.animalhospital.security.AuthoritiesConstants;
+import com.docpet.animalhospital.security.BoundedPasswordEncoder;
 import com.docpet.animalhospital.security.DomainUserDetailsService;
+import com.docpet.animalhospital.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,13 +21,13 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.firewall.HttpFirewall;
@@ -33,15 +40,36 @@ public class SecurityConfiguration {
 
     private final DomainUserDetailsService userDetailsService;
     private final JwtDecoder jwtDecoder;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final RateLimitProperties rateLimitProperties;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfiguration(DomainUserDetailsService userDetailsService, JwtDecoder jwtDecoder) {
+    public SecurityConfiguration(
+        DomainUserDetailsService userDetailsService,
+        JwtDecoder jwtDecoder,
+        PasswordHashingProperties passwordHashingProperties,
+        RateLimitProperties rateLimitProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.userDetailsService = userDetailsService;
         this.jwtDecoder = jwtDecoder;
+        this.passwordHashingProperties = passwordHashingProperties;
+        this.rateLimitProperties = rateLimitProperties;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // BCrypt chạy trên pool riêng có giới hạn, không chiếm thread của Tomcat
+        int threads = passwordHashingProperties.getThreads() > 0
+            ? passwordHashingProperties.getThreads()
+            : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+            passwordHashingProperties.getBcryptStrength(),
+            threads,
+            passwordHashingProperties.getQueueCapacity(),
+            meterRegistry
+        );
     }
 
     @Bean
@@ -49,6 +77,8 @@ public class SecurityConfiguration {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Hash lại mật khẩu theo cost hiện tại khi đăng nhập thành công
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -78,6 +108,7 @@ public class SecurityConfiguration {
                     // Public endpoints - phải đặt trước các rule khác
                     .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/authenticate")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate/refresh")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/register")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/register-vet")).permitAll()
                     .requestMatchers(mvc.pattern("/api/activate")).permitAll()
@@ -106,7 +137,9 @@ public class SecurityConfiguration {
                     jwt.decoder(jwtDecoder);
                     jwt.jwtAuthenticationConverter(jwtAuthenticationConverter());
                 })
-            );
+            )
+            // Sau khi xác thực token để giới hạn theo user; không khai báo là bean để không bị đăng ký thêm ngoài security chain
+            .addFilterAfter(new RateLimitFilter(rateLimitProperties, meterRegistry), BearerTokenAuthenticationFilter.class);
         return http.build();
     }
 
@@ -115,23 +148,20 @@ public class SecurityConfiguration {
         return new MvcRequestMatcher.Builder(introspector);
     }
 
-    @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
+    // Không đăng ký làm @Bean: Spring MVC sẽ nhặt mọi bean Converter vào conversion service
+    private Converter<Jwt, AuthenticatedUserToken> jwtAuthenticationConverter() {
+        return jwt -> {
             // Extract authorities from "auth" claim (space-separated string)
             String authClaim = jwt.getClaimAsString("auth");
-            if (authClaim == null || authClaim.trim().isEmpty()) {
-                return java.util.Collections.emptyList();
-            }
-            return java.util.Arrays.stream(authClaim.split("\\s+"))
-                .map(SimpleGrantedAuthority::new)
-                .map(GrantedAuthority.class::cast)
-                .collect(java.util.stream.Collectors.toList());
-        });
-        // Set principal name to JWT subject (username) instead of Jwt object
-        converter.setPrincipalClaimName("sub");
-        return converter;
+            List<GrantedAuthority> authorities = authClaim == null || authClaim.trim().isEmpty()
+                ? List.of()
+                : java.util.Arrays.stream(authClaim.split("\\s+"))
+                    .map(SimpleGrantedAuthority::new)
+                    .map(GrantedAuthority.class::cast)
+                    .toList();
+            // Principal mang login (sub) cùng user id / profile id trong token
+            return new AuthenticatedUserToken(jwt, AuthenticatedUser.fromJwt(jwt), authorities);
+        };
     }
 }
 
@@ -1,6 +1,9 @@
 package com.docpet.animalhospital.config;
 
+import com.docpet.animalhospital.security.CachingJwtDecoder;
+import com.docpet.animalhospital.service.TokenRevocationService;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.MeterRegistry;
 import com.nimbusds.jose.util.Base64;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -28,11 +33,11 @@ public class SecurityJwtConfiguration {
     private static final String JWT_ALGORITHM = "HS256";
 
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry, TokenRevocationService tokenRevocationService) {
         NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey())
             .macAlgorithm(org.springframework.security.oauth2.jose.jws.MacAlgorithm.HS256)
             .build();
-        return token -> {
+        JwtDecoder loggingDecoder = token -> {
             try {
                 return jwtDecoder.decode(token);
             } catch (Exception e) {
@@ -40,6 +45,16 @@ public class SecurityJwtConfiguration {
                 throw e;
             }
         };
+        // Cùng một token được gửi lại nhiều lần, chỉ verify lần đầu
+        JwtDecoder cachingDecoder = new CachingJwtDecoder(loggingDecoder, meterRegistry);
+        // Kiểm tra thu hồi ở mọi request, kể cả khi token lấy từ cache
+        return token -> {
+            Jwt jwt = cachingDecoder.decode(token);
+            if (tokenRevocationService.isRevoked(jwt)) {
+                throw new BadJwtException("Token has been revoked");
+            }
+            return jwt;
+        };
     }
 
     @Bean
@@ -0,0 +1,86 @@
+package com.docpet.animalhospital.config;
+
+import com.docpet.animalhospital.security.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Times every public method of the {@link Service} beans in the {@code service} package as
+ * {@code service.invocations{service, method, role, exception}}, outside the transaction so the
+ * commit is included. {@code role} is {@link SecurityUtils#getCurrentUserRole()}; the user itself
+ * is never a tag. Histogram / SLO buckets are set under {@code management.metrics.distribution}.
+ */
+public class ServiceMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String METRIC_NAME = "service.invocations";
+
+    private static final String SERVICE_PACKAGE = "com.docpet.animalhospital.service";
+
+    public ServiceMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        ComposablePointcut pointcut = new ComposablePointcut(
+            type -> type.getPackageName().equals(SERVICE_PACKAGE) && AnnotatedElementUtils.hasAnnotation(type, Service.class)
+        ).intersection(
+            new StaticMethodMatcher() {
+                @Override
+                public boolean matches(Method method, Class<?> targetClass) {
+                    return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+                }
+            }
+        );
+        this.advisor = new DefaultPointcutAdvisor(pointcut, new TimingInterceptor(meterRegistry));
+        setProxyTargetClass(true);
+        // Đặt ngoài TransactionInterceptor
+        setBeforeExistingAdvisors(true);
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+
+        // Lấy registry khi gọi lần đầu: BeanPostProcessor tạo sớm, không được kéo MeterRegistry theo
+        private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+        private volatile MeterRegistry meterRegistry;
+
+        TimingInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+            this.meterRegistryProvider = meterRegistryProvider;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MeterRegistry registry = meterRegistry;
+            if (registry == null) {
+                registry = meterRegistry = meterRegistryProvider.getObject();
+            }
+            String role = SecurityUtils.getCurrentUserRole();
+            String exception = "none";
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                Timer.builder(METRIC_NAME)
+                    .tag("service", invocation.getMethod().getDeclaringClass().getSimpleName())
+                    .tag("method", invocation.getMethod().getName())
+                    .tag("role", role)
+                    .tag("exception", exception)
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
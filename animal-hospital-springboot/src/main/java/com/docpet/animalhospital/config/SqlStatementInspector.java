@@ -0,0 +1,39 @@
+package com.docpet.animalhospital.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Called by Hibernate for every statement before it is prepared. Leaves the SQL unchanged and
+ * remembers its shape on the current thread until {@link SqlStatementListener} records the
+ * execution that follows.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<Pending> CURRENT = new ThreadLocal<>();
+
+    private final transient SqlStatistics sqlStatistics;
+
+    public SqlStatementInspector(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        CURRENT.set(new Pending(sqlStatistics.shape(sql), sqlStatistics));
+        return sql;
+    }
+
+    /**
+     * Statement most recently prepared on this thread, or {@code null} if none is pending; clears it
+     * so that a later execution that was not inspected is not recorded under this shape.
+     */
+    static Pending take() {
+        Pending pending = CURRENT.get();
+        CURRENT.remove();
+        return pending;
+    }
+
+    record Pending(String shape, SqlStatistics sqlStatistics) {}
+}
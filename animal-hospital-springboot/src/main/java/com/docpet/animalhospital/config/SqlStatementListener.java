@@ -0,0 +1,43 @@
+package com.docpet.animalhospital.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Times JDBC executions of a session and reports them, with the shape recorded by
+ * {@link SqlStatementInspector}, to {@link SqlStatistics}. Hibernate creates one per session
+ * ({@code hibernate.session.events.auto}).
+ */
+public class SqlStatementListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private long startNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void record() {
+        // Không có statement đang chờ (execution không qua inspect) thì bỏ qua
+        SqlStatementInspector.Pending pending = SqlStatementInspector.take();
+        if (pending != null) {
+            pending.sqlStatistics().statementExecuted(pending.shape(), System.nanoTime() - startNanos);
+        }
+    }
+}
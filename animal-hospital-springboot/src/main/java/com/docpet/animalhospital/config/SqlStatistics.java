@@ -0,0 +1,220 @@
+package com.docpet.animalhospital.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Statement statistics since startup, grouped by normalized SQL shape (literals and IN lists
+ * replaced by {@code ?}), by Hibernate query (HQL / native SQL) and by REST endpoint
+ * ({@code "GET /api/appointments/{id}"}, or {@code background} outside a request). Fed by
+ * {@link SqlStatementInspector} / {@link SqlStatementListener} (each JDBC statement and its
+ * execution time) and by Hibernate statistics (rows returned by each query).
+ * <p>
+ * Metrics: {@code sql.statement{statement}} (execution time per shape; the id is listed by the
+ * {@code sqlstats} endpoint), {@code sql.statements{endpoint}} and {@code sql.rows{endpoint}}.
+ */
+public class SqlStatistics {
+
+    // Giới hạn số shape / query / endpoint được theo dõi riêng, phần còn lại gộp vào "other"
+    private static final int MAX_KEYS = 500;
+    private static final String OTHER = "other";
+    // Biên các bucket của histogram thời gian (ms), bucket cuối là phần còn lại
+    private static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000 };
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.?:])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry meterRegistry;
+    // SQL do Hibernate sinh ra hầu như cố định, chỉ chuẩn hóa mỗi câu một lần
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<String, Stats> statements = new ConcurrentHashMap<>();
+    private final Map<String, Stats> queries = new ConcurrentHashMap<>();
+    private final Map<String, Stats> endpoints = new ConcurrentHashMap<>();
+
+    public SqlStatistics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Normalized shape of a statement, e.g. {@code select ... where id in (?) limit ?}. */
+    public String shape(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapes.size() < MAX_KEYS * 4) {
+                shapes.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    public void statementExecuted(String shape, long nanos) {
+        QueryCountFilter.statementExecuted(shape);
+        stats(statements, shape, this::statementStats).record(nanos, 0);
+        stats(endpoints, currentEndpoint(), this::endpointStats).record(nanos, 0);
+    }
+
+    /** A Hibernate query finished: {@code rows} rows in {@code millis} ms (all its statements). */
+    public void queryExecuted(String query, int rows, long millis) {
+        stats(queries, shape(query), key -> new Stats(null, null)).record(TimeUnit.MILLISECONDS.toNanos(millis), rows);
+        stats(endpoints, currentEndpoint(), this::endpointStats).addRows(rows);
+    }
+
+    public List<Entry> statements(int limit, String sort) {
+        return top(statements, limit, sort, true);
+    }
+
+    public List<Entry> queries(int limit, String sort) {
+        return top(queries, limit, sort, false);
+    }
+
+    public List<Entry> endpoints(int limit, String sort) {
+        return top(endpoints, limit, sort, false);
+    }
+
+    /** Clears the report (Micrometer meters keep counting). */
+    public void reset() {
+        statements.clear();
+        queries.clear();
+        endpoints.clear();
+    }
+
+    private Stats statementStats(String shape) {
+        return new Stats(Timer.builder("sql.statement").tag("statement", id(shape)).publishPercentileHistogram().register(meterRegistry), null);
+    }
+
+    private Stats endpointStats(String endpoint) {
+        return new Stats(
+            Timer.builder("sql.statements").tag("endpoint", endpoint).publishPercentileHistogram().register(meterRegistry),
+            DistributionSummary.builder("sql.rows").tag("endpoint", endpoint).register(meterRegistry)
+        );
+    }
+
+    private static Stats stats(Map<String, Stats> map, String key, Function<String, Stats> factory) {
+        Stats stats = map.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        String actualKey = map.size() < MAX_KEYS ? key : OTHER;
+        return map.computeIfAbsent(actualKey, factory);
+    }
+
+    // Câu lệnh (statements) có id để đối chiếu với tag của metric, nhưng không có số rows
+    private static List<Entry> top(Map<String, Stats> map, int limit, String sort, boolean statement) {
+        Comparator<Entry> order = switch (sort == null ? "total" : sort) {
+            case "count" -> Comparator.comparingLong(Entry::count);
+            case "max" -> Comparator.comparingDouble(Entry::maxMillis);
+            case "rows" -> Comparator.comparingLong(entry -> entry.rows() != null ? entry.rows() : 0);
+            default -> Comparator.comparingDouble(Entry::totalMillis);
+        };
+        List<Entry> entries = new ArrayList<>(map.size());
+        map.forEach((key, stats) -> entries.add(stats.toEntry(key, statement)));
+        entries.sort(order.reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return "background";
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? request.getMethod() + " " + pattern : "unmapped";
+    }
+
+    private static String id(String shape) {
+        return String.format("%08x", shape.hashCode());
+    }
+
+    private static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+
+    private static final class Stats {
+
+        private final Timer timer;
+        private final DistributionSummary rowsSummary;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+
+        Stats(Timer timer, DistributionSummary rowsSummary) {
+            this.timer = timer;
+            this.rowsSummary = rowsSummary;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, int rowCount) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            rows.add(rowCount);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            if (timer != null) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void addRows(int rowCount) {
+            rows.add(rowCount);
+            if (rowsSummary != null) {
+                rowsSummary.record(rowCount);
+            }
+        }
+
+        Entry toEntry(String key, boolean statement) {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                String label = i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] + "ms" : ">=" + BUCKET_BOUNDS_MILLIS[i - 1] + "ms";
+                histogram.put(label, buckets[i].sum());
+            }
+            long n = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            return new Entry(
+                statement ? id(key) : null,
+                key,
+                n,
+                totalMillis,
+                n == 0 ? 0 : totalMillis / n,
+                maxNanos.get() / 1_000_000.0,
+                statement ? null : rows.sum(),
+                histogram
+            );
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(String id, String key, long count, double totalMillis, double meanMillis, double maxMillis, Long rows, Map<String, Long> histogram) {}
+}
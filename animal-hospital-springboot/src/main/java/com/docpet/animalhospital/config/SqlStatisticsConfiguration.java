@@ -0,0 +1,43 @@
+package com.docpet.animalhospital.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Collects statement statistics ({@link SqlStatistics}) from Hibernate instead of logging every
+ * statement: a statement inspector and session listener for SQL shapes and execution times, and
+ * Hibernate statistics for the rows of each query. Read them at {@code /management/sqlstats}.
+ */
+@Configuration
+public class SqlStatisticsConfiguration {
+
+    @Bean
+    public SqlStatistics sqlStatistics(MeterRegistry meterRegistry) {
+        return new SqlStatistics(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatisticsCustomizer(SqlStatistics sqlStatistics) {
+        StatisticsFactory statisticsFactory = sessionFactory -> new StatisticsImpl(sessionFactory) {
+            @Override
+            public void queryExecuted(String query, int rows, long time) {
+                super.queryExecuted(query, rows, time);
+                sqlStatistics.queryExecuted(query, rows, time);
+            }
+        };
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector(sqlStatistics));
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatementListener.class.getName());
+            properties.put(AvailableSettings.STATS_BUILDER, statisticsFactory);
+            // Chỉ bật khi chưa cấu hình (hibernate.generate_statistics: false để tắt số rows)
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, "true");
+            // Statistics bật thì Hibernate log "Session Metrics" ở INFO cho mỗi session
+            properties.putIfAbsent(AvailableSettings.LOG_SESSION_METRICS, "false");
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.docpet.animalhospital.config;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /management/sqlstats?limit=20&sort=total|count|max|rows}: the top SQL shapes, Hibernate
+ * queries and REST endpoints by database time since startup (or the last
+ * {@code DELETE /management/sqlstats}).
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SqlStatistics sqlStatistics;
+
+    public SqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @ReadOperation
+    public Report top(@Nullable Integer limit, @Nullable String sort) {
+        int n = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        return new Report(sqlStatistics.statements(n, sort), sqlStatistics.queries(n, sort), sqlStatistics.endpoints(n, sort));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+
+    public record Report(List<SqlStatistics.Entry> statements, List<SqlStatistics.Entry> queries, List<SqlStatistics.Entry> endpoints) {}
+}
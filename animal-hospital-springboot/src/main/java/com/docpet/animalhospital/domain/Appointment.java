@@ -6,7 +6,12 @@ import java.io.Serializable;
 import java.time.ZonedDateTime;
 
 @Entity
-@Table(name = "appointment")
+@Table(name = "appointment", indexes = {
+    @Index(name = "idx_appointment_time_start", columnList = "time_start"),
+    @Index(name = "idx_appointment_vet_time_start", columnList = "vet_id, time_start"),
+    @Index(name = "idx_appointment_owner_time_start", columnList = "owner_id, time_start"),
+    @Index(name = "idx_appointment_type_time_start", columnList = "appointment_type, time_start")
+})
 public class Appointment implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -6,7 +6,9 @@ import java.io.Serializable;
 import java.time.ZonedDateTime;
 
 @Entity
-@Table(name = "appointment_action")
+@Table(name = "appointment_action", indexes = {
+    @Index(name = "idx_appointment_action_assignee_type_status", columnList = "assigned_to_id, action_type, status")
+})
 public class AppointmentAction implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -7,7 +7,11 @@ import java.io.Serializable;
 import java.time.ZonedDateTime;
 
 @Entity
-@Table(name = "appointment_message")
+@Table(
+    name = "appointment_message",
+    uniqueConstraints = { @UniqueConstraint(name = "uk_message_source_event", columnNames = { "source_event_id" }) },
+    indexes = { @Index(name = "idx_message_appointment_id", columnList = "appointment_id, id") }
+)
 public class AppointmentMessage implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -36,6 +40,10 @@ public class AppointmentMessage implements Serializable {
     @NotNull
     private User sender;
 
+    // Outbox event đã tạo message này (tin nhắn tự động), để xử lý lại event không tạo trùng
+    @Column(name = "source_event_id")
+    private Long sourceEventId;
+
     public AppointmentMessage() {}
 
     public Long getId() {
@@ -78,6 +86,14 @@ public class AppointmentMessage implements Serializable {
         this.sender = sender;
     }
 
+    public Long getSourceEventId() {
+        return sourceEventId;
+    }
+
+    public void setSourceEventId(Long sourceEventId) {
+        this.sourceEventId = sourceEventId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
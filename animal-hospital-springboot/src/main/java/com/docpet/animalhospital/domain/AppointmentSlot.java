@@ -0,0 +1,95 @@
+package com.docpet.animalhospital.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * One 15-minute slot of a vet held by an active appointment. The unique (vet_id, slot_start)
+ * key makes the database reject a second booking of the same slot.
+ */
+@Entity
+@Table(
+    name = "appointment_slot",
+    uniqueConstraints = { @UniqueConstraint(name = "uk_appointment_slot_vet_start", columnNames = { "vet_id", "slot_start" }) },
+    indexes = { @Index(name = "idx_appointment_slot_appointment", columnList = "appointment_id") }
+)
+public class AppointmentSlot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "slot_start", nullable = false)
+    private ZonedDateTime slotStart;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "appointment_id", nullable = false)
+    private Appointment appointment;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "vet_id", nullable = false)
+    private Vet vet;
+
+    public AppointmentSlot() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ZonedDateTime getSlotStart() {
+        return slotStart;
+    }
+
+    public void setSlotStart(ZonedDateTime slotStart) {
+        this.slotStart = slotStart;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+
+    public void setAppointment(Appointment appointment) {
+        this.appointment = appointment;
+    }
+
+    public Vet getVet() {
+        return vet;
+    }
+
+    public void setVet(Vet vet) {
+        this.vet = vet;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AppointmentSlot)) return false;
+        AppointmentSlot that = (AppointmentSlot) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentSlot{" +
+            "id=" + id +
+            ", slotStart='" + slotStart + "'" +
+            "}";
+    }
+}
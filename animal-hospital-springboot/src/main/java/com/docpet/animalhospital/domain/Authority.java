@@ -6,11 +6,17 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
 import java.util.Objects;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "jhi_authority")
 @JsonIgnoreProperties(value = { "new", "id" })
+// Danh sách quyền cố định, không bao giờ sửa sau khi tạo
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "authority")
 public class Authority implements Serializable, Persistable<String> {
 
     private static final long serialVersionUID = 1L;
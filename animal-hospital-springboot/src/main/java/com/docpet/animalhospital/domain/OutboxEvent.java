@@ -0,0 +1,169 @@
+package com.docpet.animalhospital.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A side effect (notification message, email) of a workflow change, written in the same
+ * transaction as the change and delivered later by the outbox dispatcher.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = { @Index(name = "idx_outbox_event_status_available", columnList = "status, available_at") })
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TYPE_APPOINTMENT_RESCHEDULED = "APPOINTMENT_RESCHEDULED";
+    public static final String TYPE_HOME_VISIT_REQUESTED = "HOME_VISIT_REQUESTED";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    // JSON, nội dung tùy theo event_type
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @NotNull
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = STATUS_PENDING;
+
+    @NotNull
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Lần xử lý tiếp theo (backoff khi lỗi, hoặc hết hạn giữ chỗ của dispatcher đang xử lý)
+    @NotNull
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public OutboxEvent() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Instant availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(Instant processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OutboxEvent)) return false;
+        OutboxEvent that = (OutboxEvent) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+            "id=" + id +
+            ", eventType='" + eventType + "'" +
+            ", appointmentId=" + appointmentId +
+            ", status='" + status + "'" +
+            ", attempts=" + attempts +
+            "}";
+    }
+}
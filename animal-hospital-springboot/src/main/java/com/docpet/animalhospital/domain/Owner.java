@@ -3,11 +3,14 @@ package com.docpet.animalhospital.domain;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "owner", uniqueConstraints = {
     @UniqueConstraint(columnNames = "user_id")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "owner")
 public class Owner implements Serializable {
 
     private static final long serialVersionUID = 1L;
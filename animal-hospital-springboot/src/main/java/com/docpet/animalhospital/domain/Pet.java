@@ -5,9 +5,12 @@ import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "pet")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pet")
 public class Pet implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,164 @@
+package com.docpet.animalhospital.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.Instant;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * A refresh token (only its SHA-256 is stored). Login and authorities are copied from the login
+ * or refresh that issued it; a refresh re-reads the user's activated flag and authorities before
+ * reissuing the access token.
+ * Every refresh marks the token used and creates the next one in the same family; presenting a
+ * used token again revokes the whole family.
+ */
+@Entity
+@Table(
+    name = "refresh_token",
+    uniqueConstraints = { @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash") },
+    indexes = {
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_token_expires", columnList = "expires_at"),
+    }
+)
+public class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // SHA-256 (hex) của token
+    @NotNull
+    @Column(name = "token_hash", length = 64, nullable = false)
+    private String tokenHash;
+
+    // Id của token đầu tiên trong chuỗi rotation (= id của chính nó với token đầu tiên)
+    @Column(name = "family_id")
+    private Long familyId;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @NotNull
+    @Column(name = "login", length = 50, nullable = false)
+    private String login;
+
+    @Column(name = "authorities", length = 255)
+    private String authorities;
+
+    @NotNull
+    @Column(name = "remember_me", nullable = false)
+    private boolean rememberMe;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Long getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(Long familyId) {
+        this.familyId = familyId;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public String getAuthorities() {
+        return authorities;
+    }
+
+    public void setAuthorities(String authorities) {
+        this.authorities = authorities;
+    }
+
+    public boolean isRememberMe() {
+        return rememberMe;
+    }
+
+    public void setRememberMe(boolean rememberMe) {
+        this.rememberMe = rememberMe;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(Instant usedAt) {
+        this.usedAt = usedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RefreshToken)) return false;
+        RefreshToken that = (RefreshToken) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "id=" + id +
+            ", familyId=" + familyId +
+            ", login='" + login + "'" +
+            ", expiresAt=" + expiresAt +
+            ", usedAt=" + usedAt +
+            "}";
+    }
+}
@@ -0,0 +1,109 @@
+package com.docpet.animalhospital.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A revoked access token: either a single token ({@code jti}, on logout) or every token of a user
+ * issued up to {@code revokedAt} ({@code userId}, on password change / reset or user deletion).
+ * Kept until {@code expiresAt}, when no token it blocks can still be valid.
+ */
+@Entity
+@Table(
+    name = "revoked_token",
+    indexes = {
+        @Index(name = "idx_revoked_token_jti", columnList = "jti"),
+        @Index(name = "idx_revoked_token_user", columnList = "user_id"),
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at"),
+    }
+)
+public class RevokedToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "jti", length = 64)
+    private String jti;
+
+    // Không khóa ngoại: vẫn giữ bản ghi sau khi user bị xóa
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RevokedToken)) return false;
+        RevokedToken that = (RevokedToken) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+            "id=" + id +
+            ", jti='" + jti + "'" +
+            ", userId=" + userId +
+            ", revokedAt=" + revokedAt +
+            ", expiresAt=" + expiresAt +
+            "}";
+    }
+}
@@ -15,6 +15,8 @@ import jakarta.persistence.EntityListeners;
 import jakarta.persistence.PrePersist;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicInsert;
 
 @Entity
@@ -23,6 +25,7 @@ import org.hibernate.annotations.DynamicInsert;
 // Tắt AuditingEntityListener cho User entity để tự quản lý auditing fields
 // Vì AuditingEntityListener có thể set null khi không có user đăng nhập
 @EntityListeners({}) // Empty array để tắt listener từ AbstractAuditingEntity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User extends AbstractAuditingEntity<Long> implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -105,6 +108,7 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
         inverseJoinColumns = { @JoinColumn(name = "authority_name", referencedColumnName = "name") }
     )
     @BatchSize(size = 20)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.authorities")
     private Set<Authority> authorities = new HashSet<>();
 
     /**
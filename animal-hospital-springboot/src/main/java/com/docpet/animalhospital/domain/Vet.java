@@ -3,11 +3,14 @@ package com.docpet.animalhospital.domain;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "vet", uniqueConstraints = {
     @UniqueConstraint(columnNames = "user_id")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vet")
 public class Vet implements Serializable {
 
     private static final long serialVersionUID = 1L;
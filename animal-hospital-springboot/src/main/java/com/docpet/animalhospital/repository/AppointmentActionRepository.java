@@ -4,6 +4,7 @@ import com.docpet.animalhospital.domain.AppointmentAction;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -60,12 +61,43 @@ public interface AppointmentActionRepository extends JpaRepository<AppointmentAc
     @EntityGraph(attributePaths = {"appointment", "assignedTo", "createdBy"})
     List<AppointmentAction> findByAssignedTo_IdAndStatus(Long assignedToId, String status);
 
-    @Query("select appointmentAction from AppointmentAction appointmentAction " +
+    @Query("select appointmentAction.id as id, appointmentAction.appointment.id as appointmentId, " +
+           "appointmentAction.assignedTo.id as assignedToId, appointmentAction.appointment.timeStart as timeStart " +
+           "from AppointmentAction appointmentAction " +
            "where appointmentAction.assignedTo.id = ?1 " +
            "and appointmentAction.actionType = 'ASSIGN_ASSISTANT' " +
            "and appointmentAction.status NOT IN ('CANCELLED', 'COMPLETED') " +
-           "and DATE(appointmentAction.appointment.timeStart) = DATE(?2)")
-    @EntityGraph(attributePaths = {"appointment", "assignedTo", "createdBy"})
-    List<AppointmentAction> findActiveAssignmentsByAssistantAndDate(Long assistantId, ZonedDateTime date);
-}
+           "and appointmentAction.appointment.timeStart >= ?2 and appointmentAction.appointment.timeStart < ?3")
+    List<AssignmentSlot> findActiveAssignmentSlotsForAssistant(Long assistantUserId, ZonedDateTime from, ZonedDateTime to);
+
+    @Query("select appointmentAction.id as id, appointmentAction.appointment.id as appointmentId, " +
+           "appointmentAction.assignedTo.id as assignedToId, appointmentAction.appointment.timeStart as timeStart " +
+           "from AppointmentAction appointmentAction " +
+           "where appointmentAction.appointment.id = ?1 " +
+           "and appointmentAction.assignedTo is not null " +
+           "and appointmentAction.actionType = 'ASSIGN_ASSISTANT' " +
+           "and appointmentAction.status NOT IN ('CANCELLED', 'COMPLETED')")
+    List<AssignmentSlot> findActiveAssignmentSlotsForAppointment(Long appointmentId);
 
+    // Danh sách phân công của một assistant: chỉ lấy action ASSIGN_ASSISTANT đầu tiên của mỗi appointment
+    // có trong appointment_assistant. Không fetch quan hệ, DTO chỉ cần id của appointment / user
+    @Query("select appointmentAction from AppointmentAction appointmentAction " +
+           "join AppointmentAssistant appointmentAssistant " +
+           "on appointmentAssistant.appointment = appointmentAction.appointment and appointmentAssistant.assistant.id = ?1 " +
+           "where appointmentAction.assignedTo.id = ?2 " +
+           "and appointmentAction.actionType = 'ASSIGN_ASSISTANT' " +
+           "and (?3 is null or appointmentAction.status = ?3) " +
+           "and appointmentAction.id = (select min(firstAction.id) from AppointmentAction firstAction " +
+           "where firstAction.appointment = appointmentAction.appointment " +
+           "and firstAction.assignedTo = appointmentAction.assignedTo " +
+           "and firstAction.actionType = 'ASSIGN_ASSISTANT') " +
+           "order by appointmentAssistant.id asc")
+    List<AppointmentAction> findAssignmentsForAssistant(Long assistantId, Long assistantUserId, String status, Pageable pageable);
+
+    interface AssignmentSlot {
+        Long getId();
+        Long getAppointmentId();
+        Long getAssignedToId();
+        ZonedDateTime getTimeStart();
+    }
+}
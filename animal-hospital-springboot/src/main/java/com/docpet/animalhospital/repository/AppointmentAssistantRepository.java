@@ -29,12 +29,5 @@ public interface AppointmentAssistantRepository extends JpaRepository<Appointmen
         @Param("appointmentId") Long appointmentId,
         @Param("assistantId") Long assistantId
     );
-
-    @Query("select aa from AppointmentAssistant aa " +
-           "join fetch aa.appointment a " +
-           "join fetch aa.assistant ass " +
-           "join fetch ass.user " +
-           "where aa.assistant.id = :assistantId")
-    List<AppointmentAssistant> findByAssistantIdWithRelations(@Param("assistantId") Long assistantId);
 }
 
@@ -1,23 +1,45 @@
 package com.docpet.animalhospital.repository;
 
 import com.docpet.animalhospital.domain.AppointmentMessage;
+import java.time.ZonedDateTime;
 import java.util.List;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AppointmentMessageRepository extends JpaRepository<AppointmentMessage, Long> {
 
-    @Query("select am from AppointmentMessage am where am.appointment.id = :appointmentId order by am.timestamp asc")
-    @EntityGraph(attributePaths = {"appointment", "sender"})
-    List<AppointmentMessage> findByAppointmentIdOrderByTimestampAsc(@Param("appointmentId") Long appointmentId);
+    // Chỉ lấy cột của message và id / login / tên người gửi, không load Appointment / User
+    String ROW_SELECT =
+        "select am.id as id, am.message as message, am.timestamp as timestamp, am.appointment.id as appointmentId, " +
+        "sender.id as senderId, sender.login as senderLogin, sender.firstName as senderFirstName, sender.lastName as senderLastName " +
+        "from AppointmentMessage am join am.sender sender ";
 
-    @Query("select am from AppointmentMessage am where am.appointment.id = :appointmentId order by am.timestamp desc")
-    @EntityGraph(attributePaths = {"appointment", "sender"})
-    List<AppointmentMessage> findByAppointmentIdOrderByTimestampDesc(@Param("appointmentId") Long appointmentId);
-}
+    // Phân trang theo id (index (appointment_id, id)): afterId = 0 là cả hội thoại, tăng dần
+    @Query(ROW_SELECT + "where am.appointment.id = ?1 and am.id > ?2 order by am.id asc")
+    List<MessageRow> findRowsAfter(Long appointmentId, Long afterId, Pageable pageable);
+
+    // Trang cũ hơn beforeId, giảm dần (service đảo lại cho đúng thứ tự hiển thị)
+    @Query(ROW_SELECT + "where am.appointment.id = ?1 and am.id < ?2 order by am.id desc")
+    List<MessageRow> findRowsBefore(Long appointmentId, Long beforeId, Pageable pageable);
 
+    // Replay cho SSE theo user (Last-Event-ID = id message cuối cùng client đã nhận)
+    @Query(ROW_SELECT + "join am.appointment appointment left join appointment.owner owner left join appointment.vet vet " +
+           "where (owner.user.id = ?1 or vet.user.id = ?1) and am.id > ?2 order by am.id asc")
+    List<MessageRow> findRowsForParticipantAfter(Long userId, Long afterId, Pageable pageable);
 
+    boolean existsBySourceEventId(Long sourceEventId);
+
+    interface MessageRow {
+        Long getId();
+        String getMessage();
+        ZonedDateTime getTimestamp();
+        Long getAppointmentId();
+        Long getSenderId();
+        String getSenderLogin();
+        String getSenderFirstName();
+        String getSenderLastName();
+    }
+}
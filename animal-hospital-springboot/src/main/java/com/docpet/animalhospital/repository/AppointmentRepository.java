@@ -1,10 +1,11 @@
 package com.docpet.animalhospital.repository;
 
 import com.docpet.animalhospital.domain.Appointment;
-import java.time.LocalDate;
+import com.docpet.animalhospital.service.dto.AppointmentSummaryDTO;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -29,17 +30,6 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @EntityGraph(attributePaths = {"pet", "vet", "owner"})
     List<Appointment> findByOwnerIsCurrentUser();
 
-    @Query("select appointment from Appointment appointment " +
-           "left join fetch appointment.pet " +
-           "left join fetch appointment.pet.owner " +
-           "left join fetch appointment.pet.owner.user " +
-           "left join fetch appointment.vet " +
-           "left join fetch appointment.vet.user " +
-           "left join fetch appointment.owner " +
-           "left join fetch appointment.owner.user " +
-           "where appointment.owner.user.login = ?1")
-    List<Appointment> findByOwner_User_Login(String login);
-
     @Query("select appointment from Appointment appointment " +
            "left join fetch appointment.pet " +
            "left join fetch appointment.pet.owner " +
@@ -51,16 +41,79 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "where appointment.vet.user.login = ?#{authentication.name}")
     List<Appointment> findByVetIsCurrentUser();
 
-    @Query("select appointment from Appointment appointment " +
-           "left join fetch appointment.pet " +
-           "left join fetch appointment.pet.owner " +
-           "left join fetch appointment.pet.owner.user " +
-           "left join fetch appointment.vet " +
-           "left join fetch appointment.vet.user " +
-           "left join fetch appointment.owner " +
-           "left join fetch appointment.owner.user " +
-           "where appointment.vet.user.login = ?1")
-    List<Appointment> findByVet_User_Login(String login);
+    // Read model cho các màn hình danh sách: chỉ select các cột cần hiển thị, không load entity
+    String SUMMARY_SELECT =
+        "select new com.docpet.animalhospital.service.dto.AppointmentSummaryDTO(" +
+        "appointment.id, appointment.timeStart, appointment.timeEnd, appointment.type, appointment.status, " +
+        "appointment.notes, appointment.appointmentType, appointment.locationType, " +
+        "pet.id, pet.name, pet.species, owner.id, owner.name, owner.phone, vet.id, vetUser.firstName, vetUser.lastName) " +
+        "from Appointment appointment " +
+        "left join appointment.pet pet " +
+        "left join appointment.owner owner " +
+        "left join appointment.vet vet " +
+        "left join vet.user vetUser ";
+
+    // Keyset pagination theo (time_start, id): trang sau bắt đầu ngay sau dòng cuối của trang trước,
+    // nên trang sâu cũng chỉ đọc limit dòng qua index (owner_id, time_start) / (vet_id, time_start).
+    // Lọc trên cột id của appointment (không join qua user.login) để MySQL range scan đúng index đó
+    @Query(SUMMARY_SELECT +
+           "where appointment.owner.id = ?1 " +
+           "and appointment.timeStart >= ?2 and (appointment.timeStart > ?2 or appointment.id > ?3) " +
+           "order by appointment.timeStart asc, appointment.id asc")
+    List<AppointmentSummaryDTO> findUpcomingForOwner(Long ownerId, ZonedDateTime timeStart, Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+           "where appointment.owner.id = ?1 " +
+           "and appointment.timeStart <= ?2 and (appointment.timeStart < ?2 or appointment.id < ?3) " +
+           "order by appointment.timeStart desc, appointment.id desc")
+    List<AppointmentSummaryDTO> findPastForOwner(Long ownerId, ZonedDateTime timeStart, Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+           "where appointment.vet.id = ?1 " +
+           "and appointment.timeStart >= ?2 and (appointment.timeStart > ?2 or appointment.id > ?3) " +
+           "order by appointment.timeStart asc, appointment.id asc")
+    List<AppointmentSummaryDTO> findUpcomingForVet(Long vetId, ZonedDateTime timeStart, Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+           "where appointment.vet.id = ?1 " +
+           "and appointment.timeStart <= ?2 and (appointment.timeStart < ?2 or appointment.id < ?3) " +
+           "order by appointment.timeStart desc, appointment.id desc")
+    List<AppointmentSummaryDTO> findPastForVet(Long vetId, ZonedDateTime timeStart, Long id, Pageable pageable);
+
+    // User có cả profile owner và vet: một query, OR trên hai cột id để MySQL index merge
+    // hai index (owner_id, time_start) và (vet_id, time_start)
+    @Query(SUMMARY_SELECT +
+           "where (appointment.owner.id = ?1 or appointment.vet.id = ?2) " +
+           "and appointment.timeStart >= ?3 and (appointment.timeStart > ?3 or appointment.id > ?4) " +
+           "order by appointment.timeStart asc, appointment.id asc")
+    List<AppointmentSummaryDTO> findUpcomingForParticipant(Long ownerId, Long vetId, ZonedDateTime timeStart, Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+           "where (appointment.owner.id = ?1 or appointment.vet.id = ?2) " +
+           "and appointment.timeStart <= ?3 and (appointment.timeStart < ?3 or appointment.id < ?4) " +
+           "order by appointment.timeStart desc, appointment.id desc")
+    List<AppointmentSummaryDTO> findPastForParticipant(Long ownerId, Long vetId, ZonedDateTime timeStart, Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+           "where appointment.pet.id = ?1 " +
+           "order by appointment.timeStart desc, appointment.id desc")
+    List<AppointmentSummaryDTO> findSummariesByPetId(Long petId);
+
+    @Query(SUMMARY_SELECT +
+           "where appointment.timeStart >= ?1 and appointment.timeStart < ?2 " +
+           "order by appointment.timeStart asc, appointment.id asc")
+    List<AppointmentSummaryDTO> findSummariesByDay(ZonedDateTime dayStart, ZonedDateTime nextDayStart);
+
+    @Query(SUMMARY_SELECT +
+           "where appointment.timeStart >= ?1 and appointment.timeStart < ?2 " +
+           "and appointment.appointmentType = ?3 and appointment.vet.id = ?4 " +
+           "order by appointment.timeStart asc, appointment.id asc")
+    List<AppointmentSummaryDTO> findSummariesByDayAndAppointmentTypeAndVetId(
+        ZonedDateTime dayStart,
+        ZonedDateTime nextDayStart,
+        String appointmentType,
+        Long vetId
+    );
 
     @Query("select appointment from Appointment appointment where appointment.pet.id = ?1")
     @EntityGraph(attributePaths = {"pet", "vet", "owner"})
@@ -82,42 +135,56 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @EntityGraph(attributePaths = {"pet", "vet", "owner"})
     List<Appointment> findByTimeRange(ZonedDateTime startTime, ZonedDateTime endTime);
 
-    @Query("select appointment from Appointment appointment where appointment.vet.id = ?1 and appointment.timeStart = ?2")
-    @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findByVetAndTimeStart(Long vetId, ZonedDateTime startTime);
-
-    @Query("select appointment from Appointment appointment " +
-           "where appointment.vet.id = ?1 " +
-           "and appointment.status NOT IN ('CANCELLED', 'REJECTED') " +
-           "and (appointment.timeStart < ?3 and (appointment.timeEnd is null or appointment.timeEnd > ?2))")
-    @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findOverlappingAppointmentsForVet(Long vetId, ZonedDateTime startTime, ZonedDateTime endTime);
-
-    @Query("select appointment from Appointment appointment " +
+    @Query("select appointment.id as id, appointment.timeStart as timeStart from Appointment appointment " +
            "where appointment.vet.id = ?1 " +
            "and appointment.status NOT IN ('CANCELLED', 'REJECTED') " +
-           "and DATE(appointment.timeStart) = DATE(?2)")
-    @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findAppointmentsByVetAndDate(Long vetId, ZonedDateTime date);
+           "and appointment.timeStart >= ?2 and appointment.timeStart < ?3")
+    List<TimeSlot> findActiveTimeSlotsForVet(Long vetId, ZonedDateTime from, ZonedDateTime to);
 
-    @Query("select appointment from Appointment appointment where DATE(appointment.timeStart) = ?1 and appointment.appointmentType = ?2")
-    @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findByDateAndAppointmentType(LocalDate date, String appointmentType);
+    // Cho gauge của BookingMetrics
+    @Query("select count(appointment) from Appointment appointment where appointment.status = ?1 and appointment.timeStart >= ?2 and appointment.timeStart < ?3")
+    long countByStatusAndDay(String status, ZonedDateTime dayStart, ZonedDateTime nextDayStart);
 
-    @Query("select appointment from Appointment appointment where DATE(appointment.timeStart) = ?1")
-    @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findByDate(LocalDate date);
+    @Query("select count(appointment) from Appointment appointment " +
+           "where appointment.appointmentType = ?1 " +
+           "and appointment.status NOT IN ('CANCELLED', 'REJECTED', 'COMPLETED', 'DONE') " +
+           "and appointment.timeStart >= ?2 and appointment.timeStart < ?3")
+    long countOpenByAppointmentTypeAndDay(String appointmentType, ZonedDateTime dayStart, ZonedDateTime nextDayStart);
 
-    @Query("select appointment from Appointment appointment where DATE(appointment.timeStart) = ?1 and appointment.appointmentType = ?2 and appointment.vet.user.login = ?3")
+    // Các query theo ngày dùng khoảng [dayStart, nextDayStart) thay vì DATE(time_start) để MySQL dùng được index
+    @Query("select appointment from Appointment appointment where appointment.timeStart >= ?1 and appointment.timeStart < ?2 and appointment.appointmentType = ?3")
     @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findByDateAndAppointmentTypeAndVet(LocalDate date, String appointmentType, String vetLogin);
+    List<Appointment> findByDayAndAppointmentType(ZonedDateTime dayStart, ZonedDateTime nextDayStart, String appointmentType);
 
-    @Query("select appointment from Appointment appointment where DATE(appointment.timeStart) = ?1 and appointment.vet.user.login = ?2")
+    @Query("select appointment from Appointment appointment where appointment.timeStart >= ?1 and appointment.timeStart < ?2")
     @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findByDateAndVet(LocalDate date, String vetLogin);
+    List<Appointment> findByDay(ZonedDateTime dayStart, ZonedDateTime nextDayStart);
 
-    @Query("select appointment from Appointment appointment where DATE(appointment.timeStart) = ?1 and appointment.appointmentType = ?2 and appointment.vet.id = ?3")
+    @Query("select appointment from Appointment appointment where appointment.timeStart >= ?1 and appointment.timeStart < ?2 and appointment.appointmentType = ?3 and appointment.vet.user.login = ?4")
     @EntityGraph(attributePaths = {"pet", "vet", "owner"})
-    List<Appointment> findByDateAndAppointmentTypeAndVetId(LocalDate date, String appointmentType, Long vetId);
+    List<Appointment> findByDayAndAppointmentTypeAndVet(ZonedDateTime dayStart, ZonedDateTime nextDayStart, String appointmentType, String vetLogin);
+
+    // Ai được truy cập appointment: một dòng cho mỗi assistant được phân công (hoặc một dòng nếu chưa có)
+    @Query(
+        "select vet.id as vetId, vetUser.id as vetUserId, ownerUser.id as ownerUserId, assistantUser.id as assistantUserId " +
+        "from Appointment appointment " +
+        "left join appointment.vet vet left join vet.user vetUser " +
+        "left join appointment.owner owner left join owner.user ownerUser " +
+        "left join AppointmentAssistant appointmentAssistant on appointmentAssistant.appointment = appointment " +
+        "left join appointmentAssistant.assistant assistant left join assistant.user assistantUser " +
+        "where appointment.id = ?1"
+    )
+    List<AccessRow> findAccessRows(Long appointmentId);
+
+    interface TimeSlot {
+        Long getId();
+        ZonedDateTime getTimeStart();
+    }
+
+    interface AccessRow {
+        Long getVetId();
+        Long getVetUserId();
+        Long getOwnerUserId();
+        Long getAssistantUserId();
+    }
 }
-
@@ -0,0 +1,38 @@
+package com.docpet.animalhospital.repository;
+
+import com.docpet.animalhospital.domain.AppointmentSlot;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long> {
+
+    /**
+     * Claims {@code slotCount} consecutive 15-minute slots starting at {@code firstSlotStart} for the
+     * appointment's vet in a single INSERT. Fails with a unique-key violation (and inserts nothing)
+     * if any of them is already taken.
+     */
+    @Modifying(flushAutomatically = true)
+    // Chỉ ghi bảng appointment_slot: không để Hibernate xóa toàn bộ second-level cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "appointment_slot"))
+    @Query(
+        value = "insert into appointment_slot (appointment_id, vet_id, slot_start) " +
+        "select a.id, a.vet_id, timestampadd(MINUTE, n.n * 15, cast(?2 as datetime)) " +
+        "from appointment a " +
+        "join (select 0 as n union all select 1 union all select 2 union all select 3 " +
+        "union all select 4 union all select 5 union all select 6 union all select 7) n on n.n < ?3 " +
+        "where a.id = ?1 and a.vet_id is not null",
+        nativeQuery = true
+    )
+    int claimSlots(Long appointmentId, ZonedDateTime firstSlotStart, int slotCount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from AppointmentSlot s where s.appointment.id = ?1")
+    int releaseByAppointmentId(Long appointmentId);
+}
@@ -24,6 +24,9 @@ public interface AssistantRepository extends JpaRepository<Assistant, Long> {
     @Query("select assistant from Assistant assistant left join fetch assistant.user")
     List<Assistant> findAllWithUser();
     
+    @Query("select assistant.id from Assistant assistant where assistant.user.login = ?1 order by assistant.id asc")
+    List<Long> findIdsByUser_Login(String login);
+
     default Optional<Assistant> findFirstByUser_Login(String login) {
         java.util.List<Assistant> assistants = findAssistantsByUser_Login(login);
         return assistants.isEmpty() ? Optional.empty() : Optional.of(assistants.get(0));
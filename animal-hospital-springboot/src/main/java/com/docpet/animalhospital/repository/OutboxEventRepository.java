@@ -0,0 +1,32 @@
+package com.docpet.animalhospital.repository;
+
+import com.docpet.animalhospital.domain.OutboxEvent;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e.id from OutboxEvent e where e.status = 'PENDING' and e.availableAt <= ?1 order by e.id asc")
+    List<Long> findDueIds(Instant now, Pageable pageable);
+
+    // Giữ chỗ: chỉ một dispatcher (kể cả node khác) đổi được available_at của event đến hạn
+    @Modifying
+    @Query("update OutboxEvent e set e.availableAt = ?2, e.attempts = e.attempts + 1 " +
+           "where e.id = ?1 and e.status = 'PENDING' and e.availableAt <= ?3")
+    int claim(Long id, Instant leaseUntil, Instant now);
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.status = 'PENDING'")
+    Instant findOldestPendingCreatedAt();
+
+    long countByStatus(String status);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = 'DONE' and e.processedAt < ?1")
+    int deleteDoneBefore(Instant before);
+}
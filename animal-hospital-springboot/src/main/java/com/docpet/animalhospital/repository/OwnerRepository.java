@@ -18,6 +18,9 @@ public interface OwnerRepository extends JpaRepository<Owner, Long> {
     @Query("select owner from Owner owner where owner.user.login = ?1 order by owner.id asc")
     java.util.List<Owner> findOwnersByUser_Login(String login);
     
+    @Query("select owner.id from Owner owner where owner.user.login = ?1 order by owner.id asc")
+    List<Long> findIdsByUser_Login(String login);
+
     default Optional<Owner> findFirstByUser_Login(String login) {
         java.util.List<Owner> owners = findOwnersByUser_Login(login);
         return owners.isEmpty() ? Optional.empty() : Optional.of(owners.get(0));
@@ -17,5 +17,13 @@ public interface PetRepository extends JpaRepository<Pet, Long> {
     
     @Query("select pet from Pet pet left join fetch pet.owner left join fetch pet.owner.user where pet.id = ?1")
     Optional<Pet> findByIdWithOwner(Long id);
+
+    @Query("select pet.id as id, ownerUser.id as ownerUserId from Pet pet left join pet.owner owner left join owner.user ownerUser where pet.id = ?1")
+    Optional<AccessRow> findAccessRow(Long petId);
+
+    interface AccessRow {
+        Long getId();
+        Long getOwnerUserId();
+    }
 }
 
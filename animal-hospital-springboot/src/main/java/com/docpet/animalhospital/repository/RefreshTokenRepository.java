@@ -0,0 +1,33 @@
+package com.docpet.animalhospital.repository;
+
+import com.docpet.animalhospital.domain.RefreshToken;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Không join jhi_user / jhi_user_authority: trạng thái user đọc riêng bằng UserRepository.findAccessById
+    Optional<RefreshToken> findOneByTokenHash(String tokenHash);
+
+    // Chỉ một request đánh dấu được token là đã dùng (hai request refresh cùng lúc)
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = ?2 where t.id = ?1 and t.usedAt is null")
+    int markUsed(Long id, Instant usedAt);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = ?1")
+    int deleteByFamilyId(Long familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.user.id = ?1")
+    int deleteByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < ?1")
+    int deleteExpiredBefore(Instant now);
+}
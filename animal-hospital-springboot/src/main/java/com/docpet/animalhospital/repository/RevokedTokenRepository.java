@@ -0,0 +1,32 @@
+package com.docpet.animalhospital.repository;
+
+import com.docpet.animalhospital.domain.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // Chỉ hai cột để dựng lại Bloom filter
+    @Query("select t.jti as jti, t.userId as userId from RevokedToken t where t.expiresAt > ?1")
+    List<RevokedKey> findKeysActiveAt(Instant now);
+
+    boolean existsByJti(String jti);
+
+    // Lần thu hồi gần nhất của user (null nếu chưa từng)
+    @Query("select max(t.revokedAt) from RevokedToken t where t.userId = ?1")
+    Instant findLastRevokedAtByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt < ?1")
+    int deleteExpiredBefore(Instant now);
+
+    interface RevokedKey {
+        String getJti();
+        Long getUserId();
+    }
+}
@@ -1,13 +1,17 @@
 package com.docpet.animalhospital.repository;
 
 import com.docpet.animalhospital.domain.User;
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -18,7 +22,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByEmailIgnoreCase(String email);
     Optional<User> findOneByLogin(String login);
 
+    @Query("select u.id from User u where u.login = ?1")
+    Optional<Long> findIdByLogin(String login);
+
+    // Gọi mỗi lần đăng nhập: kết quả nằm trong query cache, bị xóa khi bảng jhi_user thay đổi
     @EntityGraph(attributePaths = "authorities")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
@@ -28,5 +37,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @EntityGraph(attributePaths = "authorities")
     List<User> findAllByAuthorities_Name(String authorityName);
+
+    // Trạng thái hiện tại khi refresh token: theo khóa chính, một dòng cho mỗi authority
+    @Query("select u.activated as activated, a.name as authority from User u left join u.authorities a where u.id = ?1")
+    List<AccessRow> findAccessById(Long id);
+
+    interface AccessRow {
+        Boolean getActivated();
+        String getAuthority();
+    }
 }
 
@@ -18,14 +18,29 @@ public interface VetRepository extends JpaRepository<Vet, Long> {
     @Query("select vet from Vet vet where vet.user.login = ?1 order by vet.id asc")
     java.util.List<Vet> findVetsByUser_Login(String login);
     
+    @Query("select vet.id from Vet vet where vet.user.login = ?1 order by vet.id asc")
+    List<Long> findIdsByUser_Login(String login);
+
     default Optional<Vet> findFirstByUser_Login(String login) {
         java.util.List<Vet> vets = findVetsByUser_Login(login);
         return vets.isEmpty() ? Optional.empty() : Optional.of(vets.get(0));
     }
     
+    @Query(
+        "select vet.id as id, vet.specialization as specialization, u.firstName as firstName, u.lastName as lastName " +
+        "from Vet vet left join vet.user u order by vet.id asc"
+    )
+    List<SlotVet> findAllSlotVets();
+
     // Alias method để tương thích với code hiện tại
     default Optional<Vet> findByUser_Login(String login) {
         return findFirstByUser_Login(login);
     }
-}
 
+    interface SlotVet {
+        Long getId();
+        String getSpecialization();
+        String getFirstName();
+        String getLastName();
+    }
+}
@@ -0,0 +1,38 @@
+package com.docpet.animalhospital.security;
+
+import java.security.Principal;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Principal built from the access token: login plus the user / profile ids written at login time
+ * ({@code id}, {@code ownerId}, {@code vetId}, {@code assistantId}). A profile id is {@code null}
+ * when the claim is absent, either because the user has no such profile or because the token was
+ * issued before these claims existed.
+ */
+public record AuthenticatedUser(String login, Long userId, Long ownerId, Long vetId, Long assistantId) implements Principal {
+
+    public static final String USER_ID_CLAIM = "id";
+    public static final String OWNER_ID_CLAIM = "ownerId";
+    public static final String VET_ID_CLAIM = "vetId";
+    public static final String ASSISTANT_ID_CLAIM = "assistantId";
+
+    public static AuthenticatedUser fromJwt(Jwt jwt) {
+        return new AuthenticatedUser(
+            jwt.getSubject(),
+            longClaim(jwt, USER_ID_CLAIM),
+            longClaim(jwt, OWNER_ID_CLAIM),
+            longClaim(jwt, VET_ID_CLAIM),
+            longClaim(jwt, ASSISTANT_ID_CLAIM)
+        );
+    }
+
+    @Override
+    public String getName() {
+        return login;
+    }
+
+    private static Long longClaim(Jwt jwt, String name) {
+        Object value = jwt.getClaim(name);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.docpet.animalhospital.security;
+
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+/**
+ * Same as {@code JwtAuthenticationToken} but with an {@link AuthenticatedUser} as principal; the
+ * {@link Jwt} stays available as token / credentials.
+ */
+public class AuthenticatedUserToken extends AbstractOAuth2TokenAuthenticationToken<Jwt> {
+
+    private static final long serialVersionUID = 1L;
+
+    public AuthenticatedUserToken(Jwt jwt, AuthenticatedUser principal, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, principal, jwt, authorities);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Map<String, Object> getTokenAttributes() {
+        return getToken().getClaims();
+    }
+
+    @Override
+    public String getName() {
+        return ((AuthenticatedUser) getPrincipal()).login();
+    }
+}
@@ -0,0 +1,122 @@
+package com.docpet.animalhospital.security;
+
+import com.docpet.animalhospital.web.rest.errors.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt encoder that hashes on its own bounded pool instead of the calling request thread, so a
+ * burst of logins uses at most {@code threads} CPUs and cannot starve other endpoints. When the
+ * queue is full the call fails at once with a 503 ({@link ServiceUnavailableException}).
+ * <p>
+ * {@link #upgradeEncoding} reports hashes whose cost differs from the configured strength (higher or
+ * lower), so the login flow re-hashes them; it is skipped while the pool is busy.
+ * <p>
+ * Metrics: {@code password.hash.queue.time}, {@code password.hash{operation=matches|encode}},
+ * {@code password.hash.queue.size} and {@code password.hash.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int strength;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final Timer queueTime;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queueTime = Timer.builder("password.hash.queue.time").register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash").tag("operation", "matches").register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hash").tag("operation", "encode").register(meterRegistry);
+        this.rejected = Counter.builder("password.hash.rejected").register(meterRegistry);
+        Gauge.builder("password.hash.queue.size", queue, Collection::size).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        if (!matcher.matches() || Integer.parseInt(matcher.group(2)) == strength) {
+            return false;
+        }
+        // Hash lại tốn thêm một lần BCrypt: để lần đăng nhập sau nếu pool đang bận
+        return queue.size() < queue.remainingCapacity();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                queueTime.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many logins in progress, retry later", "authentication", "hashbusy", RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
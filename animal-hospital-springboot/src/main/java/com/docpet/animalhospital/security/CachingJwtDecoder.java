@@ -0,0 +1,92 @@
+package com.docpet.animalhospital.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Remembers tokens that the delegate decoder has already verified, so the same bearer token sent
+ * by many requests is parsed and HMAC-checked once. Entries are keyed by the SHA-256 of the token
+ * (raw tokens are not kept) and expire at the token's {@code exp}, or after {@link #MAX_TTL_SECONDS}
+ * if that comes first. Rejected tokens are never cached.
+ * <p>
+ * Metrics: {@code cache.gets{cache=jwt, result=hit|miss}} and {@code cache.size}.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingJwtDecoder.class);
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long MAX_TTL_SECONDS = 15 * 60;
+
+    private final JwtDecoder delegate;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.hits = Counter.builder("cache.gets").tag("cache", "jwt").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", "jwt").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size).tag("cache", "jwt").register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Instant now = Instant.now();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (now.isBefore(entry.expiresAt())) {
+                hits.increment();
+                return entry.jwt();
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+
+        Jwt jwt = delegate.decode(token);
+        Instant expiresAt = now.plusSeconds(MAX_TTL_SECONDS);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        if (now.isBefore(expiresAt)) {
+            if (entries.size() >= MAX_ENTRIES) {
+                evict(now);
+            }
+            entries.put(key, new Entry(jwt, expiresAt));
+        }
+        return jwt;
+    }
+
+    private void evict(Instant now) {
+        entries.values().removeIf(e -> !now.isBefore(e.expiresAt()));
+        if (entries.size() >= MAX_ENTRIES) {
+            LOG.debug("JWT cache reached {} entries, clearing", entries.size());
+            entries.clear();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(Jwt jwt, Instant expiresAt) {}
+}
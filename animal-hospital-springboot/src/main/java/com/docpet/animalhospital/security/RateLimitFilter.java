@@ -0,0 +1,170 @@
+package com.docpet.animalhospital.security;
+
+import com.docpet.animalhospital.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits request rate per client for the route groups in {@link RateLimitProperties}, with one
+ * {@link TokenBucket} per group and client. The client is the login of the bearer token, or the
+ * remote address for anonymous requests (login). Requests over the limit get 429 with
+ * {@code Retry-After} and never reach the controller.
+ * <p>
+ * Buckets that have been full for {@code idleSeconds} are dropped (a full bucket is the same as a
+ * new one), so memory only holds recently active clients; past {@code maxBuckets} new clients of a
+ * group share one overflow bucket.
+ * <p>
+ * Must run after bearer token authentication. Metrics: {@code ratelimit.rejected{group}} and
+ * {@code ratelimit.buckets{group}}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final List<RouteGroup> groups = new ArrayList<>();
+    private final long idleNanos;
+    private final int maxBuckets;
+    private final AtomicLong nextSweep;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleSeconds());
+        this.maxBuckets = properties.getMaxBuckets();
+        this.nextSweep = new AtomicLong(System.nanoTime() + idleNanos);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (Map.Entry<String, RateLimitProperties.Group> entry : properties.getGroups().entrySet()) {
+            if (entry.getValue().getRoutes().isEmpty()) {
+                continue;
+            }
+            RouteGroup group = new RouteGroup(entry.getKey(), entry.getValue(), meterRegistry);
+            groups.add(group);
+            LOG.debug("Rate limit '{}': {} request(s), {}/min on {}", group.name, entry.getValue().getCapacity(), entry.getValue().getRefillPerMinute(), entry.getValue().getRoutes());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return groups.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RouteGroup group = match(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        String clientKey = clientKey(request);
+        long waitNanos = group.bucket(clientKey, now).tryConsume(now);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        group.rejected.increment();
+        long retryAfterSeconds = retryAfterSeconds(waitNanos);
+        LOG.debug("Rate limit '{}' exceeded for {}, retry after {}s", group.name, clientKey, retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests\",\"params\":\"" + group.name + "\"}");
+    }
+
+    // Làm tròn lên giây, tối thiểu 1: client chờ đúng Retry-After thì chắc chắn đã có token
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private RouteGroup match(HttpServletRequest request) {
+        for (RouteGroup group : groups) {
+            if (group.matcher.matches(request)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Chỉ một request dọn bucket mỗi idleSeconds
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + idleNanos)) {
+            return;
+        }
+        long idleSince = now - idleNanos;
+        for (RouteGroup group : groups) {
+            group.buckets.values().removeIf(bucket -> bucket.isIdleSince(idleSince));
+        }
+    }
+
+    private final class RouteGroup {
+
+        private final String name;
+        private final RateLimitProperties.Group config;
+        private final RequestMatcher matcher;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final TokenBucket overflow;
+        private final Counter rejected;
+
+        RouteGroup(String name, RateLimitProperties.Group config, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.config = config;
+            List<RequestMatcher> routes = new ArrayList<>();
+            for (String route : config.getRoutes()) {
+                String[] parts = route.trim().split("\\s+", 2);
+                routes.add(parts.length == 2 ? new AntPathRequestMatcher(parts[1], parts[0]) : new AntPathRequestMatcher(parts[0]));
+            }
+            this.matcher = new OrRequestMatcher(routes);
+            this.overflow = new TokenBucket(config.getCapacity(), config.getRefillPerMinute(), System.nanoTime());
+            this.rejected = Counter.builder("ratelimit.rejected").tag("group", name).register(meterRegistry);
+            Gauge.builder("ratelimit.buckets", buckets, Map::size).tag("group", name).register(meterRegistry);
+        }
+
+        TokenBucket bucket(String key, long now) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxBuckets) {
+                return overflow;
+            }
+            return buckets.computeIfAbsent(key, k -> new TokenBucket(config.getCapacity(), config.getRefillPerMinute(), now));
+        }
+    }
+}
@@ -19,6 +19,8 @@ public final class SecurityUtils {
     private static String extractPrincipal(Authentication authentication) {
         if (authentication == null) {
             return null;
+        } else if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.login();
         } else if (authentication.getPrincipal() instanceof UserDetails springSecurityUser) {
             return springSecurityUser.getUsername();
         } else if (authentication.getPrincipal() instanceof String) {
@@ -33,6 +35,33 @@ public final class SecurityUtils {
         return null;
     }
 
+    /**
+     * Principal of the current JWT-authenticated request, carrying the user / profile id claims.
+     */
+    public static Optional<AuthenticatedUser> getCurrentAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+            ? Optional.of(user)
+            : Optional.empty();
+    }
+
+    public static Optional<Long> getCurrentUserId() {
+        return getCurrentAuthenticatedUser().map(AuthenticatedUser::userId);
+    }
+
+    // Các profile id chỉ có trong token cấp từ khi có claim; rỗng thì caller tự tra cứu (ProfileIdCache)
+    public static Optional<Long> getCurrentOwnerId() {
+        return getCurrentAuthenticatedUser().map(AuthenticatedUser::ownerId);
+    }
+
+    public static Optional<Long> getCurrentVetId() {
+        return getCurrentAuthenticatedUser().map(AuthenticatedUser::vetId);
+    }
+
+    public static Optional<Long> getCurrentAssistantId() {
+        return getCurrentAuthenticatedUser().map(AuthenticatedUser::assistantId);
+    }
+
     public static Optional<String> getCurrentUserJWT() {
         SecurityContext securityContext = SecurityContextHolder.getContext();
         return Optional.ofNullable(securityContext.getAuthentication())
@@ -53,5 +82,24 @@ public final class SecurityUtils {
             && authentication.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals(authority));
     }
-}
 
+    /**
+     * Coarse role of the current user for metric tags (never the user itself): {@code admin},
+     * {@code vet}, {@code assistant}, {@code owner}, {@code anonymous}, or {@code system} outside a
+     * request.
+     */
+    public static String getCurrentUserRole() {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            return "system";
+        } else if (hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+            return "admin";
+        } else if (hasCurrentUserThisAuthority(AuthoritiesConstants.DOCTOR)) {
+            return "vet";
+        } else if (hasCurrentUserThisAuthority(AuthoritiesConstants.ASSISTANT)) {
+            return "assistant";
+        } else if (hasCurrentUserThisAuthority(AuthoritiesConstants.USER)) {
+            return "owner";
+        }
+        return "anonymous";
+    }
+}
@@ -0,0 +1,42 @@
+package com.docpet.animalhospital.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The whole state is one {@code long}: the time at which the bucket will
+ * be full again (the "theoretical arrival time" of GCRA). Taking a token moves it forward by one
+ * refill interval; the request is allowed while it stays within {@code capacity} intervals of now.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, int refillPerMinute, long nowNanos) {
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /** Takes one token. Returns 0 when allowed, otherwise the nanoseconds until a token is available. */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long waitNanos = next - burstNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Whether the bucket has been full since before {@code sinceNanos}, i.e. can be dropped. */
+    public boolean isIdleSince(long sinceNanos) {
+        return fullAt.get() - sinceNanos < 0;
+    }
+}
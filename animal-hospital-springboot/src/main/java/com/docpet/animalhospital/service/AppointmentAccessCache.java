@@ -0,0 +1,110 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.repository.AppointmentRepository;
+import com.docpet.animalhospital.repository.PetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * Who may access an appointment or a pet, as user ids: appointment id -> vet / owner / assigned
+ * assistant users, pet id -> owner user. Each entry is filled by one projection query, so an
+ * authorization check is an id comparison instead of walking {@code vet.user} / {@code owner.user}.
+ * Appointment entries are evicted when the appointment is saved (vet change, reschedule), gets an
+ * assistant or is deleted; pet entries when the pet is saved or deleted.
+ */
+@Component
+public class AppointmentAccessCache {
+
+    private static final int MAX_ENTRIES = 20_000;
+    private static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final BoundedCache<Long, AppointmentAccess> appointments;
+    private final BoundedCache<Long, PetAccess> pets;
+
+    public AppointmentAccessCache(AppointmentRepository appointmentRepository, PetRepository petRepository, MeterRegistry meterRegistry) {
+        this.appointments = new BoundedCache<>(
+            "access.appointment",
+            MAX_ENTRIES,
+            TTL_MILLIS,
+            appointmentId -> toAccess(appointmentRepository.findAccessRows(appointmentId)),
+            meterRegistry
+        );
+        this.pets = new BoundedCache<>(
+            "access.pet",
+            MAX_ENTRIES,
+            TTL_MILLIS,
+            petId -> petRepository.findAccessRow(petId).map(row -> new PetAccess(row.getOwnerUserId())).orElse(null),
+            meterRegistry
+        );
+    }
+
+    /** Empty when the appointment does not exist. */
+    public Optional<AppointmentAccess> appointment(Long appointmentId) {
+        return appointments.get(appointmentId);
+    }
+
+    /** Empty when the pet does not exist. */
+    public Optional<PetAccess> pet(Long petId) {
+        return pets.get(petId);
+    }
+
+    public void appointmentChanged(Long appointmentId) {
+        if (appointmentId != null) {
+            appointments.evictAfterCommit(appointmentId);
+        }
+    }
+
+    public void petChanged(Long petId) {
+        if (petId != null) {
+            pets.evictAfterCommit(petId);
+        }
+    }
+
+    // Owner / Vet / Assistant được gắn sang user khác: không biết entry nào bị ảnh hưởng
+    public void profilesChanged() {
+        appointments.clearAfterCommit();
+        pets.clearAfterCommit();
+    }
+
+    private static AppointmentAccess toAccess(List<AppointmentRepository.AccessRow> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        AppointmentRepository.AccessRow first = rows.get(0);
+        Set<Long> assistantUserIds = new HashSet<>();
+        for (AppointmentRepository.AccessRow row : rows) {
+            if (row.getAssistantUserId() != null) {
+                assistantUserIds.add(row.getAssistantUserId());
+            }
+        }
+        return new AppointmentAccess(first.getVetId(), first.getVetUserId(), first.getOwnerUserId(), Set.copyOf(assistantUserIds));
+    }
+
+    public record AppointmentAccess(Long vetId, Long vetUserId, Long ownerUserId, Set<Long> assistantUserIds) {
+        public boolean hasVet() {
+            return vetId != null;
+        }
+
+        public boolean isVet(Long userId) {
+            return userId != null && userId.equals(vetUserId);
+        }
+
+        public boolean isOwner(Long userId) {
+            return userId != null && userId.equals(ownerUserId);
+        }
+
+        public boolean isAssistant(Long userId) {
+            return userId != null && assistantUserIds.contains(userId);
+        }
+    }
+
+    public record PetAccess(Long ownerUserId) {
+        public boolean isOwner(Long userId) {
+            return userId != null && userId.equals(ownerUserId);
+        }
+    }
+}
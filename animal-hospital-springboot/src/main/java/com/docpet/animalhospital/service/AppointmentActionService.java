@@ -10,6 +10,7 @@ import com.docpet.animalhospital.service.dto.AppointmentActionDTO;
 import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,15 +27,18 @@ public class AppointmentActionService {
     private final AppointmentActionRepository appointmentActionRepository;
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
+    private final AppointmentCalendarIndex appointmentCalendarIndex;
 
     public AppointmentActionService(
         AppointmentActionRepository appointmentActionRepository,
         AppointmentRepository appointmentRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        AppointmentCalendarIndex appointmentCalendarIndex
     ) {
         this.appointmentActionRepository = appointmentActionRepository;
         this.appointmentRepository = appointmentRepository;
         this.userRepository = userRepository;
+        this.appointmentCalendarIndex = appointmentCalendarIndex;
     }
 
     public AppointmentActionDTO createAppointmentAction(
@@ -70,6 +74,7 @@ public class AppointmentActionService {
         }
 
         action = appointmentActionRepository.save(action);
+        appointmentCalendarIndex.actionSaved(action);
         return toDto(action);
     }
 
@@ -97,6 +102,19 @@ public class AppointmentActionService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Appointments assigned to an assistant (ASSIGN_ASSISTANT actions), one page, in a single query.
+     * A blank {@code status} means every status.
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentActionDTO> findAssignmentsForAssistant(Long assistantId, Long assistantUserId, String status, Pageable pageable) {
+        LOG.debug("Request to get assignments for assistant: {} with status: {}", assistantId, status);
+        String statusFilter = status == null || status.trim().isEmpty() ? null : status;
+        return appointmentActionRepository.findAssignmentsForAssistant(assistantId, assistantUserId, statusFilter, pageable).stream()
+            .map(this::toDto)
+            .collect(Collectors.toList());
+    }
+
     private AppointmentActionDTO toDto(AppointmentAction action) {
         AppointmentActionDTO dto = new AppointmentActionDTO();
         dto.setId(action.getId());
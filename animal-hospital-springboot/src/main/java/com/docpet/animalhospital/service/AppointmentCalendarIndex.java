@@ -0,0 +1,567 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.domain.Appointment;
+import com.docpet.animalhospital.domain.AppointmentAction;
+import com.docpet.animalhospital.repository.AppointmentActionRepository;
+import com.docpet.animalhospital.repository.AppointmentRepository;
+import com.docpet.animalhospital.repository.VetRepository;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory calendar of booked start times per vet and per assistant, used for conflict checks
+ * and free-slot search. Each (owner, day) bucket is loaded lazily from the database and then kept
+ * in step with appointment / ASSIGN_ASSISTANT writes, which are applied after the surrounding
+ * transaction commits. Days are UTC days (epoch minute / 1440).
+ * <p>
+ * Vet conflicts use the same 15-minute slot rounding as {@link AppointmentSlotService}, so a start
+ * time off the slot grid blocks the whole slots it touches (10:05 and 11:05 conflict). For starts on
+ * the grid this is exactly the 60-minute rule. Assistant conflicts use the 60-minute rule as is.
+ */
+@Component
+public class AppointmentCalendarIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentCalendarIndex.class);
+
+    // Quy tắc hiện tại: không trùng giờ và cách nhau ít nhất 1 tiếng, tức là khoảng cách < 60 phút là conflict
+    static final int MIN_GAP_MINUTES = 60;
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Bitmap lịch trống: mỗi ngày chia thành các slot 15 phút
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = MINUTES_PER_DAY / SLOT_MINUTES;
+    // Một lịch hẹn chặn cả các slot của ngày trước / ngày sau nằm trong khoảng MIN_GAP_MINUTES
+    static final int SLOT_MARGIN = MIN_GAP_MINUTES / SLOT_MINUTES;
+
+    private static final int MAX_BUCKETS = 50_000;
+    private static final long VET_ROSTER_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentActionRepository appointmentActionRepository;
+    private final VetRepository vetRepository;
+
+    private final Calendar vetCalendar;
+    private final Calendar assistantCalendar;
+
+    private volatile VetRoster vetRoster;
+
+    public AppointmentCalendarIndex(
+        AppointmentRepository appointmentRepository,
+        AppointmentActionRepository appointmentActionRepository,
+        VetRepository vetRepository
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentActionRepository = appointmentActionRepository;
+        this.vetRepository = vetRepository;
+        // Lịch bác sĩ làm tròn theo slot giống appointment_slot, để hai lớp kiểm tra luôn cho cùng kết quả
+        this.vetCalendar = new Calendar("vet", this::loadVetDay, true);
+        this.assistantCalendar = new Calendar("assistant", this::loadAssistantDay, false);
+    }
+
+    public boolean isVetAvailable(Long vetId, ZonedDateTime startTime, Long ignoreAppointmentId) {
+        return !vetCalendar.hasConflict(vetId, toEpochMinute(startTime), ignoreAppointmentId);
+    }
+
+    public boolean isAssistantAvailable(Long assistantUserId, ZonedDateTime startTime, Long ignoreAppointmentId) {
+        return !assistantCalendar.hasConflict(assistantUserId, toEpochMinute(startTime), ignoreAppointmentId);
+    }
+
+    /**
+     * Busy 15-minute slots of a vet for one UTC day: bit {@code i} is set when an appointment
+     * starting at {@code day * 1440 + i * 15} would conflict with an existing one.
+     */
+    public BitSet vetBusySlots(long vetId, long day) {
+        return vetCalendar.busySlots(vetId, day);
+    }
+
+    /**
+     * All vets with their specialization and name, cached for a few minutes
+     * and refreshed after vet writes.
+     */
+    public List<VetRepository.SlotVet> vetRoster() {
+        VetRoster roster = vetRoster;
+        long now = System.currentTimeMillis();
+        if (roster == null || now - roster.loadedAt() > VET_ROSTER_TTL_MILLIS) {
+            roster = new VetRoster(List.copyOf(vetRepository.findAllSlotVets()), now);
+            vetRoster = roster;
+        }
+        return roster.vets();
+    }
+
+    public void vetsChanged() {
+        afterCommit(() -> vetRoster = null);
+    }
+
+    public void appointmentSaved(Appointment appointment) {
+        if (appointment == null || appointment.getId() == null) {
+            return;
+        }
+        Long appointmentId = appointment.getId();
+        Long vetId = appointment.getVet() != null ? appointment.getVet().getId() : null;
+        ZonedDateTime timeStart = appointment.getTimeStart();
+        boolean active = vetId != null && timeStart != null && isActiveAppointmentStatus(appointment.getStatus());
+        int minute = timeStart != null ? toEpochMinute(timeStart) : 0;
+        afterCommit(() -> {
+            if (active) {
+                vetCalendar.put(appointmentId, vetId, minute, appointmentId);
+            } else {
+                vetCalendar.remove(appointmentId);
+            }
+            // Trợ lý được phân công đi theo giờ của appointment
+            assistantCalendar.syncRef(appointmentId, loadAssignmentsOfAppointment(appointmentId));
+        });
+    }
+
+    public void appointmentDeleted(Long appointmentId) {
+        if (appointmentId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            vetCalendar.remove(appointmentId);
+            assistantCalendar.removeRef(appointmentId);
+        });
+    }
+
+    public void actionSaved(AppointmentAction action) {
+        if (action == null || action.getId() == null || !"ASSIGN_ASSISTANT".equals(action.getActionType())) {
+            return;
+        }
+        Long actionId = action.getId();
+        Appointment appointment = action.getAppointment();
+        Long assistantUserId = action.getAssignedTo() != null ? action.getAssignedTo().getId() : null;
+        boolean active = assistantUserId != null && appointment != null && appointment.getTimeStart() != null &&
+            isActiveAssignmentStatus(action.getStatus());
+        Long appointmentId = appointment != null ? appointment.getId() : null;
+        int minute = active ? toEpochMinute(appointment.getTimeStart()) : 0;
+        afterCommit(() -> {
+            if (active) {
+                assistantCalendar.put(actionId, assistantUserId, minute, appointmentId);
+            } else {
+                assistantCalendar.remove(actionId);
+            }
+        });
+    }
+
+    public void clear() {
+        vetCalendar.clear();
+        assistantCalendar.clear();
+        vetRoster = null;
+    }
+
+    static boolean isActiveAppointmentStatus(String status) {
+        return !"CANCELLED".equals(status) && !"REJECTED".equals(status);
+    }
+
+    static boolean isActiveAssignmentStatus(String status) {
+        return !"CANCELLED".equals(status) && !"COMPLETED".equals(status);
+    }
+
+    static int toEpochMinute(ZonedDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(), 60L);
+    }
+
+    static ZonedDateTime fromEpochMinute(long epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60L).atZone(ZoneOffset.UTC);
+    }
+
+    /** Index of the first 15-minute slot (since the epoch) starting at or after the given time. */
+    static long slotAtOrAfter(ZonedDateTime time) {
+        long slotSeconds = SLOT_MINUTES * 60L;
+        return -Math.floorDiv(-time.toEpochSecond(), slotSeconds);
+    }
+
+    private DayBucket loadVetDay(long vetId, long day) {
+        List<AppointmentRepository.TimeSlot> slots = appointmentRepository.findActiveTimeSlotsForVet(
+            vetId,
+            fromEpochMinute(day * MINUTES_PER_DAY),
+            fromEpochMinute((day + 1) * MINUTES_PER_DAY)
+        );
+        DayBucket.Builder builder = new DayBucket.Builder(slots.size());
+        for (AppointmentRepository.TimeSlot slot : slots) {
+            builder.add(slot.getId(), toEpochMinute(slot.getTimeStart()), slot.getId());
+        }
+        return builder.build();
+    }
+
+    private DayBucket loadAssignmentsOfAppointment(long appointmentId) {
+        List<AppointmentActionRepository.AssignmentSlot> slots = appointmentActionRepository
+            .findActiveAssignmentSlotsForAppointment(appointmentId);
+        DayBucket.Builder builder = new DayBucket.Builder(slots.size());
+        for (AppointmentActionRepository.AssignmentSlot slot : slots) {
+            builder.add(slot.getId(), toEpochMinute(slot.getTimeStart()), slot.getAssignedToId());
+        }
+        return builder.build();
+    }
+
+    private DayBucket loadAssistantDay(long assistantUserId, long day) {
+        List<AppointmentActionRepository.AssignmentSlot> slots = appointmentActionRepository.findActiveAssignmentSlotsForAssistant(
+            assistantUserId,
+            fromEpochMinute(day * MINUTES_PER_DAY),
+            fromEpochMinute((day + 1) * MINUTES_PER_DAY)
+        );
+        DayBucket.Builder builder = new DayBucket.Builder(slots.size());
+        for (AppointmentActionRepository.AssignmentSlot slot : slots) {
+            builder.add(slot.getId(), toEpochMinute(slot.getTimeStart()), slot.getAppointmentId());
+        }
+        return builder.build();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applySafely(change);
+                }
+            });
+        } else {
+            applySafely(change);
+        }
+    }
+
+    private void applySafely(Runnable change) {
+        try {
+            change.run();
+        } catch (RuntimeException e) {
+            // Không để index lệch với DB: xóa hết, lần kiểm tra sau sẽ load lại
+            LOG.warn("Failed to update appointment calendar index, clearing it: {}", e.getMessage());
+            clear();
+        }
+    }
+
+    @FunctionalInterface
+    interface DayLoader {
+        DayBucket load(long ownerId, long day);
+    }
+
+    record BucketKey(long ownerId, long day) {}
+
+    record Placement(long ownerId, int minute, long refId) {}
+
+    record VetRoster(List<VetRepository.SlotVet> vets, long loadedAt) {}
+
+    /**
+     * Sorted start minutes of one owner for one day. Instances are immutable; writers replace them.
+     */
+    static final class DayBucket {
+
+        static final DayBucket EMPTY = new DayBucket(new int[0], new long[0], new long[0]);
+
+        final int[] minutes;
+        final long[] entryIds;
+        final long[] refIds;
+
+        // Slot bị chặn, dịch SLOT_MARGIN bit để chứa cả slot cuối ngày trước / đầu ngày sau
+        final BitSet busySlots;
+
+        DayBucket(int[] minutes, long[] entryIds, long[] refIds) {
+            this.minutes = minutes;
+            this.entryIds = entryIds;
+            this.refIds = refIds;
+            this.busySlots = computeBusySlots(minutes);
+        }
+
+        private static BitSet computeBusySlots(int[] minutes) {
+            BitSet busy = new BitSet(SLOTS_PER_DAY + 2 * SLOT_MARGIN);
+            for (int minute : minutes) {
+                int minuteOfDay = Math.floorMod(minute, MINUTES_PER_DAY);
+                // Slot k conflict khi |k * 15 - minuteOfDay| < MIN_GAP_MINUTES
+                int first = Math.floorDiv(minuteOfDay - MIN_GAP_MINUTES, SLOT_MINUTES) + 1;
+                int last = -Math.floorDiv(-(minuteOfDay + MIN_GAP_MINUTES), SLOT_MINUTES) - 1;
+                busy.set(first + SLOT_MARGIN, last + SLOT_MARGIN + 1);
+            }
+            return busy;
+        }
+
+        int size() {
+            return minutes.length;
+        }
+
+        /** Index of the first entry whose minute is >= the given minute. */
+        int lowerBound(int minute) {
+            int lo = 0;
+            int hi = minutes.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (minutes[mid] < minute) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        boolean hasConflict(int from, int to, long ignoreRefId) {
+            for (int i = lowerBound(from); i < minutes.length && minutes[i] <= to; i++) {
+                if (refIds[i] != ignoreRefId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        DayBucket with(long entryId, int minute, long refId) {
+            int n = minutes.length;
+            int pos = lowerBound(minute);
+            int[] newMinutes = new int[n + 1];
+            long[] newEntryIds = new long[n + 1];
+            long[] newRefIds = new long[n + 1];
+            System.arraycopy(minutes, 0, newMinutes, 0, pos);
+            System.arraycopy(entryIds, 0, newEntryIds, 0, pos);
+            System.arraycopy(refIds, 0, newRefIds, 0, pos);
+            newMinutes[pos] = minute;
+            newEntryIds[pos] = entryId;
+            newRefIds[pos] = refId;
+            System.arraycopy(minutes, pos, newMinutes, pos + 1, n - pos);
+            System.arraycopy(entryIds, pos, newEntryIds, pos + 1, n - pos);
+            System.arraycopy(refIds, pos, newRefIds, pos + 1, n - pos);
+            return new DayBucket(newMinutes, newEntryIds, newRefIds);
+        }
+
+        DayBucket without(long entryId) {
+            int n = minutes.length;
+            for (int i = 0; i < n; i++) {
+                if (entryIds[i] == entryId) {
+                    int[] newMinutes = new int[n - 1];
+                    long[] newEntryIds = new long[n - 1];
+                    long[] newRefIds = new long[n - 1];
+                    System.arraycopy(minutes, 0, newMinutes, 0, i);
+                    System.arraycopy(entryIds, 0, newEntryIds, 0, i);
+                    System.arraycopy(refIds, 0, newRefIds, 0, i);
+                    System.arraycopy(minutes, i + 1, newMinutes, i, n - i - 1);
+                    System.arraycopy(entryIds, i + 1, newEntryIds, i, n - i - 1);
+                    System.arraycopy(refIds, i + 1, newRefIds, i, n - i - 1);
+                    return new DayBucket(newMinutes, newEntryIds, newRefIds);
+                }
+            }
+            return this;
+        }
+
+        static final class Builder {
+
+            private int[] minutes;
+            private long[] entryIds;
+            private long[] refIds;
+            private int size;
+
+            Builder(int capacity) {
+                this.minutes = new int[capacity];
+                this.entryIds = new long[capacity];
+                this.refIds = new long[capacity];
+            }
+
+            void add(Long entryId, int minute, Long refId) {
+                if (entryId == null) {
+                    return;
+                }
+                minutes[size] = minute;
+                entryIds[size] = entryId;
+                refIds[size] = refId != null ? refId : -1L;
+                size++;
+            }
+
+            DayBucket build() {
+                if (size == 0) {
+                    return EMPTY;
+                }
+                // Insertion sort theo minute: mỗi ngày chỉ có vài chục lịch hẹn
+                for (int i = 1; i < size; i++) {
+                    int minute = minutes[i];
+                    long entryId = entryIds[i];
+                    long refId = refIds[i];
+                    int j = i - 1;
+                    while (j >= 0 && minutes[j] > minute) {
+                        minutes[j + 1] = minutes[j];
+                        entryIds[j + 1] = entryIds[j];
+                        refIds[j + 1] = refIds[j];
+                        j--;
+                    }
+                    minutes[j + 1] = minute;
+                    entryIds[j + 1] = entryId;
+                    refIds[j + 1] = refId;
+                }
+                return new DayBucket(
+                    Arrays.copyOf(minutes, size),
+                    Arrays.copyOf(entryIds, size),
+                    Arrays.copyOf(refIds, size)
+                );
+            }
+        }
+    }
+
+    /**
+     * Day-bucketed calendar for one kind of owner (vet id or assistant user id).
+     * Reads are lock-free; writes are serialised on the calendar instance.
+     */
+    static final class Calendar {
+
+        private final String name;
+        private final DayLoader loader;
+        private final boolean slotRounded;
+        private final Map<BucketKey, DayBucket> buckets = new ConcurrentHashMap<>();
+        private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> entriesByRef = new ConcurrentHashMap<>();
+        private final AtomicLong modCount = new AtomicLong();
+
+        Calendar(String name, DayLoader loader, boolean slotRounded) {
+            this.name = name;
+            this.loader = loader;
+            this.slotRounded = slotRounded;
+        }
+
+        boolean hasConflict(Long ownerId, int minute, Long ignoreRefId) {
+            if (ownerId == null) {
+                return false;
+            }
+            int from;
+            int to;
+            if (slotRounded) {
+                // Mỗi lịch hẹn chiếm các slot [floor(start), ceil(start + 60 phút)), như AppointmentSlotService:
+                // hai lịch trùng slot khi start kia nằm trong (slotStart - 60, slotEnd)
+                from = Math.floorDiv(minute, SLOT_MINUTES) * SLOT_MINUTES - MIN_GAP_MINUTES + 1;
+                to = -Math.floorDiv(-(minute + MIN_GAP_MINUTES), SLOT_MINUTES) * SLOT_MINUTES - 1;
+            } else {
+                from = minute - MIN_GAP_MINUTES + 1;
+                to = minute + MIN_GAP_MINUTES - 1;
+            }
+            long ignore = ignoreRefId != null ? ignoreRefId : Long.MIN_VALUE;
+            long firstDay = Math.floorDiv(from, MINUTES_PER_DAY);
+            long lastDay = Math.floorDiv(to, MINUTES_PER_DAY);
+            for (long day = firstDay; day <= lastDay; day++) {
+                if (bucket(ownerId, day).hasConflict(from, to, ignore)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        BitSet busySlots(long ownerId, long day) {
+            BitSet busy = new BitSet(SLOTS_PER_DAY);
+            for (int offset = -1; offset <= 1; offset++) {
+                BitSet source = bucket(ownerId, day + offset).busySlots;
+                for (int bit = source.nextSetBit(0); bit >= 0; bit = source.nextSetBit(bit + 1)) {
+                    int slot = bit - SLOT_MARGIN + offset * SLOTS_PER_DAY;
+                    if (slot >= 0 && slot < SLOTS_PER_DAY) {
+                        busy.set(slot);
+                    }
+                }
+            }
+            return busy;
+        }
+
+        DayBucket bucket(long ownerId, long day) {
+            BucketKey key = new BucketKey(ownerId, day);
+            DayBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            long stamp = modCount.get();
+            DayBucket loaded = loader.load(ownerId, day);
+            synchronized (this) {
+                // Có thay đổi trong lúc đang load -> không cache kết quả có thể đã cũ
+                if (modCount.get() != stamp) {
+                    return loaded;
+                }
+                DayBucket existing = buckets.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                if (buckets.size() >= MAX_BUCKETS) {
+                    LOG.debug("Calendar index '{}' reached {} buckets, clearing", name, buckets.size());
+                    clear();
+                }
+                buckets.put(key, loaded);
+                for (int i = 0; i < loaded.size(); i++) {
+                    track(loaded.entryIds[i], new Placement(ownerId, loaded.minutes[i], loaded.refIds[i]));
+                }
+                return loaded;
+            }
+        }
+
+        synchronized void put(long entryId, long ownerId, int minute, Long refId) {
+            modCount.incrementAndGet();
+            removeInternal(entryId);
+            long ref = refId != null ? refId : -1L;
+            BucketKey key = new BucketKey(ownerId, Math.floorDiv(minute, MINUTES_PER_DAY));
+            // Chỉ cập nhật bucket đã được load; bucket chưa load sẽ đọc từ DB khi cần
+            if (buckets.computeIfPresent(key, (k, bucket) -> bucket.with(entryId, minute, ref)) != null) {
+                track(entryId, new Placement(ownerId, minute, ref));
+            }
+        }
+
+        synchronized void remove(long entryId) {
+            modCount.incrementAndGet();
+            removeInternal(entryId);
+        }
+
+        /**
+         * Replaces every entry that references {@code refId} with the given entries,
+         * whose {@code refIds} hold the owner id.
+         */
+        synchronized void syncRef(long refId, DayBucket current) {
+            modCount.incrementAndGet();
+            Set<Long> entryIds = entriesByRef.get(refId);
+            if (entryIds != null) {
+                for (Long entryId : List.copyOf(entryIds)) {
+                    removeInternal(entryId);
+                }
+            }
+            for (int i = 0; i < current.size(); i++) {
+                put(current.entryIds[i], current.refIds[i], current.minutes[i], refId);
+            }
+        }
+
+        synchronized void removeRef(long refId) {
+            modCount.incrementAndGet();
+            Set<Long> entryIds = entriesByRef.get(refId);
+            if (entryIds != null) {
+                for (Long entryId : List.copyOf(entryIds)) {
+                    removeInternal(entryId);
+                }
+            }
+        }
+
+        synchronized void clear() {
+            modCount.incrementAndGet();
+            buckets.clear();
+            placements.clear();
+            entriesByRef.clear();
+        }
+
+        private void track(long entryId, Placement placement) {
+            placements.put(entryId, placement);
+            entriesByRef.computeIfAbsent(placement.refId(), k -> new HashSet<>()).add(entryId);
+        }
+
+        private void removeInternal(long entryId) {
+            Placement old = placements.remove(entryId);
+            if (old == null) {
+                return;
+            }
+            BucketKey key = new BucketKey(old.ownerId(), Math.floorDiv(old.minute(), MINUTES_PER_DAY));
+            buckets.computeIfPresent(key, (k, bucket) -> bucket.without(entryId));
+            Set<Long> siblings = entriesByRef.get(old.refId());
+            if (siblings != null) {
+                siblings.remove(entryId);
+                if (siblings.isEmpty()) {
+                    entriesByRef.remove(old.refId());
+                }
+            }
+        }
+    }
+}
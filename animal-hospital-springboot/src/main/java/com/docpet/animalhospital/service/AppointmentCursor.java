@@ -0,0 +1,74 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.service.dto.AppointmentSummaryDTO;
+import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated appointment list. Upcoming appointments (time_start >= boundary) come
+ * first in ascending order, then past ones in descending order. The boundary is fixed on the first page,
+ * so an appointment does not move between the two phases while a client is paging.
+ */
+public final class AppointmentCursor {
+
+    private static final String VERSION = "1";
+
+    private final boolean past;
+    private final Instant boundary;
+    private final Instant timeStart;
+    private final long id;
+
+    private AppointmentCursor(boolean past, Instant boundary, Instant timeStart, long id) {
+        this.past = past;
+        this.boundary = boundary;
+        this.timeStart = timeStart;
+        this.id = id;
+    }
+
+    public static AppointmentCursor first(Instant now) {
+        return new AppointmentCursor(false, now, now, 0L);
+    }
+
+    public static AppointmentCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !("U".equals(parts[1]) || "P".equals(parts[1]))) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new AppointmentCursor("P".equals(parts[1]), Instant.parse(parts[2]), Instant.parse(parts[3]), Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new BadRequestAlertException("Invalid cursor", "appointment", "invalidcursor");
+        }
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, past ? "P" : "U", boundary.toString(), timeStart.toString(), Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Cursor at the start of the past phase. */
+    public AppointmentCursor startPast() {
+        return new AppointmentCursor(true, boundary, boundary, 0L);
+    }
+
+    public AppointmentCursor after(AppointmentSummaryDTO appointment) {
+        return new AppointmentCursor(past, boundary, appointment.getTimeStart().toInstant(), appointment.getId());
+    }
+
+    public boolean isPast() {
+        return past;
+    }
+
+    public ZonedDateTime getTimeStart() {
+        return timeStart.atZone(ZoneOffset.UTC);
+    }
+
+    public long getId() {
+        return id;
+    }
+}
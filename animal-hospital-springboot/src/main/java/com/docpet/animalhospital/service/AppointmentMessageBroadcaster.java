@@ -0,0 +1,260 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.service.dto.AppointmentMessageDTO;
+import com.docpet.animalhospital.web.rest.errors.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes new appointment messages to Server-Sent Events subscribers on this node, instead of every
+ * client polling the whole conversation.
+ * <p>
+ * A subscriber is either one appointment or every appointment of a user. Each one has a bounded
+ * queue drained by a small sender pool, so a slow client never blocks the thread that published the
+ * message; a subscriber whose queue overflows is disconnected and resumes with {@code Last-Event-ID}
+ * (event id = message id), replayed from the database. Idle streams get a heartbeat comment.
+ * <p>
+ * Metrics: {@code messages.stream.subscribers}.
+ */
+@Component
+public class AppointmentMessageBroadcaster {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentMessageBroadcaster.class);
+
+    private static final int MAX_SUBSCRIBERS = 2_000;
+    private static final int BUFFER_SIZE = 64;
+    static final int MAX_REPLAY = 200;
+    private static final int SENDER_THREADS = 4;
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    // Đặt vào queue như một event để heartbeat không gửi song song với message
+    private static final Event HEARTBEAT = new Event(null, Set.of());
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService sender = Executors.newFixedThreadPool(SENDER_THREADS, daemon("sse-send-"));
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("sse-heartbeat-"));
+
+    public AppointmentMessageBroadcaster(MeterRegistry meterRegistry) {
+        Gauge.builder("messages.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a stream for {@code userId}, limited to one appointment or, with a {@code null}
+     * {@code appointmentId}, every appointment the user takes part in. With a {@code lastEventId},
+     * messages after it are first replayed through {@code missedSince}, which must return them in id
+     * order and at most {@code MAX_REPLAY + 1} of them.
+     */
+    public SseEmitter subscribe(Long userId, Long appointmentId, Long lastEventId, LongFunction<List<AppointmentMessageDTO>> missedSince) {
+        if (subscriberCount.incrementAndGet() > MAX_SUBSCRIBERS) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException(
+                "Too many open message streams, retry later",
+                "appointmentMessage",
+                "toomanystreams",
+                RETRY_AFTER_SECONDS
+            );
+        }
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter, userId, appointmentId);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        // Đăng ký trước khi đọc DB: message mới trong lúc replay nằm chờ trong queue, trùng id thì bỏ qua
+        subscribers.add(subscriber);
+
+        try {
+            if (lastEventId != null) {
+                subscriber.lastSentId = lastEventId;
+                List<AppointmentMessageDTO> missed = missedSince.apply(lastEventId);
+                if (missed.size() > MAX_REPLAY) {
+                    // Mất quá nhiều: client tải lại hội thoại bằng GET rồi nghe tiếp
+                    emitter.send(SseEmitter.event().name("resync").data(""));
+                } else {
+                    for (AppointmentMessageDTO message : missed) {
+                        send(subscriber, message);
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOG.debug("Message stream closed during replay: {}", e.getMessage());
+            close(subscriber);
+            return emitter;
+        } catch (RuntimeException e) {
+            // Lỗi DB / kiểm tra quyền khi replay: trả lại chỗ trong MAX_SUBSCRIBERS rồi báo lỗi cho caller
+            close(subscriber);
+            throw e;
+        }
+
+        subscriber.replaying = false;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Delivers the message to the subscribers of its appointment once the current transaction
+     * commits. {@code recipientUserIds} are the users allowed to read the appointment.
+     */
+    public void publishAfterCommit(AppointmentMessageDTO message, Set<Long> recipientUserIds) {
+        Event event = new Event(message, Set.copyOf(recipientUserIds));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    private void publish(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.accepts(event)) {
+                continue;
+            }
+            if (subscriber.queue.offer(event)) {
+                schedule(subscriber);
+            } else {
+                LOG.debug("Message stream of user {} is too slow, disconnecting", subscriber.userId);
+                close(subscriber);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            // Queue đầy thì đang có message chờ gửi, không cần heartbeat
+            if (subscriber.queue.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.replaying && !subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                subscriber.draining.set(false);
+                close(subscriber);
+            }
+        }
+    }
+
+    // Mỗi subscriber chỉ có một drain chạy tại một thời điểm nên các lần send không chồng nhau
+    private void drain(Subscriber subscriber) {
+        try {
+            Event event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                if (event == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else if (event.message().getId() > subscriber.lastSentId) {
+                    send(subscriber, event.message());
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOG.debug("Message stream of user {} closed: {}", subscriber.userId, e.getMessage());
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static void send(Subscriber subscriber, AppointmentMessageDTO message) throws IOException {
+        subscriber.emitter.send(
+            SseEmitter.event().id(String.valueOf(message.getId())).name("message").data(message, MediaType.APPLICATION_JSON)
+        );
+        subscriber.lastSentId = message.getId();
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException e) {
+            LOG.trace("Message stream already completed", e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(this::close);
+        sender.shutdown();
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Event(AppointmentMessageDTO message, Set<Long> recipientUserIds) {}
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final Long appointmentId;
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean replaying = true;
+        private volatile boolean closed;
+        // Chỉ ghi trong lúc replay hoặc trong drain
+        private volatile long lastSentId;
+
+        private Subscriber(SseEmitter emitter, Long userId, Long appointmentId) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.appointmentId = appointmentId;
+        }
+
+        // Quyền đọc lấy theo người nhận của từng message, nên vet bị đổi giữa chừng sẽ không nhận tiếp
+        private boolean accepts(Event event) {
+            return (
+                event.recipientUserIds().contains(userId) &&
+                (appointmentId == null || appointmentId.equals(event.message().getAppointmentId()))
+            );
+        }
+    }
+}
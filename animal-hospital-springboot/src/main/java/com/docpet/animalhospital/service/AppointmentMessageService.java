@@ -1,24 +1,26 @@
 package com.docpet.animalhospital.service;
 
-import com.docpet.animalhospital.domain.Appointment;
 import com.docpet.animalhospital.domain.AppointmentMessage;
-import com.docpet.animalhospital.domain.Owner;
 import com.docpet.animalhospital.domain.User;
-import com.docpet.animalhospital.domain.Vet;
 import com.docpet.animalhospital.repository.AppointmentMessageRepository;
 import com.docpet.animalhospital.repository.AppointmentRepository;
-import com.docpet.animalhospital.repository.OwnerRepository;
 import com.docpet.animalhospital.repository.UserRepository;
-import com.docpet.animalhospital.repository.VetRepository;
 import com.docpet.animalhospital.service.dto.AppointmentMessageDTO;
 import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,122 +32,226 @@ public class AppointmentMessageService {
     private final AppointmentMessageRepository appointmentMessageRepository;
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
-    private final OwnerRepository ownerRepository;
-    private final VetRepository vetRepository;
+    private final ProfileIdCache profileIdCache;
+    private final AppointmentAccessCache appointmentAccessCache;
+    private final AppointmentMessageBroadcaster appointmentMessageBroadcaster;
 
     public AppointmentMessageService(
         AppointmentMessageRepository appointmentMessageRepository,
         AppointmentRepository appointmentRepository,
         UserRepository userRepository,
-        OwnerRepository ownerRepository,
-        VetRepository vetRepository
+        ProfileIdCache profileIdCache,
+        AppointmentAccessCache appointmentAccessCache,
+        AppointmentMessageBroadcaster appointmentMessageBroadcaster
     ) {
         this.appointmentMessageRepository = appointmentMessageRepository;
         this.appointmentRepository = appointmentRepository;
         this.userRepository = userRepository;
-        this.ownerRepository = ownerRepository;
-        this.vetRepository = vetRepository;
+        this.profileIdCache = profileIdCache;
+        this.appointmentAccessCache = appointmentAccessCache;
+        this.appointmentMessageBroadcaster = appointmentMessageBroadcaster;
     }
 
     public AppointmentMessageDTO createMessage(Long appointmentId, String message, String currentUserLogin) {
         LOG.debug("Request to create message for appointment: {} by user: {}", appointmentId, currentUserLogin);
 
-        // Validate message không rỗng
-        if (message == null || message.trim().isEmpty()) {
-            throw new BadRequestAlertException("Message cannot be empty", "appointmentMessage", "messageempty");
-        }
-
-        // Validate message không quá 1000 ký tự
-        if (message.length() > 1000) {
-            throw new BadRequestAlertException("Message cannot exceed 1000 characters", "appointmentMessage", "messagetoolong");
-        }
-
-        // Lấy appointment
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", "appointmentMessage", "appointmentnotfound"));
-
-        // Validate appointment phải có vet_id (đã chọn bác sĩ)
-        if (appointment.getVet() == null) {
-            throw new BadRequestAlertException("Appointment must have a vet assigned", "appointmentMessage", "novetassigned");
-        }
+        validateMessage(message);
+        AppointmentAccessCache.AppointmentAccess access = findWritableAppointment(appointmentId);
 
         // Lấy current user
         User currentUser = userRepository.findOneByLogin(currentUserLogin)
             .orElseThrow(() -> new BadRequestAlertException("User not found", "appointmentMessage", "usernotfound"));
 
         // Validate: current user phải là owner hoặc vet của appointment
-        boolean isOwner = false;
-        boolean isVet = false;
-
-        // Kiểm tra xem có phải owner không
-        if (appointment.getOwner() != null && appointment.getOwner().getUser() != null) {
-            isOwner = appointment.getOwner().getUser().getLogin().equals(currentUserLogin);
+        if (!isParticipant(access, currentUserLogin)) {
+            throw new BadRequestAlertException(
+                "You can only send messages for appointments where you are the owner or the assigned vet",
+                "appointmentMessage",
+                "notauthorized"
+            );
         }
 
-        // Kiểm tra xem có phải vet không
-        if (appointment.getVet() != null && appointment.getVet().getUser() != null) {
-            isVet = appointment.getVet().getUser().getLogin().equals(currentUserLogin);
+        return save(access, appointmentId, currentUser, message, null);
+    }
+
+    /**
+     * Automatic message of a workflow change (reschedule, home visit request), sent on behalf of
+     * {@code senderUserId} by the outbox dispatcher. Idempotent: nothing is created when a message
+     * for {@code sourceEventId} already exists.
+     */
+    public Optional<AppointmentMessageDTO> createNotification(Long appointmentId, Long senderUserId, String message, Long sourceEventId) {
+        LOG.debug("Request to create notification for appointment: {} from outbox event: {}", appointmentId, sourceEventId);
+        if (appointmentMessageRepository.existsBySourceEventId(sourceEventId)) {
+            LOG.debug("Notification of outbox event {} already exists", sourceEventId);
+            return Optional.empty();
         }
 
-        if (!isOwner && !isVet) {
+        validateMessage(message);
+        AppointmentAccessCache.AppointmentAccess access = findWritableAppointment(appointmentId);
+
+        // Giống createMessage: người gửi phải là owner hoặc vet của appointment
+        if (!access.isOwner(senderUserId) && !access.isVet(senderUserId)) {
             throw new BadRequestAlertException(
                 "You can only send messages for appointments where you are the owner or the assigned vet",
                 "appointmentMessage",
                 "notauthorized"
             );
         }
+        User sender = userRepository.findById(senderUserId)
+            .orElseThrow(() -> new BadRequestAlertException("User not found", "appointmentMessage", "usernotfound"));
+
+        return Optional.of(save(access, appointmentId, sender, message, sourceEventId));
+    }
+
+    private static void validateMessage(String message) {
+        // Validate message không rỗng
+        if (message == null || message.trim().isEmpty()) {
+            throw new BadRequestAlertException("Message cannot be empty", "appointmentMessage", "messageempty");
+        }
 
+        // Validate message không quá 1000 ký tự
+        if (message.length() > 1000) {
+            throw new BadRequestAlertException("Message cannot exceed 1000 characters", "appointmentMessage", "messagetoolong");
+        }
+    }
+
+    private AppointmentAccessCache.AppointmentAccess findWritableAppointment(Long appointmentId) {
+        // Lấy quan hệ truy cập của appointment (owner / vet user id), không load Appointment / Owner / Vet
+        AppointmentAccessCache.AppointmentAccess access = appointmentAccessCache.appointment(appointmentId)
+            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", "appointmentMessage", "appointmentnotfound"));
+
+        // Validate appointment phải có vet_id (đã chọn bác sĩ)
+        if (!access.hasVet()) {
+            throw new BadRequestAlertException("Appointment must have a vet assigned", "appointmentMessage", "novetassigned");
+        }
+        return access;
+    }
+
+    private AppointmentMessageDTO save(
+        AppointmentAccessCache.AppointmentAccess access,
+        Long appointmentId,
+        User sender,
+        String message,
+        Long sourceEventId
+    ) {
         // Tạo message
         AppointmentMessage appointmentMessage = new AppointmentMessage();
         appointmentMessage.setMessage(message.trim());
         appointmentMessage.setTimestamp(ZonedDateTime.now());
-        appointmentMessage.setAppointment(appointment);
-        appointmentMessage.setSender(currentUser);
+        appointmentMessage.setAppointment(appointmentRepository.getReferenceById(appointmentId));
+        appointmentMessage.setSender(sender);
+        appointmentMessage.setSourceEventId(sourceEventId);
 
         appointmentMessage = appointmentMessageRepository.save(appointmentMessage);
-        return toDto(appointmentMessage);
+        AppointmentMessageDTO result = toDto(appointmentMessage);
+
+        // Đẩy cho các stream SSE đang mở sau khi commit
+        Set<Long> recipientUserIds = new HashSet<>();
+        if (access.ownerUserId() != null) {
+            recipientUserIds.add(access.ownerUserId());
+        }
+        if (access.vetUserId() != null) {
+            recipientUserIds.add(access.vetUserId());
+        }
+        appointmentMessageBroadcaster.publishAfterCommit(result, recipientUserIds);
+        return result;
     }
 
     @Transactional(readOnly = true)
     public List<AppointmentMessageDTO> findByAppointmentId(Long appointmentId, String currentUserLogin) {
         LOG.debug("Request to get messages for appointment: {} by user: {}", appointmentId, currentUserLogin);
 
-        // Lấy appointment
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", "appointmentMessage", "appointmentnotfound"));
+        checkCanRead(appointmentId, currentUserLogin);
 
-        // Validate appointment phải có vet_id (đã chọn bác sĩ)
-        if (appointment.getVet() == null) {
-            throw new BadRequestAlertException("Appointment must have a vet assigned", "appointmentMessage", "novetassigned");
+        // Cả hội thoại, cũ nhất trước
+        return appointmentMessageRepository.findRowsAfter(appointmentId, 0L, Pageable.unpaged()).stream()
+            .map(AppointmentMessageService::toDto)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * One page of a conversation, oldest first. With {@code afterId}: up to {@code limit} messages
+     * newer than it (incremental refresh); otherwise the {@code limit} messages just before
+     * {@code beforeId}, or the latest ones when {@code beforeId} is {@code null}.
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentMessageDTO> findPage(Long appointmentId, String currentUserLogin, Long afterId, Long beforeId, int limit) {
+        LOG.debug("Request to get messages for appointment: {} after: {} before: {} limit: {}", appointmentId, afterId, beforeId, limit);
+        if (afterId != null && beforeId != null) {
+            throw new BadRequestAlertException("Use either afterId or beforeId", "appointmentMessage", "invalidcursor");
         }
 
-        // Validate: current user phải là owner hoặc vet của appointment
-        boolean isOwner = false;
-        boolean isVet = false;
+        checkCanRead(appointmentId, currentUserLogin);
 
-        // Kiểm tra xem có phải owner không
-        if (appointment.getOwner() != null && appointment.getOwner().getUser() != null) {
-            isOwner = appointment.getOwner().getUser().getLogin().equals(currentUserLogin);
+        PageRequest page = PageRequest.of(0, limit);
+        if (afterId != null) {
+            return appointmentMessageRepository.findRowsAfter(appointmentId, afterId, page).stream()
+                .map(AppointmentMessageService::toDto)
+                .collect(Collectors.toList());
         }
+        List<AppointmentMessageDTO> messages = appointmentMessageRepository
+            .findRowsBefore(appointmentId, beforeId != null ? beforeId : Long.MAX_VALUE, page).stream()
+            .map(AppointmentMessageService::toDto)
+            .collect(Collectors.toList());
+        Collections.reverse(messages);
+        return messages;
+    }
 
-        // Kiểm tra xem có phải vet không
-        if (appointment.getVet() != null && appointment.getVet().getUser() != null) {
-            isVet = appointment.getVet().getUser().getLogin().equals(currentUserLogin);
+    /**
+     * SSE stream of new messages of one appointment, with the same access rules as
+     * {@link #findByAppointmentId(Long, String)}.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(Long appointmentId, String currentUserLogin, Long lastEventId) {
+        LOG.debug("Request to stream messages for appointment: {} by user: {}", appointmentId, currentUserLogin);
+        checkCanRead(appointmentId, currentUserLogin);
+        Long currentUserId = profileIdCache.currentUserId(currentUserLogin).orElse(null);
+        return appointmentMessageBroadcaster.subscribe(currentUserId, appointmentId, lastEventId, afterId ->
+            appointmentMessageRepository.findRowsAfter(appointmentId, afterId, replayPage()).stream().map(AppointmentMessageService::toDto).toList()
+        );
+    }
+
+    /**
+     * SSE stream of new messages of every appointment where the user is the owner or the vet.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribeAll(String currentUserLogin, Long lastEventId) {
+        LOG.debug("Request to stream messages of all appointments of user: {}", currentUserLogin);
+        Long currentUserId = profileIdCache.currentUserId(currentUserLogin)
+            .orElseThrow(() -> new BadRequestAlertException("User not found", "appointmentMessage", "usernotfound"));
+        return appointmentMessageBroadcaster.subscribe(currentUserId, null, lastEventId, afterId ->
+            appointmentMessageRepository.findRowsForParticipantAfter(currentUserId, afterId, replayPage()).stream().map(AppointmentMessageService::toDto).toList()
+        );
+    }
+
+    // Lấy dư một dòng để broadcaster biết có bị cắt bớt hay không
+    private static PageRequest replayPage() {
+        return PageRequest.of(0, AppointmentMessageBroadcaster.MAX_REPLAY + 1);
+    }
+
+    private void checkCanRead(Long appointmentId, String currentUserLogin) {
+        // Lấy quan hệ truy cập của appointment (owner / vet user id), không load Appointment / Owner / Vet
+        AppointmentAccessCache.AppointmentAccess access = appointmentAccessCache.appointment(appointmentId)
+            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", "appointmentMessage", "appointmentnotfound"));
+
+        // Validate appointment phải có vet_id (đã chọn bác sĩ)
+        if (!access.hasVet()) {
+            throw new BadRequestAlertException("Appointment must have a vet assigned", "appointmentMessage", "novetassigned");
         }
 
-        if (!isOwner && !isVet) {
+        // Validate: current user phải là owner hoặc vet của appointment
+        if (!isParticipant(access, currentUserLogin)) {
             throw new BadRequestAlertException(
                 "You can only view messages for appointments where you are the owner or the assigned vet",
                 "appointmentMessage",
                 "notauthorized"
             );
         }
+    }
 
-        // Lấy messages và sắp xếp theo timestamp tăng dần (cũ nhất trước)
-        List<AppointmentMessage> messages = appointmentMessageRepository.findByAppointmentIdOrderByTimestampAsc(appointmentId);
-        return messages.stream()
-            .map(this::toDto)
-            .collect(Collectors.toList());
+    private boolean isParticipant(AppointmentAccessCache.AppointmentAccess access, String currentUserLogin) {
+        Long currentUserId = profileIdCache.currentUserId(currentUserLogin).orElse(null);
+        return access.isOwner(currentUserId) || access.isVet(currentUserId);
     }
 
     private AppointmentMessageDTO toDto(AppointmentMessage message) {
@@ -161,20 +267,33 @@ public class AppointmentMessageService {
         if (message.getSender() != null) {
             dto.setSenderId(message.getSender().getId());
             dto.setSenderLogin(message.getSender().getLogin());
-            
-            // Lấy tên người gửi
-            String senderName = message.getSender().getFirstName();
-            if (senderName == null || senderName.trim().isEmpty()) {
-                senderName = message.getSender().getLogin();
-            } else {
-                if (message.getSender().getLastName() != null && !message.getSender().getLastName().trim().isEmpty()) {
-                    senderName += " " + message.getSender().getLastName();
-                }
-            }
-            dto.setSenderName(senderName);
+            dto.setSenderName(senderName(message.getSender().getLogin(), message.getSender().getFirstName(), message.getSender().getLastName()));
         }
         
         return dto;
     }
+
+    private static AppointmentMessageDTO toDto(AppointmentMessageRepository.MessageRow row) {
+        AppointmentMessageDTO dto = new AppointmentMessageDTO();
+        dto.setId(row.getId());
+        dto.setMessage(row.getMessage());
+        dto.setTimestamp(row.getTimestamp());
+        dto.setAppointmentId(row.getAppointmentId());
+        dto.setSenderId(row.getSenderId());
+        dto.setSenderLogin(row.getSenderLogin());
+        dto.setSenderName(senderName(row.getSenderLogin(), row.getSenderFirstName(), row.getSenderLastName()));
+        return dto;
+    }
+
+    // Tên người gửi: "firstName lastName", không có firstName thì dùng login
+    private static String senderName(String login, String firstName, String lastName) {
+        if (firstName == null || firstName.trim().isEmpty()) {
+            return login;
+        }
+        if (lastName != null && !lastName.trim().isEmpty()) {
+            return firstName + " " + lastName;
+        }
+        return firstName;
+    }
 }
 
@@ -1,29 +1,39 @@
 package com.docpet.animalhospital.service;
 
+import com.docpet.animalhospital.config.ClinicProperties;
 import com.docpet.animalhospital.domain.Appointment;
 import com.docpet.animalhospital.domain.Owner;
 import com.docpet.animalhospital.domain.Pet;
 import com.docpet.animalhospital.domain.Vet;
 import com.docpet.animalhospital.repository.AppointmentRepository;
-import com.docpet.animalhospital.repository.OwnerRepository;
 import com.docpet.animalhospital.repository.PetRepository;
 import com.docpet.animalhospital.repository.VetRepository;
 import com.docpet.animalhospital.security.AuthoritiesConstants;
 import com.docpet.animalhospital.security.SecurityUtils;
 import com.docpet.animalhospital.service.dto.AppointmentDTO;
+import com.docpet.animalhospital.service.dto.AppointmentSummaryDTO;
+import com.docpet.animalhospital.service.dto.AvailableSlotDTO;
+import com.docpet.animalhospital.service.dto.CursorPageDTO;
 import com.docpet.animalhospital.service.mapper.AppointmentMapper;
 import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -36,35 +46,47 @@ public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
     private final AppointmentMapper appointmentMapper;
-    private final OwnerRepository ownerRepository;
+    private final ProfileIdCache profileIdCache;
+    private final AppointmentAccessCache appointmentAccessCache;
     private final PetRepository petRepository;
     private final VetRepository vetRepository;
+    private final AppointmentCalendarIndex appointmentCalendarIndex;
+    private final AppointmentSlotService appointmentSlotService;
+    private final ClinicProperties clinicProperties;
 
     public AppointmentService(
         AppointmentRepository appointmentRepository, 
         AppointmentMapper appointmentMapper,
-        OwnerRepository ownerRepository,
+        ProfileIdCache profileIdCache,
+        AppointmentAccessCache appointmentAccessCache,
         PetRepository petRepository,
-        VetRepository vetRepository
+        VetRepository vetRepository,
+        AppointmentCalendarIndex appointmentCalendarIndex,
+        AppointmentSlotService appointmentSlotService,
+        ClinicProperties clinicProperties
     ) {
         this.appointmentRepository = appointmentRepository;
         this.appointmentMapper = appointmentMapper;
-        this.ownerRepository = ownerRepository;
+        this.profileIdCache = profileIdCache;
+        this.appointmentAccessCache = appointmentAccessCache;
         this.petRepository = petRepository;
         this.vetRepository = vetRepository;
+        this.appointmentCalendarIndex = appointmentCalendarIndex;
+        this.appointmentSlotService = appointmentSlotService;
+        this.clinicProperties = clinicProperties;
     }
 
     public AppointmentDTO save(AppointmentDTO appointmentDTO) {
         LOG.debug("Request to save Appointment : {}", appointmentDTO);
         Appointment appointment = appointmentMapper.toEntity(appointmentDTO);
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveAppointment(appointment);
         return appointmentMapper.toDto(appointment);
     }
 
     public AppointmentDTO update(AppointmentDTO appointmentDTO) {
         LOG.debug("Request to update Appointment : {}", appointmentDTO);
         Appointment appointment = appointmentMapper.toEntity(appointmentDTO);
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveAppointment(appointment);
         return appointmentMapper.toDto(appointment);
     }
 
@@ -75,7 +97,7 @@ public class AppointmentService {
             .map(existingAppointment -> {
                 return appointmentMapper.partialUpdate(existingAppointment, appointmentDTO);
             })
-            .map(appointmentRepository::save)
+            .map(this::saveAppointment)
             .map(appointmentMapper::toDto);
     }
 
@@ -93,7 +115,22 @@ public class AppointmentService {
 
     public void delete(Long id) {
         LOG.debug("Request to delete Appointment : {}", id);
+        appointmentSlotService.release(id);
         appointmentRepository.deleteById(id);
+        appointmentCalendarIndex.appointmentDeleted(id);
+        appointmentAccessCache.appointmentChanged(id);
+    }
+
+    /**
+     * Saves the appointment and, in the same transaction, moves its reserved vet slots to the
+     * current vet / start time (or releases them when cancelled or rejected).
+     */
+    public Appointment saveAppointment(Appointment appointment) {
+        Appointment saved = appointmentRepository.save(appointment);
+        appointmentSlotService.claim(saved);
+        appointmentCalendarIndex.appointmentSaved(saved);
+        appointmentAccessCache.appointmentChanged(saved.getId());
+        return saved;
     }
 
     public AppointmentDTO createAppointment(AppointmentDTO appointmentDTO, String currentUserLogin) {
@@ -112,18 +149,12 @@ public class AppointmentService {
             throw new BadRequestAlertException("Pet does not have an owner assigned", "appointment", "petnoowner");
         }
 
-        // Xác định owner cho appointment
-        Owner appointmentOwner;
-        
-        // Kiểm tra xem current user có phải là owner của pet không
-        Optional<Owner> currentUserOwnerOpt = ownerRepository.findByUser_Login(currentUserLogin);
-        if (currentUserOwnerOpt.isPresent() && currentUserOwnerOpt.get().getId().equals(pet.getOwner().getId())) {
-            // Current user là owner của pet
-            appointmentOwner = currentUserOwnerOpt.get();
+        // Owner của appointment luôn là owner của pet (current user có thể là owner đó hoặc là vet)
+        Owner appointmentOwner = pet.getOwner();
+        Optional<Long> currentUserOwnerId = profileIdCache.currentOwnerId(currentUserLogin);
+        if (currentUserOwnerId.isPresent() && currentUserOwnerId.get().equals(appointmentOwner.getId())) {
             LOG.debug("Current user is the owner of the pet");
         } else {
-            // Current user không phải owner (có thể là vet) - sử dụng owner của pet
-            appointmentOwner = pet.getOwner();
             LOG.debug("Current user is not the owner, using pet's owner: {}", appointmentOwner.getId());
         }
 
@@ -150,22 +181,13 @@ public class AppointmentService {
         }
 
         // Logic mới: kiểm tra không trùng giờ startTime và cách nhau ít nhất 1 tiếng
-        List<Appointment> appointmentsInSameDay = appointmentRepository.findAppointmentsByVetAndDate(
-            vet.getId(), 
-            appointmentDTO.getTimeStart()
-        );
-
-        for (Appointment appointment : appointmentsInSameDay) {
-            long hoursDiff = Math.abs(java.time.Duration.between(appointment.getTimeStart(), appointmentDTO.getTimeStart()).toHours());
-            
-            // Kiểm tra: trùng giờ (cùng hour) hoặc cách nhau < 1 tiếng
-            if (appointment.getTimeStart().getHour() == appointmentDTO.getTimeStart().getHour() || hoursDiff < 1) {
-                throw new BadRequestAlertException(
-                    "Vet không có sẵn trong khoảng thời gian này. Vui lòng chọn vet khác hoặc thời gian khác (cách nhau ít nhất 1 tiếng).", 
-                    "appointment", 
-                    "vetnotavailable"
-                );
-            }
+        // (kiểm tra nhanh; appointment_slot mới là chốt chặn khi đặt lịch đồng thời)
+        if (!appointmentCalendarIndex.isVetAvailable(vet.getId(), appointmentDTO.getTimeStart(), null)) {
+            throw new BadRequestAlertException(
+                "Vet không có sẵn trong khoảng thời gian này. Vui lòng chọn vet khác hoặc thời gian khác (cách nhau ít nhất 1 tiếng).", 
+                "appointment", 
+                "vetnotavailable"
+            );
         }
 
         // Set timeEnd nếu chưa có
@@ -182,7 +204,7 @@ public class AppointmentService {
         appointment.setVet(vet);
         appointment.setOwner(appointmentOwner);
         
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveAppointment(appointment);
         
         Appointment savedAppointment = appointmentRepository.findOneWithEagerRelationships(appointment.getId())
             .orElse(appointment);
@@ -191,36 +213,84 @@ public class AppointmentService {
         return appointmentMapper.toDto(savedAppointment);
     }
 
+    /**
+     * Keyset page of the appointments the user takes part in as owner and/or vet:
+     * upcoming first (soonest first), then past ones (most recent first).
+     * Owner / vet means having that profile, not a role; the profile ids come from the token claims
+     * or {@link ProfileIdCache}, so this runs one query per phase.
+     */
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> findAllForCurrentOwner(String currentUserLogin) {
-        LOG.debug("Request to get all Appointments for owner: {}", currentUserLogin);
-        List<Appointment> appointments = appointmentRepository.findByOwner_User_Login(currentUserLogin);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+    public CursorPageDTO<AppointmentSummaryDTO> findPageForCurrentUser(String currentUserLogin, String after, int limit) {
+        LOG.debug("Request to get appointment page for user: {} after: {} limit: {}", currentUserLogin, after, limit);
+        Long ownerId = profileIdCache.currentOwnerId(currentUserLogin).orElse(null);
+        Long vetId = profileIdCache.currentVetId(currentUserLogin).orElse(null);
+        if (ownerId == null && vetId == null) {
+            return new CursorPageDTO<>(List.of(), null);
+        }
+
+        AppointmentCursor cursor = after == null || after.isBlank()
+            ? AppointmentCursor.first(Instant.now())
+            : AppointmentCursor.decode(after);
+        List<AppointmentSummaryDTO> items = new ArrayList<>(limit);
+        if (!cursor.isPast()) {
+            List<AppointmentSummaryDTO> upcoming = findUpcoming(ownerId, vetId, cursor, PageRequest.of(0, limit + 1));
+            for (AppointmentSummaryDTO appointment : upcoming) {
+                if (items.size() == limit) {
+                    return toPage(items, cursor);
+                }
+                items.add(appointment);
+                cursor = cursor.after(appointment);
+            }
+            cursor = cursor.startPast();
+        }
+        List<AppointmentSummaryDTO> past = findPast(ownerId, vetId, cursor, PageRequest.of(0, limit - items.size() + 1));
+        for (AppointmentSummaryDTO appointment : past) {
+            if (items.size() == limit) {
+                return toPage(items, cursor);
+            }
+            items.add(appointment);
+            cursor = cursor.after(appointment);
+        }
+        return toPage(items, null);
     }
 
-    @Transactional(readOnly = true)
-    public List<AppointmentDTO> findAllForCurrentVet(String currentUserLogin) {
-        LOG.debug("Request to get all Appointments for vet: {}", currentUserLogin);
-        List<Appointment> appointments = appointmentRepository.findByVet_User_Login(currentUserLogin);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+    // Chỉ một profile: query trên đúng index (owner_id|vet_id, time_start) của profile đó
+    private List<AppointmentSummaryDTO> findUpcoming(Long ownerId, Long vetId, AppointmentCursor cursor, Pageable pageable) {
+        if (vetId == null) {
+            return appointmentRepository.findUpcomingForOwner(ownerId, cursor.getTimeStart(), cursor.getId(), pageable);
+        }
+        if (ownerId == null) {
+            return appointmentRepository.findUpcomingForVet(vetId, cursor.getTimeStart(), cursor.getId(), pageable);
+        }
+        return appointmentRepository.findUpcomingForParticipant(ownerId, vetId, cursor.getTimeStart(), cursor.getId(), pageable);
+    }
+
+    private List<AppointmentSummaryDTO> findPast(Long ownerId, Long vetId, AppointmentCursor cursor, Pageable pageable) {
+        if (vetId == null) {
+            return appointmentRepository.findPastForOwner(ownerId, cursor.getTimeStart(), cursor.getId(), pageable);
+        }
+        if (ownerId == null) {
+            return appointmentRepository.findPastForVet(vetId, cursor.getTimeStart(), cursor.getId(), pageable);
+        }
+        return appointmentRepository.findPastForParticipant(ownerId, vetId, cursor.getTimeStart(), cursor.getId(), pageable);
+    }
+
+    private CursorPageDTO<AppointmentSummaryDTO> toPage(List<AppointmentSummaryDTO> items, AppointmentCursor next) {
+        return new CursorPageDTO<>(items, next != null ? next.encode() : null);
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getAllAppointmentsByDateForVet(String dateString) {
+    public List<AppointmentSummaryDTO> getAllAppointmentsByDateForVet(String dateString) {
         LOG.debug("Request to get all appointments for date: {} for vet", dateString);
         LocalDate date = parseDate(dateString);
-        return findByDate(date);
+        return appointmentRepository.findSummariesByDay(startOfDay(date), startOfDay(date.plusDays(1)));
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getPetAppointmentHistory(Long petId, String currentUserLogin) {
+    public List<AppointmentSummaryDTO> getPetAppointmentHistory(Long petId, String currentUserLogin) {
         LOG.debug("Request to get appointment history for pet: {} by user: {}", petId, currentUserLogin);
 
-        Pet pet = petRepository.findById(petId)
+        AppointmentAccessCache.PetAccess petAccess = appointmentAccessCache.pet(petId)
             .orElseThrow(() -> new BadRequestAlertException("Pet not found", "appointment", "petnotfound"));
 
         // Kiểm tra xem user có phải là Vet (có role DOCTOR) không
@@ -231,18 +301,16 @@ public class AppointmentService {
             LOG.debug("User {} is a Vet, allowing access to pet history", currentUserLogin);
         } else {
             // Owner chỉ có thể xem lịch sử appointment của Pet thuộc về mình
-            Owner currentOwner = ownerRepository.findByUser_Login(currentUserLogin)
-                .orElseThrow(() -> new BadRequestAlertException("Owner profile not found", "appointment", "noowner"));
+            if (profileIdCache.currentOwnerId(currentUserLogin).isEmpty()) {
+                throw new BadRequestAlertException("Owner profile not found", "appointment", "noowner");
+            }
 
-            if (!pet.getOwner().getId().equals(currentOwner.getId())) {
+            if (!petAccess.isOwner(profileIdCache.currentUserId(currentUserLogin).orElse(null))) {
                 throw new BadRequestAlertException("Pet does not belong to current owner", "appointment", "petnotowned");
             }
         }
 
-        List<Appointment> appointments = appointmentRepository.findByPet_Id(petId);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+        return appointmentRepository.findSummariesByPetId(petId);
     }
 
     public AppointmentDTO updateAppointmentStatus(Long appointmentId, String status, String currentUserLogin) {
@@ -251,15 +319,15 @@ public class AppointmentService {
         Appointment appointment = appointmentRepository.findById(appointmentId)
             .orElseThrow(() -> new BadRequestAlertException("Appointment not found", "appointment", "notfound"));
 
-        Vet currentVet = vetRepository.findByUser_Login(currentUserLogin)
+        Long currentVetId = profileIdCache.currentVetId(currentUserLogin)
             .orElseThrow(() -> new BadRequestAlertException("Vet profile not found", "appointment", "novet"));
 
         if ("APPROVED".equals(status) || "REJECTED".equals(status)) {
-            appointment.setVet(currentVet);
+            appointment.setVet(vetRepository.getReferenceById(currentVetId));
         }
 
         appointment.setStatus(status);
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveAppointment(appointment);
         
         return appointmentMapper.toDto(appointment);
     }
@@ -267,7 +335,7 @@ public class AppointmentService {
     @Transactional(readOnly = true)
     public List<AppointmentDTO> findByDateAndAppointmentType(LocalDate date, String appointmentType) {
         LOG.debug("Request to get appointments by date: {} and type: {}", date, appointmentType);
-        List<Appointment> appointments = appointmentRepository.findByDateAndAppointmentType(date, appointmentType);
+        List<Appointment> appointments = appointmentRepository.findByDayAndAppointmentType(startOfDay(date), startOfDay(date.plusDays(1)), appointmentType);
         return appointments.stream()
             .map(appointmentMapper::toDto)
             .collect(Collectors.toList());
@@ -276,7 +344,7 @@ public class AppointmentService {
     @Transactional(readOnly = true)
     public List<AppointmentDTO> findByDate(LocalDate date) {
         LOG.debug("Request to get appointments by date: {}", date);
-        List<Appointment> appointments = appointmentRepository.findByDate(date);
+        List<Appointment> appointments = appointmentRepository.findByDay(startOfDay(date), startOfDay(date.plusDays(1)));
         return appointments.stream()
             .map(appointmentMapper::toDto)
             .collect(Collectors.toList());
@@ -299,7 +367,9 @@ public class AppointmentService {
     @Transactional(readOnly = true)
     public List<AppointmentDTO> findByDateAndAppointmentTypeAndVet(LocalDate date, String appointmentType, String currentUserLogin) {
         LOG.debug("Request to get appointments by date: {}, type: {} and vet: {}", date, appointmentType, currentUserLogin);
-        List<Appointment> appointments = appointmentRepository.findByDateAndAppointmentTypeAndVet(date, appointmentType, currentUserLogin);
+        List<Appointment> appointments = appointmentRepository.findByDayAndAppointmentTypeAndVet(
+            startOfDay(date), startOfDay(date.plusDays(1)), appointmentType, currentUserLogin
+        );
         return appointments.stream()
             .map(appointmentMapper::toDto)
             .collect(Collectors.toList());
@@ -320,23 +390,22 @@ public class AppointmentService {
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> findByDateAndAppointmentTypeAndVetId(LocalDate date, String appointmentType, Long vetId) {
+    public List<AppointmentSummaryDTO> findByDateAndAppointmentTypeAndVetId(LocalDate date, String appointmentType, Long vetId) {
         LOG.debug("Request to get appointments by date: {}, type: {} and vetId: {}", date, appointmentType, vetId);
-        List<Appointment> appointments = appointmentRepository.findByDateAndAppointmentTypeAndVetId(date, appointmentType, vetId);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+        return appointmentRepository.findSummariesByDayAndAppointmentTypeAndVetId(
+            startOfDay(date), startOfDay(date.plusDays(1)), appointmentType, vetId
+        );
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getEmergencyAppointmentsByDateAndVetId(String dateString, Long vetId) {
+    public List<AppointmentSummaryDTO> getEmergencyAppointmentsByDateAndVetId(String dateString, Long vetId) {
         LOG.debug("Request to get emergency appointments for date: {} and vetId: {}", dateString, vetId);
         LocalDate date = parseDate(dateString);
         return findByDateAndAppointmentTypeAndVetId(date, "EMERGENCY", vetId);
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getRegularAppointmentsByDateAndVetId(String dateString, Long vetId) {
+    public List<AppointmentSummaryDTO> getRegularAppointmentsByDateAndVetId(String dateString, Long vetId) {
         LOG.debug("Request to get regular appointments for date: {} and vetId: {}", dateString, vetId);
         LocalDate date = parseDate(dateString);
         return findByDateAndAppointmentTypeAndVetId(date, "NORMAL", vetId);
@@ -347,23 +416,105 @@ public class AppointmentService {
         LOG.debug("Request to check availability for vet: {} at startTime: {}", vetId, startTime);
         
         // Logic mới: chỉ cần không trùng giờ startTime và cách nhau ít nhất 1 tiếng
-        List<Appointment> appointmentsInSameDay = appointmentRepository.findAppointmentsByVetAndDate(vetId, startTime);
-        
-        for (Appointment appointment : appointmentsInSameDay) {
-            long hoursDiff = Math.abs(java.time.Duration.between(appointment.getTimeStart(), startTime).toHours());
-            
-            // Kiểm tra: trùng giờ (cùng hour) hoặc cách nhau < 1 tiếng
-            if (appointment.getTimeStart().getHour() == startTime.getHour() || hoursDiff < 1) {
-                return false;
+        return appointmentCalendarIndex.isVetAvailable(vetId, startTime, null);
+    }
+
+    /**
+     * First {@code limit} free slots in [from, to) across all vets (optionally one specialization),
+     * ordered by start time then vet id. Served from the calendar index bitmaps.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailableSlotDTO> findAvailableSlots(
+        ZonedDateTime from,
+        ZonedDateTime to,
+        String appointmentType,
+        String specialization,
+        int limit
+    ) {
+        LOG.debug("Request to find available slots from {} to {} type {} specialization {}", from, to, appointmentType, specialization);
+        String type = appointmentType == null || appointmentType.isBlank() ? "NORMAL" : appointmentType;
+        if (!"EMERGENCY".equals(type) && !"NORMAL".equals(type)) {
+            throw new BadRequestAlertException("Invalid appointment type", "appointment", "invalidtype");
+        }
+        if (!to.isAfter(from)) {
+            throw new BadRequestAlertException("'to' must be after 'from'", "appointment", "invalidrange");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(clinicProperties.getMaxSlotSearchDays())) > 0) {
+            throw new BadRequestAlertException(
+                "Search range must not exceed " + clinicProperties.getMaxSlotSearchDays() + " days",
+                "appointment",
+                "rangetoolarge"
+            );
+        }
+
+        List<VetRepository.SlotVet> vets = appointmentCalendarIndex
+            .vetRoster()
+            .stream()
+            .filter(vet -> specialization == null || specialization.isBlank() || specialization.equalsIgnoreCase(vet.getSpecialization()))
+            .toList();
+        List<AvailableSlotDTO> result = new ArrayList<>();
+        if (vets.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        // Không trả về slot trong quá khứ
+        ZonedDateTime now = ZonedDateTime.now();
+        long firstSlot = AppointmentCalendarIndex.slotAtOrAfter(from.isBefore(now) ? now : from);
+        long endSlot = AppointmentCalendarIndex.slotAtOrAfter(to);
+        boolean emergency = "EMERGENCY".equals(type);
+        int durationMinutes = emergency ? 120 : 60;
+        int openingMinute = clinicProperties.getOpeningTime().toSecondOfDay() / 60;
+        int closingMinute = clinicProperties.getClosingTime().toSecondOfDay() / 60;
+        ZoneId zone = clinicProperties.getZoneId();
+
+        BitSet[] busyByVet = new BitSet[vets.size()];
+        long loadedDay = Long.MIN_VALUE;
+        for (long slot = firstSlot; slot < endSlot; slot++) {
+            ZonedDateTime start = AppointmentCalendarIndex.fromEpochMinute(slot * AppointmentCalendarIndex.SLOT_MINUTES)
+                .withZoneSameInstant(zone);
+            if (!emergency) {
+                int minuteOfDay = start.getHour() * 60 + start.getMinute();
+                if (minuteOfDay < openingMinute || minuteOfDay + durationMinutes > closingMinute) {
+                    continue;
+                }
+            }
+            long day = Math.floorDiv(slot, AppointmentCalendarIndex.SLOTS_PER_DAY);
+            if (day != loadedDay) {
+                Arrays.fill(busyByVet, null);
+                loadedDay = day;
+            }
+            int slotOfDay = (int) (slot - day * AppointmentCalendarIndex.SLOTS_PER_DAY);
+            for (int i = 0; i < vets.size(); i++) {
+                VetRepository.SlotVet vet = vets.get(i);
+                if (busyByVet[i] == null) {
+                    busyByVet[i] = appointmentCalendarIndex.vetBusySlots(vet.getId(), day);
+                }
+                if (busyByVet[i].get(slotOfDay)) {
+                    continue;
+                }
+                AvailableSlotDTO dto = new AvailableSlotDTO();
+                dto.setVetId(vet.getId());
+                dto.setVetFirstName(vet.getFirstName());
+                dto.setVetLastName(vet.getLastName());
+                dto.setSpecialization(vet.getSpecialization());
+                dto.setTimeStart(start);
+                dto.setTimeEnd(start.plusMinutes(durationMinutes));
+                result.add(dto);
+                if (result.size() >= limit) {
+                    return result;
+                }
             }
         }
-        
-        return true;
+        return result;
+    }
+
+    private ZonedDateTime startOfDay(LocalDate date) {
+        return date.atStartOfDay(clinicProperties.getZoneId());
     }
 
     private LocalDate parseDate(String dateString) {
         if (dateString == null || dateString.trim().isEmpty()) {
-            return LocalDate.now();
+            return LocalDate.now(clinicProperties.getZoneId());
         }
         
         try {
@@ -0,0 +1,71 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.domain.Appointment;
+import com.docpet.animalhospital.repository.AppointmentSlotRepository;
+import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
+import java.time.ZonedDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Holds the appointment_slot rows of an appointment in step with its vet, start time and status.
+ * Must run in the same transaction as the appointment save so that a lost race rolls the booking back.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class AppointmentSlotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentSlotService.class);
+
+    private static final long SLOT_SECONDS = AppointmentCalendarIndex.SLOT_MINUTES * 60L;
+    private static final long GAP_SECONDS = AppointmentCalendarIndex.MIN_GAP_MINUTES * 60L;
+
+    private final AppointmentSlotRepository appointmentSlotRepository;
+
+    public AppointmentSlotService(AppointmentSlotRepository appointmentSlotRepository) {
+        this.appointmentSlotRepository = appointmentSlotRepository;
+    }
+
+    /**
+     * Releases the slots currently held by the appointment and, if it is still active, claims
+     * the slots covering [timeStart, timeStart + 60 min) for its vet.
+     */
+    public void claim(Appointment appointment) {
+        if (appointment == null || appointment.getId() == null) {
+            return;
+        }
+        appointmentSlotRepository.releaseByAppointmentId(appointment.getId());
+        if (
+            appointment.getVet() == null ||
+            appointment.getTimeStart() == null ||
+            !AppointmentCalendarIndex.isActiveAppointmentStatus(appointment.getStatus())
+        ) {
+            return;
+        }
+
+        long start = appointment.getTimeStart().toEpochSecond();
+        long firstSlot = Math.floorDiv(start, SLOT_SECONDS);
+        long endSlot = -Math.floorDiv(-(start + GAP_SECONDS), SLOT_SECONDS);
+        ZonedDateTime firstSlotStart = AppointmentCalendarIndex.fromEpochMinute(firstSlot * AppointmentCalendarIndex.SLOT_MINUTES);
+        try {
+            appointmentSlotRepository.claimSlots(appointment.getId(), firstSlotStart, (int) (endSlot - firstSlot));
+        } catch (DataIntegrityViolationException e) {
+            LOG.debug("Slot conflict for vet {} at {}: {}", appointment.getVet().getId(), appointment.getTimeStart(), e.getMessage());
+            throw new BadRequestAlertException(
+                "Vet không có sẵn trong khoảng thời gian này. Vui lòng chọn vet khác hoặc thời gian khác (cách nhau ít nhất 1 tiếng).",
+                "appointment",
+                "vetnotavailable"
+            );
+        }
+    }
+
+    public void release(Long appointmentId) {
+        if (appointmentId != null) {
+            appointmentSlotRepository.releaseByAppointmentId(appointmentId);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.domain.Appointment;
+import com.docpet.animalhospital.domain.OutboxEvent;
+import com.docpet.animalhospital.repository.AppointmentRepository;
+import com.docpet.animalhospital.service.dto.AppointmentActionDTO;
+import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Vet workflow changes that notify the owner. The change, its appointment action and the outbox
+ * event for the notification are committed together; the message itself is sent by
+ * {@link OutboxDispatcher}.
+ */
+@Service
+@Transactional
+public class AppointmentWorkflowService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentWorkflowService.class);
+
+    private static final String ENTITY_NAME = "appointment";
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final AppointmentActionService appointmentActionService;
+    private final OutboxService outboxService;
+    private final ProfileIdCache profileIdCache;
+
+    public AppointmentWorkflowService(
+        AppointmentRepository appointmentRepository,
+        AppointmentService appointmentService,
+        AppointmentActionService appointmentActionService,
+        OutboxService outboxService,
+        ProfileIdCache profileIdCache
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentService = appointmentService;
+        this.appointmentActionService = appointmentActionService;
+        this.outboxService = outboxService;
+        this.profileIdCache = profileIdCache;
+    }
+
+    public Appointment reschedule(Long id, ZonedDateTime newTimeStart, String notes, String currentUserLogin) {
+        LOG.debug("Request to reschedule appointment: {}", id);
+
+        // Load appointment entity với eager loading để giữ nguyên pet, vet, owner
+        Appointment appointment = appointmentRepository.findOneWithEagerRelationships(id)
+            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", ENTITY_NAME, "notfound"));
+
+        // Lưu lại thông tin gốc của appointment trước khi thay đổi
+        ZonedDateTime originalTimeStart = appointment.getTimeStart();
+        ZonedDateTime originalTimeEnd = appointment.getTimeEnd();
+        String appointmentType = appointment.getAppointmentType();
+
+        // Chỉ thay đổi thời gian bắt đầu
+        appointment.setTimeStart(newTimeStart);
+
+        // Tự động tính endTime dựa trên thời lượng của appointment gốc
+        if (originalTimeStart != null && originalTimeEnd != null) {
+            // Giữ nguyên thời lượng, chỉ thay đổi thời gian bắt đầu
+            Duration duration = Duration.between(originalTimeStart, originalTimeEnd);
+            appointment.setTimeEnd(newTimeStart.plus(duration));
+        } else {
+            // Nếu appointment gốc không có timeEnd, tính dựa trên appointmentType
+            // EMERGENCY: 2 giờ, NORMAL: 1 giờ
+            int durationHours = "EMERGENCY".equals(appointmentType) ? 2 : 1;
+            appointment.setTimeEnd(newTimeStart.plusHours(durationHours));
+        }
+
+        appointment.setStatus("RESCHEDULED");
+
+        // Thêm ghi chú vào appointment nếu có
+        if (notes != null && !notes.trim().isEmpty()) {
+            String currentNotes = appointment.getNotes();
+            if (currentNotes != null && !currentNotes.trim().isEmpty()) {
+                // Thêm ghi chú mới vào cuối, cách nhau bởi 2 dòng mới để tách biệt rõ ràng
+                appointment.setNotes(currentNotes + "\n\n[Đổi lịch] " + notes);
+            } else {
+                // Nếu chưa có ghi chú, thêm mới
+                appointment.setNotes("[Đổi lịch] " + notes);
+            }
+        }
+
+        // Save appointment (giữ nguyên pet, vet, owner) và chuyển slot đã giữ sang giờ mới
+        appointment = appointmentService.saveAppointment(appointment);
+
+        // Tạo appointment action
+        appointmentActionService.createAppointmentAction(id, "RESCHEDULE", "COMPLETED", "Appointment rescheduled", notes, currentUserLogin, null);
+
+        // Thông báo đổi lịch cho owner (gửi sau commit qua outbox)
+        outboxService.enqueue(
+            OutboxEvent.TYPE_APPOINTMENT_RESCHEDULED,
+            id,
+            new OutboxService.WorkflowNotification(senderUserId(currentUserLogin), appointment.getTimeStart(), appointment.getTimeEnd(), notes)
+        );
+        return appointment;
+    }
+
+    public AppointmentActionDTO requestHomeVisit(Long id, String notes, String currentUserLogin) {
+        LOG.debug("Request to request home visit for appointment: {}", id);
+
+        // Load appointment với eager loading để giữ nguyên pet, vet, owner
+        Appointment appointment = appointmentRepository.findOneWithEagerRelationships(id)
+            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", ENTITY_NAME, "notfound"));
+
+        // Chỉ update locationType, giữ nguyên các relationships
+        appointment.setLocationType("AT_HOME");
+        appointmentRepository.save(appointment);
+
+        AppointmentActionDTO actionDTO = appointmentActionService.createAppointmentAction(
+            id,
+            "REQUEST_HOME_VISIT",
+            "PENDING",
+            "Home visit requested",
+            notes,
+            currentUserLogin,
+            null
+        );
+
+        // Thông báo yêu cầu khám tại nhà cho owner (gửi sau commit qua outbox)
+        outboxService.enqueue(
+            OutboxEvent.TYPE_HOME_VISIT_REQUESTED,
+            id,
+            new OutboxService.WorkflowNotification(senderUserId(currentUserLogin), null, null, notes)
+        );
+        return actionDTO;
+    }
+
+    private Long senderUserId(String currentUserLogin) {
+        return profileIdCache.currentUserId(currentUserLogin)
+            .orElseThrow(() -> new BadRequestAlertException("User not found", ENTITY_NAME, "usernotfound"));
+    }
+}
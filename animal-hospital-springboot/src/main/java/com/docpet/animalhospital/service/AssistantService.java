@@ -1,6 +1,7 @@
 package com.docpet.animalhospital.service;
 
 import com.docpet.animalhospital.domain.Assistant;
+import com.docpet.animalhospital.domain.User;
 import com.docpet.animalhospital.repository.AssistantRepository;
 import com.docpet.animalhospital.repository.UserRepository;
 import com.docpet.animalhospital.service.dto.AssistantDTO;
@@ -25,11 +26,24 @@ public class AssistantService {
     private final AssistantRepository assistantRepository;
     private final AssistantMapper assistantMapper;
     private final UserRepository userRepository;
+    private final ProfileIdCache profileIdCache;
+    private final AppointmentAccessCache appointmentAccessCache;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AssistantService(AssistantRepository assistantRepository, AssistantMapper assistantMapper, UserRepository userRepository) {
+    public AssistantService(
+        AssistantRepository assistantRepository,
+        AssistantMapper assistantMapper,
+        UserRepository userRepository,
+        ProfileIdCache profileIdCache,
+        AppointmentAccessCache appointmentAccessCache,
+        TokenRevocationService tokenRevocationService
+    ) {
         this.assistantRepository = assistantRepository;
         this.assistantMapper = assistantMapper;
         this.userRepository = userRepository;
+        this.profileIdCache = profileIdCache;
+        this.appointmentAccessCache = appointmentAccessCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public AssistantDTO save(AssistantDTO assistantDTO) {
@@ -40,6 +54,7 @@ public class AssistantService {
             userRepository.findById(assistantDTO.getUserId()).ifPresent(assistant::setUser);
         }
         assistant = assistantRepository.save(assistant);
+        profileIdCache.assistantsChanged();
         return assistantMapper.toDto(assistant);
     }
 
@@ -50,7 +65,13 @@ public class AssistantService {
 
         // Update user if userId is provided
         if (assistantDTO.getUserId() != null) {
+            User previousUser = existingAssistant.getUser();
+            if (previousUser != null && !previousUser.getId().equals(assistantDTO.getUserId())) {
+                revokeProfileClaims(previousUser);
+            }
             userRepository.findById(assistantDTO.getUserId()).ifPresent(existingAssistant::setUser);
+            profileIdCache.assistantsChanged();
+            appointmentAccessCache.profilesChanged();
         }
         // No other fields in Assistant entity currently, but can be added here
         existingAssistant = assistantRepository.save(existingAssistant);
@@ -71,7 +92,16 @@ public class AssistantService {
 
     public void delete(Long id) {
         LOG.debug("Request to delete Assistant : {}", id);
+        assistantRepository.findById(id).ifPresent(assistant -> revokeProfileClaims(assistant.getUser()));
         assistantRepository.deleteById(id);
+        profileIdCache.assistantsChanged();
+    }
+
+    // Token của user này vẫn mang assistantId cũ trong claim; thu hồi để claim cũ không còn được dùng
+    private void revokeProfileClaims(User user) {
+        if (user != null && user.getId() != null) {
+            tokenRevocationService.revokeUser(user.getId());
+        }
     }
 }
 
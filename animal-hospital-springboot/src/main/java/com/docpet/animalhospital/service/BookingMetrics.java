@@ -0,0 +1,71 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.config.ClinicProperties;
+import com.docpet.animalhospital.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Booking gauges, refreshed every {@link #REFRESH_SECONDS} seconds with two count queries (not on
+ * every scrape): {@code appointments.pending.today} (PENDING appointments starting today, clinic
+ * time zone) and {@code appointments.emergency.queue} (today's EMERGENCY appointments that are not
+ * yet completed, rejected or cancelled).
+ */
+@Component
+public class BookingMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookingMetrics.class);
+
+    private static final long REFRESH_SECONDS = 30;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ClinicProperties clinicProperties;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong pendingToday = new AtomicLong();
+    private final AtomicLong emergencyQueue = new AtomicLong();
+
+    public BookingMetrics(AppointmentRepository appointmentRepository, ClinicProperties clinicProperties, MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.clinicProperties = clinicProperties;
+        Gauge.builder("appointments.pending.today", pendingToday, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("appointments.emergency.queue", emergencyQueue, AtomicLong::get).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::refresh, 0, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void refresh() {
+        try {
+            ZonedDateTime dayStart = LocalDate.now(clinicProperties.getZoneId()).atStartOfDay(clinicProperties.getZoneId());
+            ZonedDateTime nextDayStart = dayStart.plusDays(1);
+            pendingToday.set(appointmentRepository.countByStatusAndDay("PENDING", dayStart, nextDayStart));
+            emergencyQueue.set(appointmentRepository.countOpenByAppointmentTypeAndDay("EMERGENCY", dayStart, nextDayStart));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not refresh booking metrics: {}", e.getMessage());
+        }
+    }
+}
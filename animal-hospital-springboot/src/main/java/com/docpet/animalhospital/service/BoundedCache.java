@@ -0,0 +1,103 @@
+package com.docpet.animalhospital.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through LRU map with a per-entry TTL, shared by the small lookup caches in this package.
+ * A {@code null} from the loader ("not found") is cached like any other value.
+ * <p>
+ * Metrics: {@code cache.gets{cache=<name>, result=hit|miss}} and {@code cache.size{cache=<name>}}.
+ */
+final class BoundedCache<K, V> {
+
+    private final Function<K, V> loader;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<K, Entry<V>> entries;
+
+    // Tăng mỗi lần evict/clear; kết quả load bắt đầu trước đó sẽ không được ghi vào cache
+    private long generation;
+
+    BoundedCache(String name, int maxEntries, long ttlMillis, Function<K, V> loader, MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", this, BoundedCache::size).tag("cache", name).register(meterRegistry);
+    }
+
+    Optional<V> get(K key) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt() <= ttlMillis) {
+                hits.increment();
+                return Optional.ofNullable(entry.value());
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        // Query ngoài lock
+        V value = loader.apply(key);
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry<>(value, now));
+            }
+        }
+        return Optional.ofNullable(value);
+    }
+
+    synchronized void evict(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    // Ghi DB chỉ có hiệu lực sau commit; evict sớm hơn thì request khác có thể load lại dữ liệu cũ
+    void evictAfterCommit(K key) {
+        afterCommit(() -> evict(key));
+    }
+
+    void clearAfterCommit() {
+        afterCommit(this::clear);
+    }
+
+    synchronized double size() {
+        return entries.size();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+}
@@ -1,31 +1,189 @@
 package com.docpet.animalhospital.service;
 
+import com.docpet.animalhospital.config.MailProperties;
 import com.docpet.animalhospital.domain.User;
+import com.docpet.animalhospital.service.mail.MailMessage;
+import com.docpet.animalhospital.service.mail.MailTemplates;
+import com.docpet.animalhospital.service.mail.MailTransport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * Sends emails in the background. Callers only render a template and put the email on a bounded
+ * queue; worker threads drain it in batches, one {@link MailTransport} session per batch, so a slow
+ * mail server never adds to request latency. When the queue is full the email is rejected rather
+ * than blocking the caller.
+ * <p>
+ * A failed batch is retried a few times with a short pause, then dropped and counted.
+ * <p>
+ * Metrics: {@code mail.queue.size}, {@code mail.send} (transport time per batch),
+ * {@code mail.sent} and {@code mail.failed{reason=queue_full|transport}}.
+ */
 @Service
 public class MailService {
 
     private static final Logger log = LoggerFactory.getLogger(MailService.class);
 
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private final MailTransport mailTransport;
+    private final MailTemplates mailTemplates;
+    private final MailProperties mailProperties;
+
+    private final BlockingQueue<MailMessage> queue;
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    private final Timer sendTimer;
+    private final Counter sent;
+    private final Counter queueFull;
+    private final Counter transportFailed;
+
+    public MailService(MailTransport mailTransport, MailTemplates mailTemplates, MailProperties mailProperties, MeterRegistry meterRegistry) {
+        this.mailTransport = mailTransport;
+        this.mailTemplates = mailTemplates;
+        this.mailProperties = mailProperties;
+        this.queue = new ArrayBlockingQueue<>(mailProperties.getQueueCapacity());
+        Gauge.builder("mail.queue.size", queue, Collection::size).register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send").register(meterRegistry);
+        this.sent = Counter.builder("mail.sent").register(meterRegistry);
+        this.queueFull = Counter.builder("mail.failed").tag("reason", "queue_full").register(meterRegistry);
+        this.transportFailed = Counter.builder("mail.failed").tag("reason", "transport").register(meterRegistry);
+
+        AtomicInteger index = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(mailProperties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < mailProperties.getWorkers(); i++) {
+            workers.execute(this::work);
+        }
+    }
+
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        // In a real application, you would send an email here
-        // For now, just log it
+        enqueue(user, MailTemplates.PASSWORD_RESET, Map.of("resetUrl", mailProperties.getBaseUrl() + "/reset-password?key=" + user.getResetKey()), null);
     }
 
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        // In a real application, you would send an email here
-        // For now, just log it
+        enqueue(user, MailTemplates.ACTIVATION, Map.of("activationUrl", mailProperties.getBaseUrl() + "/activate?key=" + user.getActivationKey()), null);
+    }
+
+    /**
+     * Appointment notification to the owner. {@code messageKey} identifies the notification
+     * (sent as Message-ID), so a redelivered notification can be recognised as a duplicate.
+     * Throws {@link IllegalStateException} when the queue is full, so the caller can retry later.
+     */
+    public void sendAppointmentNotification(User user, String subject, String content, String messageKey) {
+        log.debug("Sending appointment notification '{}' ({}) to '{}'", subject, messageKey, user.getEmail());
+        if (!enqueue(user, MailTemplates.APPOINTMENT_NOTIFICATION, Map.of("subject", subject, "content", content), messageKey)) {
+            throw new IllegalStateException("Mail queue is full");
+        }
     }
 
     public void sendWelcomeEmail(User user) {
         log.debug("Sending welcome email to '{}'", user.getEmail());
-        // In a real application, you would send an email here
-        // For now, just log it
+        enqueue(user, MailTemplates.WELCOME, Map.of(), null);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Gửi nốt email đang chờ trong thời gian cho phép
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+            log.warn("Mail service stopped with {} unsent email(s)", queue.size());
+        }
+    }
+
+    private boolean enqueue(User user, String template, Map<String, String> variables, String messageKey) {
+        if (user.getEmail() == null) {
+            log.debug("User '{}' has no email, skipping", user.getLogin());
+            return true;
+        }
+        Map<String, String> values = new HashMap<>(variables);
+        values.put("login", user.getLogin());
+        values.put("name", user.getFirstName() != null ? user.getFirstName() : user.getLogin());
+        values.put("baseUrl", mailProperties.getBaseUrl());
+        MailTemplates.Rendered rendered = mailTemplates.render(template, values);
+        MailMessage message = new MailMessage(
+            mailProperties.getFrom(),
+            user.getEmail(),
+            rendered.subject(),
+            rendered.content(),
+            messageKey != null ? messageKey : template + "-" + UUID.randomUUID()
+        );
+        if (!running || !queue.offer(message)) {
+            queueFull.increment();
+            log.warn("Mail queue is full, email '{}' to '{}' rejected", message.subject(), message.to());
+            return false;
+        }
+        return true;
     }
-}
 
+    // Vòng lặp của mỗi worker: lấy một email, gom thêm tới batchSize rồi gửi trong một phiên
+    private void work() {
+        List<MailMessage> batch = new ArrayList<>(mailProperties.getBatchSize());
+        try {
+            while (true) {
+                MailMessage first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, mailProperties.getBatchSize() - 1);
+                deliver(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(List<MailMessage> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            Timer.Sample sample = Timer.start();
+            try {
+                mailTransport.send(batch);
+                sample.stop(sendTimer);
+                sent.increment(batch.size());
+                return;
+            } catch (Exception e) {
+                sample.stop(sendTimer);
+                if (attempt >= MAX_ATTEMPTS) {
+                    transportFailed.increment(batch.size());
+                    log.warn("Failed to send {} email(s) after {} attempts: {}", batch.size(), attempt, e.getMessage());
+                    return;
+                }
+                log.debug("Failed to send {} email(s), attempt {}: {}", batch.size(), attempt, e.getMessage());
+                Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.config.ClinicProperties;
+import com.docpet.animalhospital.domain.OutboxEvent;
+import com.docpet.animalhospital.repository.OutboxEventRepository;
+import com.docpet.animalhospital.repository.UserRepository;
+import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Delivers {@link OutboxEvent}s in the background: polls for due events in batches (and right after
+ * a workflow commit), turns each one into an appointment message plus an email to the owner, and
+ * marks it done in its own transaction. The email is handed to {@link MailService} only after that
+ * transaction commits, so a rollback never sends anything.
+ * <p>
+ * Delivery is at least once. An event is claimed with a lease before it is handled, so a crash
+ * mid-way only delays it; the message insert is idempotent on the event id and the email carries
+ * the event id as its message key. Failures are retried with exponential backoff up to
+ * {@link #MAX_ATTEMPTS} times; invalid events fail at once and stay in the table as FAILED.
+ * <p>
+ * Metrics: {@code outbox.lag} (age of the oldest pending event, seconds), {@code outbox.pending}
+ * and {@code outbox.dispatched{result=done|retry|failed}}.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int BATCH_SIZE = 50;
+    private static final long POLL_SECONDS = 5;
+    private static final Duration LEASE = Duration.ofMinutes(2);
+    private static final int MAX_ATTEMPTS = 10;
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+    private static final Duration RETENTION = Duration.ofDays(7);
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final AppointmentMessageService appointmentMessageService;
+    private final AppointmentAccessCache appointmentAccessCache;
+    private final UserRepository userRepository;
+    private final MailService mailService;
+    private final ClinicProperties clinicProperties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate failureTransaction;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter done;
+    private final Counter retried;
+    private final Counter failed;
+    private Instant lastPurge = Instant.EPOCH;
+
+    public OutboxDispatcher(
+        OutboxEventRepository outboxEventRepository,
+        AppointmentMessageService appointmentMessageService,
+        AppointmentAccessCache appointmentAccessCache,
+        UserRepository userRepository,
+        MailService mailService,
+        ClinicProperties clinicProperties,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.appointmentMessageService = appointmentMessageService;
+        this.appointmentAccessCache = appointmentAccessCache;
+        this.userRepository = userRepository;
+        this.mailService = mailService;
+        this.clinicProperties = clinicProperties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Transaction riêng: recordFailure cũng chạy trong afterCommit, khi transaction cũ vẫn còn bind vào thread
+        this.failureTransaction = new TransactionTemplate(transactionManager);
+        this.failureTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("outbox.lag", lagSeconds, AtomicLong::get).baseUnit("seconds").register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        this.done = Counter.builder("outbox.dispatched").tag("result", "done").register(meterRegistry);
+        this.retried = Counter.builder("outbox.dispatched").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("outbox.dispatched").tag("result", "failed").register(meterRegistry);
+    }
+
+    // Bắt đầu poll khi schema và dữ liệu đã sẵn sàng
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::dispatch, 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Dispatches soon, without waiting for the next poll. Called after a workflow commit. */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    wakeUpPending.set(false);
+                    dispatch();
+                });
+            } catch (RuntimeException e) {
+                wakeUpPending.set(false);
+                LOG.debug("Outbox dispatcher is shut down, event stays for the next start");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Chỉ chạy trên thread của executor
+    private void dispatch() {
+        try {
+            List<Long> ids;
+            do {
+                Instant now = Instant.now();
+                ids = transactionTemplate.execute(status -> outboxEventRepository.findDueIds(now, PageRequest.of(0, BATCH_SIZE)));
+                for (Long id : ids) {
+                    process(id);
+                }
+            } while (ids.size() == BATCH_SIZE && !Thread.currentThread().isInterrupted());
+            updateMetrics();
+            purgeDone();
+        } catch (RuntimeException e) {
+            LOG.warn("Outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    private void process(Long id) {
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(status -> outboxEventRepository.claim(id, now.plus(LEASE), now));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+                Runnable mail = handle(event);
+                event.setStatus(OutboxEvent.STATUS_DONE);
+                event.setProcessedAt(Instant.now());
+                event.setLastError(null);
+                // Email chỉ vào hàng đợi sau khi commit: rollback (hoặc lease hết hạn) không gửi gì
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        sendMail(id, mail);
+                    }
+                });
+            });
+        } catch (RuntimeException e) {
+            recordFailure(id, e);
+        }
+    }
+
+    private void sendMail(Long id, Runnable mail) {
+        try {
+            mail.run();
+            done.increment();
+        } catch (RuntimeException e) {
+            // Hàng đợi mail đầy: mở lại event, lần sau gửi lại (message đã có thì không insert lại)
+            recordFailure(id, e);
+        }
+    }
+
+    /** Adds the appointment message and returns the email to the owner, to hand over after commit. */
+    private Runnable handle(OutboxEvent event) {
+        OutboxService.WorkflowNotification notification = readPayload(event);
+        String text;
+        String subject;
+        switch (event.getEventType()) {
+            case OutboxEvent.TYPE_APPOINTMENT_RESCHEDULED -> {
+                text = rescheduledText(notification);
+                subject = "Lịch hẹn đã được đổi lịch";
+            }
+            case OutboxEvent.TYPE_HOME_VISIT_REQUESTED -> {
+                text = homeVisitText(notification);
+                subject = "Yêu cầu thăm khám tại nhà";
+            }
+            default -> throw new IllegalArgumentException("Unknown outbox event type " + event.getEventType());
+        }
+
+        // Insert message bỏ qua nếu event này đã được xử lý (lần trước lỗi sau khi commit)
+        appointmentMessageService.createNotification(event.getAppointmentId(), notification.senderUserId(), text, event.getId());
+
+        String messageKey = "outbox-" + event.getId();
+        return appointmentAccessCache.appointment(event.getAppointmentId())
+            .map(AppointmentAccessCache.AppointmentAccess::ownerUserId)
+            .flatMap(userRepository::findById)
+            .filter(owner -> owner.getEmail() != null)
+            .<Runnable>map(owner -> () -> mailService.sendAppointmentNotification(owner, subject, text, messageKey))
+            .orElse(() -> {});
+    }
+
+    private void recordFailure(Long id, RuntimeException error) {
+        // Dữ liệu không hợp lệ (không phải lỗi tạm thời): thử lại cũng không thành công
+        boolean permanent = error instanceof BadRequestAlertException || error instanceof IllegalArgumentException;
+        try {
+            failureTransaction.executeWithoutResult(status -> outboxEventRepository.findById(id).ifPresent(event -> {
+                String message = String.valueOf(error.getMessage());
+                event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                if (permanent || event.getAttempts() >= MAX_ATTEMPTS) {
+                    event.setStatus(OutboxEvent.STATUS_FAILED);
+                    failed.increment();
+                    LOG.warn("Outbox event {} failed after {} attempt(s): {}", id, event.getAttempts(), message);
+                } else {
+                    // Cũng mở lại event đã DONE khi email không vào được hàng đợi sau commit
+                    event.setStatus(OutboxEvent.STATUS_PENDING);
+                    event.setProcessedAt(null);
+                    event.setAvailableAt(Instant.now().plus(backoff(event.getAttempts())));
+                    retried.increment();
+                    LOG.debug("Outbox event {} failed (attempt {}), retrying: {}", id, event.getAttempts(), message);
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Lease hết hạn thì event được thử lại
+            LOG.warn("Could not record failure of outbox event {}: {}", id, e.getMessage());
+        }
+    }
+
+    private static Duration backoff(int attempts) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private void updateMetrics() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toSeconds()));
+            pending.set(outboxEventRepository.countByStatus(OutboxEvent.STATUS_PENDING));
+        });
+    }
+
+    private void purgeDone() {
+        Instant now = Instant.now();
+        if (now.isBefore(lastPurge.plus(PURGE_INTERVAL))) {
+            return;
+        }
+        lastPurge = now;
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteDoneBefore(now.minus(RETENTION)));
+        if (deleted != null && deleted > 0) {
+            LOG.debug("Purged {} delivered outbox event(s)", deleted);
+        }
+    }
+
+    private OutboxService.WorkflowNotification readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), OutboxService.WorkflowNotification.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid outbox payload: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private String rescheduledText(OutboxService.WorkflowNotification notification) {
+        StringBuilder messageBuilder = new StringBuilder();
+        messageBuilder.append("Lịch hẹn của bạn đã được đổi lịch.\n");
+        messageBuilder.append("Thời gian mới: ").append(format(notification.timeStart()));
+        if (notification.timeEnd() != null) {
+            messageBuilder.append(" - ").append(format(notification.timeEnd()));
+        }
+        appendNotes(messageBuilder, notification.notes());
+        return messageBuilder.toString();
+    }
+
+    private static String homeVisitText(OutboxService.WorkflowNotification notification) {
+        StringBuilder messageBuilder = new StringBuilder("Bác sĩ đã yêu cầu thăm khám tại nhà cho lịch hẹn này.");
+        appendNotes(messageBuilder, notification.notes());
+        return messageBuilder.toString();
+    }
+
+    private static void appendNotes(StringBuilder messageBuilder, String notes) {
+        if (notes != null && !notes.trim().isEmpty()) {
+            messageBuilder.append("\nGhi chú: ").append(notes);
+        }
+    }
+
+    // Payload lưu theo UTC; hiển thị theo giờ phòng khám
+    private String format(ZonedDateTime time) {
+        return time.withZoneSameInstant(clinicProperties.getZoneId()).format(TIME_FORMAT);
+    }
+}
@@ -0,0 +1,71 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.domain.OutboxEvent;
+import com.docpet.animalhospital.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes outbox events. Must be called inside the transaction of the workflow change, so the event
+ * exists exactly when the change is committed; {@link OutboxDispatcher} delivers it afterwards.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, OutboxDispatcher outboxDispatcher, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    public OutboxEvent enqueue(String eventType, Long appointmentId, Object payload) {
+        LOG.debug("Request to enqueue outbox event {} for appointment: {}", eventType, appointmentId);
+        Instant now = Instant.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAppointmentId(appointmentId);
+        event.setPayload(toJson(payload));
+        event.setCreatedAt(now);
+        event.setAvailableAt(now);
+        event = outboxEventRepository.save(event);
+
+        // Không chờ tới lần poll tiếp theo
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+        return event;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+
+    /**
+     * Payload of {@link OutboxEvent#TYPE_APPOINTMENT_RESCHEDULED} and
+     * {@link OutboxEvent#TYPE_HOME_VISIT_REQUESTED}: a message from the vet to the owner.
+     */
+    public record WorkflowNotification(Long senderUserId, ZonedDateTime timeStart, ZonedDateTime timeEnd, String notes) {}
+}
@@ -26,11 +26,24 @@ public class OwnerService {
     private final OwnerRepository ownerRepository;
     private final OwnerMapper ownerMapper;
     private final UserRepository userRepository;
+    private final ProfileIdCache profileIdCache;
+    private final AppointmentAccessCache appointmentAccessCache;
+    private final TokenRevocationService tokenRevocationService;
 
-    public OwnerService(OwnerRepository ownerRepository, OwnerMapper ownerMapper, UserRepository userRepository) {
+    public OwnerService(
+        OwnerRepository ownerRepository,
+        OwnerMapper ownerMapper,
+        UserRepository userRepository,
+        ProfileIdCache profileIdCache,
+        AppointmentAccessCache appointmentAccessCache,
+        TokenRevocationService tokenRevocationService
+    ) {
         this.ownerRepository = ownerRepository;
         this.ownerMapper = ownerMapper;
         this.userRepository = userRepository;
+        this.profileIdCache = profileIdCache;
+        this.appointmentAccessCache = appointmentAccessCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public OwnerDTO save(OwnerDTO ownerDTO) {
@@ -69,7 +82,12 @@ public class OwnerService {
                         .filter(o -> !o.getId().equals(savedOwnerId))
                         .forEach(ownerRepository::delete);
                     LOG.warn("Deleted {} duplicate owners for user {}", duplicateOwners.size() - 1, currentUser.getLogin());
+                    // Token hiện tại có thể mang id của owner vừa bị xóa
+                    if (SecurityUtils.getCurrentOwnerId().filter(ownerId -> !ownerId.equals(savedOwnerId)).isPresent()) {
+                        revokeProfileClaims(currentUser);
+                    }
                 }
+                profileIdCache.loginChanged(currentUser.getLogin());
                 
                 return ownerMapper.toDto(owner);
             }
@@ -84,6 +102,7 @@ public class OwnerService {
         }
         
         owner = ownerRepository.save(owner);
+        profileIdCache.ownersChanged();
         return ownerMapper.toDto(owner);
     }
 
@@ -102,6 +121,8 @@ public class OwnerService {
         // Nếu owner chưa có user, tự động set user hiện tại
         if (existingOwner.getUser() == null && currentUser != null) {
             existingOwner.setUser(currentUser);
+            profileIdCache.loginChanged(currentUser.getLogin());
+            appointmentAccessCache.profilesChanged();
             LOG.debug("Set user {} to owner {}", currentUser.getLogin(), existingOwner.getId());
         } else if (existingOwner.getUser() == null && currentUser == null) {
             LOG.warn("Owner {} has no user and current user is also null. User will remain null.", existingOwner.getId());
@@ -168,7 +189,16 @@ public class OwnerService {
 
     public void delete(Long id) {
         LOG.debug("Request to delete Owner : {}", id);
+        ownerRepository.findById(id).ifPresent(owner -> revokeProfileClaims(owner.getUser()));
         ownerRepository.deleteById(id);
+        profileIdCache.ownersChanged();
+    }
+
+    // Token của user này vẫn mang ownerId cũ trong claim; thu hồi để claim cũ không còn được dùng
+    private void revokeProfileClaims(User user) {
+        if (user != null && user.getId() != null) {
+            tokenRevocationService.revokeUser(user.getId());
+        }
     }
 }
 
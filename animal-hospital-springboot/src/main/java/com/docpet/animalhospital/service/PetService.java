@@ -25,11 +25,18 @@ public class PetService {
     private final PetRepository petRepository;
     private final PetMapper petMapper;
     private final OwnerRepository ownerRepository;
+    private final AppointmentAccessCache appointmentAccessCache;
 
-    public PetService(PetRepository petRepository, PetMapper petMapper, OwnerRepository ownerRepository) {
+    public PetService(
+        PetRepository petRepository,
+        PetMapper petMapper,
+        OwnerRepository ownerRepository,
+        AppointmentAccessCache appointmentAccessCache
+    ) {
         this.petRepository = petRepository;
         this.petMapper = petMapper;
         this.ownerRepository = ownerRepository;
+        this.appointmentAccessCache = appointmentAccessCache;
     }
 
     public PetDTO save(PetDTO petDTO) {
@@ -45,6 +52,7 @@ public class PetService {
         }
 
         pet = petRepository.save(pet);
+        appointmentAccessCache.petChanged(pet.getId());
         
         // Load lại pet với owner để map đúng ownerId trong DTO
         Pet savedPet = petRepository.findByIdWithOwner(pet.getId())
@@ -57,6 +65,7 @@ public class PetService {
         LOG.debug("Request to update Pet : {}", petDTO);
         Pet pet = petMapper.toEntity(petDTO);
         pet = petRepository.save(pet);
+        appointmentAccessCache.petChanged(pet.getId());
         return petMapper.toDto(pet);
     }
 
@@ -113,6 +122,7 @@ public class PetService {
     public void delete(Long id) {
         LOG.debug("Request to delete Pet : {}", id);
         petRepository.deleteById(id);
+        appointmentAccessCache.petChanged(id);
     }
 }
 
@@ -0,0 +1,125 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.repository.AssistantRepository;
+import com.docpet.animalhospital.repository.OwnerRepository;
+import com.docpet.animalhospital.repository.UserRepository;
+import com.docpet.animalhospital.repository.VetRepository;
+import com.docpet.animalhospital.security.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Login -> User / Owner / Vet / Assistant id, so that resolving the caller's profile does not cost
+ * a query per request. Each kind is a {@link BoundedCache} of {@link #MAX_ENTRIES} entries with a
+ * TTL; "no profile" results are cached too. Writes that create, re-link or delete a profile evict
+ * the affected entries after the surrounding transaction commits.
+ * <p>
+ * Metrics: {@code cache.gets{cache=profileId.<kind>, result=hit|miss}} and {@code cache.size}.
+ */
+@Component
+public class ProfileIdCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final BoundedCache<String, Long> users;
+    private final BoundedCache<String, Long> owners;
+    private final BoundedCache<String, Long> vets;
+    private final BoundedCache<String, Long> assistants;
+
+    public ProfileIdCache(
+        UserRepository userRepository,
+        OwnerRepository ownerRepository,
+        VetRepository vetRepository,
+        AssistantRepository assistantRepository,
+        MeterRegistry meterRegistry
+    ) {
+        this.users = cache("user", login -> userRepository.findIdByLogin(login).orElse(null), meterRegistry);
+        this.owners = cache("owner", login -> first(ownerRepository.findIdsByUser_Login(login)), meterRegistry);
+        this.vets = cache("vet", login -> first(vetRepository.findIdsByUser_Login(login)), meterRegistry);
+        this.assistants = cache("assistant", login -> first(assistantRepository.findIdsByUser_Login(login)), meterRegistry);
+    }
+
+    public Optional<Long> userId(String login) {
+        return users.get(login);
+    }
+
+    public Optional<Long> ownerId(String login) {
+        return owners.get(login);
+    }
+
+    public Optional<Long> vetId(String login) {
+        return vets.get(login);
+    }
+
+    public Optional<Long> assistantId(String login) {
+        return assistants.get(login);
+    }
+
+    /**
+     * Like {@link #ownerId(String)}, but for the authenticated caller the token's {@code ownerId}
+     * claim is used when present. Tokens issued before the claim existed, or a profile created after
+     * login, fall back to the lookup. Deleting a profile or moving it to another user revokes the
+     * tokens of the user it belonged to ({@link TokenRevocationService#revokeUser}), so a claim is
+     * never used for a profile the caller no longer has.
+     */
+    public Optional<Long> currentOwnerId(String login) {
+        return claimed(login, SecurityUtils::getCurrentOwnerId).or(() -> ownerId(login));
+    }
+
+    public Optional<Long> currentVetId(String login) {
+        return claimed(login, SecurityUtils::getCurrentVetId).or(() -> vetId(login));
+    }
+
+    public Optional<Long> currentAssistantId(String login) {
+        return claimed(login, SecurityUtils::getCurrentAssistantId).or(() -> assistantId(login));
+    }
+
+    public Optional<Long> currentUserId(String login) {
+        return claimed(login, SecurityUtils::getCurrentUserId).or(() -> userId(login));
+    }
+
+    private static Optional<Long> claimed(String login, Supplier<Optional<Long>> claim) {
+        return SecurityUtils.getCurrentUserLogin().filter(current -> current.equals(login)).flatMap(current -> claim.get());
+    }
+
+    /**
+     * Profiles of one login were created or the user was deleted (registration, self-service owner
+     * profile, account removal).
+     */
+    public void loginChanged(String login) {
+        if (login == null) {
+            return;
+        }
+        users.evictAfterCommit(login);
+        owners.evictAfterCommit(login);
+        vets.evictAfterCommit(login);
+        assistants.evictAfterCommit(login);
+    }
+
+    // Admin CRUD có thể gắn profile sang user khác hoặc xóa theo id, không biết login nào bị ảnh hưởng
+    public void ownersChanged() {
+        owners.clearAfterCommit();
+    }
+
+    public void vetsChanged() {
+        vets.clearAfterCommit();
+    }
+
+    public void assistantsChanged() {
+        assistants.clearAfterCommit();
+    }
+
+    private static BoundedCache<String, Long> cache(String kind, Function<String, Long> loader, MeterRegistry meterRegistry) {
+        return new BoundedCache<>("profileId." + kind, MAX_ENTRIES, TTL_MILLIS, loader, meterRegistry);
+    }
+
+    // Login có nhiều profile (dữ liệu cũ bị trùng) thì lấy id nhỏ nhất như trước
+    private static Long first(List<Long> ids) {
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.docpet.animalhospital.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/** Deletes expired refresh tokens (used or not) in one statement every hour. */
+@Component
+public class RefreshTokenReaper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshTokenReaper.class);
+
+    private static final long INTERVAL_MINUTES = 60;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refresh-token-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RefreshTokenReaper(RefreshTokenService refreshTokenService) {
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::reap, 1, INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void reap() {
+        try {
+            int deleted = refreshTokenService.purgeExpired();
+            if (deleted > 0) {
+                LOG.debug("Deleted {} expired refresh token(s)", deleted);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not delete expired refresh tokens: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.config.JwtProperties;
+import com.docpet.animalhospital.domain.RefreshToken;
+import com.docpet.animalhospital.domain.User;
+import com.docpet.animalhospital.repository.RefreshTokenRepository;
+import com.docpet.animalhospital.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Issues and rotates refresh tokens. A refresh costs two indexed lookups (the token, then the
+ * user's {@code activated} flag and authorities in one query) and two small writes: no password
+ * hashing.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtProperties jwtProperties;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository, JwtProperties jwtProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtProperties = jwtProperties;
+    }
+
+    /** Starts a new token family after a password login and returns the raw token. */
+    public String create(Long userId, String login, String authorities, boolean rememberMe) {
+        LOG.debug("Request to create refresh token for user: {}", login);
+        String token = newToken();
+        RefreshToken refreshToken = build(token, userRepository.getReferenceById(userId), login, authorities, rememberMe);
+        refreshToken = refreshTokenRepository.save(refreshToken);
+        refreshToken.setFamilyId(refreshToken.getId());
+        return token;
+    }
+
+    /**
+     * Exchanges a refresh token for the next one of its family. A token that is unknown, expired or
+     * already used is rejected with {@link BadCredentialsException}; a used one also revokes its
+     * family, since either the client or an attacker holds a stolen copy. So does a token whose
+     * user has been deactivated or deleted. The next access token carries the user's current
+     * authorities, not the ones of the login that started the family.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = refreshTokenRepository.findOneByTokenHash(hash(token))
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (!now.isBefore(current.getExpiresAt())) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            LOG.warn("Refresh token reused for user {}, revoking token family {}", current.getLogin(), current.getFamilyId());
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            throw new BadCredentialsException("Refresh token already used");
+        }
+
+        Long userId = current.getUser().getId();
+        List<UserRepository.AccessRow> access = userRepository.findAccessById(userId);
+        if (access.isEmpty() || !Boolean.TRUE.equals(access.get(0).getActivated())) {
+            LOG.debug("Refresh token of inactive user {}, revoking token family {}", current.getLogin(), current.getFamilyId());
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            throw new BadCredentialsException("User is not activated");
+        }
+        String authorities = access.stream()
+            .map(UserRepository.AccessRow::getAuthority)
+            .filter(Objects::nonNull)
+            .sorted()
+            .collect(Collectors.joining(" "));
+
+        String next = newToken();
+        RefreshToken rotated = build(next, current.getUser(), current.getLogin(), authorities, current.isRememberMe());
+        rotated.setFamilyId(current.getFamilyId());
+        refreshTokenRepository.save(rotated);
+        return new Rotation(next, userId, current.getLogin(), authorities, current.isRememberMe());
+    }
+
+    /** Revokes the token family of {@code token} (logout). Unknown tokens are ignored. */
+    public void revoke(String token) {
+        refreshTokenRepository.findOneByTokenHash(hash(token)).ifPresent(current -> {
+            int deleted = refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            LOG.debug("Revoked {} refresh token(s) of family {}", deleted, current.getFamilyId());
+        });
+    }
+
+    /** Revokes every refresh token of the user (password changed or reset, user deleted). */
+    public void revokeAll(Long userId) {
+        int deleted = refreshTokenRepository.deleteByUserId(userId);
+        LOG.debug("Revoked {} refresh token(s) of user {}", deleted, userId);
+    }
+
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpiredBefore(Instant.now());
+    }
+
+    private RefreshToken build(String token, User user, String login, String authorities, boolean rememberMe) {
+        long validity = rememberMe
+            ? jwtProperties.getTokenValidityInSecondsForRememberMe()
+            : jwtProperties.getRefreshTokenValidityInSeconds();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUser(user);
+        refreshToken.setLogin(login);
+        refreshToken.setAuthorities(authorities);
+        refreshToken.setRememberMe(rememberMe);
+        refreshToken.setExpiresAt(Instant.now().plusSeconds(validity));
+        return refreshToken;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Result of a refresh: the next refresh token and the claims for the new access token. */
+    public record Rotation(String refreshToken, Long userId, String login, String authorities, boolean rememberMe) {}
+}
@@ -0,0 +1,239 @@
+package com.docpet.animalhospital.service;
+
+import com.docpet.animalhospital.config.JwtProperties;
+import com.docpet.animalhospital.domain.RevokedToken;
+import com.docpet.animalhospital.repository.RevokedTokenRepository;
+import com.docpet.animalhospital.security.AuthenticatedUser;
+import com.docpet.animalhospital.security.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Revoked access tokens. Revocations are stored in {@code revoked_token}; every request checks an
+ * in-memory {@link BloomFilter} of them first (a few hashes, no lock, no I/O) and only asks the
+ * database when the filter reports a possible match. Database answers are remembered until the
+ * next rebuild, so a false positive costs one query per token, not one per request.
+ * <p>
+ * The filter is rebuilt from the table every {@link #REBUILD_SECONDS} seconds, which also drops
+ * expired revocations and picks up revocations made on other nodes. Revocations made on this node
+ * are added to the live filter right after commit.
+ * <p>
+ * Metrics: {@code revocation.filter.checks}, {@code revocation.filter.hits{result=revoked|not_revoked|false_positive}}
+ * ({@code not_revoked}: the user has a revocation, but the token was issued after it),
+ * {@code revocation.filter.false_positive_rate} (false positives per check),
+ * {@code revocation.filter.expected_fpp} and {@code revocation.filter.entries}.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final long REBUILD_SECONDS = 30;
+    private static final int MIN_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final String JTI_KEY = "jti:";
+    private static final String USER_KEY = "user:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtProperties jwtProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Snapshot snapshot = new Snapshot(new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE));
+    // Thu hồi trên node này, thêm lại vào filter mới nếu commit trong lúc đang rebuild
+    private final Map<String, Instant> localKeys = new HashMap<>();
+
+    private final Counter checks;
+    private final Counter revoked;
+    private final Counter notRevoked;
+    private final Counter falsePositives;
+
+    public TokenRevocationService(
+        RevokedTokenRepository revokedTokenRepository,
+        JwtProperties jwtProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtProperties = jwtProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checks = Counter.builder("revocation.filter.checks").register(meterRegistry);
+        this.revoked = Counter.builder("revocation.filter.hits").tag("result", "revoked").register(meterRegistry);
+        this.notRevoked = Counter.builder("revocation.filter.hits").tag("result", "not_revoked").register(meterRegistry);
+        this.falsePositives = Counter.builder("revocation.filter.hits").tag("result", "false_positive").register(meterRegistry);
+        Gauge.builder("revocation.filter.false_positive_rate", this, s -> s.checks.count() == 0 ? 0 : s.falsePositives.count() / s.checks.count())
+            .register(meterRegistry);
+        Gauge.builder("revocation.filter.expected_fpp", this, s -> s.snapshot.filter().expectedFalsePositiveRate()).register(meterRegistry);
+        Gauge.builder("revocation.filter.entries", this, s -> s.snapshot.filter().entries()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Dựng filter lần đầu trước khi nhận request, sau đó định kỳ
+        rebuild();
+        executor.scheduleWithFixedDelay(this::rebuild, REBUILD_SECONDS, REBUILD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Revokes a single access token (logout). Nothing to do for tokens without {@code jti}. */
+    @Transactional
+    public void revokeToken(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !Instant.now().isBefore(expiresAt)) {
+            return;
+        }
+        LOG.debug("Request to revoke token: {}", jti);
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setJti(jti);
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(expiresAt);
+        revokedTokenRepository.save(revokedToken);
+        afterCommit(JTI_KEY + jti, () -> snapshot.jtiAnswers().put(jti, true));
+    }
+
+    /**
+     * Revokes every access token of the user issued up to now (password changed or reset, user
+     * deleted). Tokens issued within the same second as the revocation are revoked too.
+     */
+    @Transactional
+    public void revokeUser(Long userId) {
+        LOG.debug("Request to revoke tokens of user: {}", userId);
+        Instant now = Instant.now();
+        long validity = Math.max(jwtProperties.getTokenValidityInSeconds(), jwtProperties.getTokenValidityInSecondsForRememberMe());
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setUserId(userId);
+        revokedToken.setRevokedAt(now);
+        revokedToken.setExpiresAt(now.plusSeconds(validity));
+        revokedTokenRepository.save(revokedToken);
+        afterCommit(USER_KEY + userId, () -> snapshot.userAnswers().put(userId, Optional.of(now)));
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        checks.increment();
+        Snapshot current = snapshot;
+        String jti = jwt.getId();
+        Long userId = AuthenticatedUser.fromJwt(jwt).userId();
+        boolean jtiMatch = jti != null && current.filter().mightContain(JTI_KEY + jti);
+        boolean userMatch = userId != null && current.filter().mightContain(USER_KEY + userId);
+        if (!jtiMatch && !userMatch) {
+            return false;
+        }
+
+        if (jtiMatch && isJtiRevoked(current, jti)) {
+            revoked.increment();
+            return true;
+        }
+        Optional<Instant> lastRevokedAt = userMatch ? lastRevokedAt(current, userId) : Optional.empty();
+        if (lastRevokedAt.isEmpty()) {
+            falsePositives.increment();
+            return false;
+        }
+        // iat chỉ chính xác tới giây
+        Instant issuedAt = jwt.getIssuedAt();
+        if (issuedAt == null || issuedAt.getEpochSecond() <= lastRevokedAt.get().getEpochSecond()) {
+            revoked.increment();
+            return true;
+        }
+        // User có bị thu hồi nhưng token được cấp sau đó
+        notRevoked.increment();
+        return false;
+    }
+
+    private boolean isJtiRevoked(Snapshot current, String jti) {
+        Boolean answer = current.jtiAnswers().get(jti);
+        if (answer == null) {
+            answer = revokedTokenRepository.existsByJti(jti);
+            // Không ghi đè câu trả lời do revokeToken đặt trong lúc đang query
+            Boolean previous = current.jtiAnswers().putIfAbsent(jti, answer);
+            answer = previous != null ? previous : answer;
+        }
+        return answer;
+    }
+
+    private Optional<Instant> lastRevokedAt(Snapshot current, Long userId) {
+        Optional<Instant> answer = current.userAnswers().get(userId);
+        if (answer == null) {
+            answer = Optional.ofNullable(revokedTokenRepository.findLastRevokedAtByUserId(userId));
+            Optional<Instant> previous = current.userAnswers().putIfAbsent(userId, answer);
+            answer = previous != null ? previous : answer;
+        }
+        return answer;
+    }
+
+    private void afterCommit(String key, Runnable updateAnswers) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (localKeys) {
+                    localKeys.put(key, Instant.now());
+                    snapshot.filter().add(key);
+                    updateAnswers.run();
+                }
+            }
+        });
+    }
+
+    private void rebuild() {
+        try {
+            Instant started = Instant.now();
+            List<RevokedTokenRepository.RevokedKey> keys = transactionTemplate.execute(status -> {
+                revokedTokenRepository.deleteExpiredBefore(started);
+                return revokedTokenRepository.findKeysActiveAt(started);
+            });
+            BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, keys.size() * 2), FALSE_POSITIVE_RATE);
+            for (RevokedTokenRepository.RevokedKey key : keys) {
+                if (key.getJti() != null) {
+                    filter.add(JTI_KEY + key.getJti());
+                }
+                if (key.getUserId() != null) {
+                    filter.add(USER_KEY + key.getUserId());
+                }
+            }
+            synchronized (localKeys) {
+                // Thu hồi commit trước khi bắt đầu đọc đã có trong kết quả query
+                localKeys.values().removeIf(committedAt -> committedAt.isBefore(started));
+                localKeys.keySet().forEach(filter::add);
+                snapshot = new Snapshot(filter);
+            }
+            LOG.debug("Rebuilt token revocation filter with {} revocation(s)", keys.size());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not rebuild token revocation filter: {}", e.getMessage());
+        }
+    }
+
+    // Filter cùng các câu trả lời từ DB cho các lần filter báo trùng, thay mới ở mỗi lần rebuild
+    private record Snapshot(BloomFilter filter, Map<String, Boolean> jtiAnswers, Map<Long, Optional<Instant>> userAnswers) {
+        Snapshot(BloomFilter filter) {
+            this(filter, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+}
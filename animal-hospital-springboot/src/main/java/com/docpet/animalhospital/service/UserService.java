@@ -44,6 +44,10 @@ public class UserService {
     private final OwnerRepository ownerRepository;
     private final VetRepository vetRepository;
     private final AssistantRepository assistantRepository;
+    private final AppointmentCalendarIndex appointmentCalendarIndex;
+    private final ProfileIdCache profileIdCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     public UserService(
         UserRepository userRepository,
@@ -51,7 +55,11 @@ public class UserService {
         AuthorityRepository authorityRepository,
         OwnerRepository ownerRepository,
         VetRepository vetRepository,
-        AssistantRepository assistantRepository
+        AssistantRepository assistantRepository,
+        AppointmentCalendarIndex appointmentCalendarIndex,
+        ProfileIdCache profileIdCache,
+        RefreshTokenService refreshTokenService,
+        TokenRevocationService tokenRevocationService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
@@ -59,6 +67,10 @@ public class UserService {
         this.ownerRepository = ownerRepository;
         this.vetRepository = vetRepository;
         this.assistantRepository = assistantRepository;
+        this.appointmentCalendarIndex = appointmentCalendarIndex;
+        this.profileIdCache = profileIdCache;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -82,6 +94,9 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                // Đăng xuất mọi phiên đang dùng refresh token
+                refreshTokenService.revokeAll(user.getId());
+                tokenRevocationService.revokeUser(user.getId());
                 return user;
             });
     }
@@ -163,6 +178,7 @@ public class UserService {
         owner.setAddress("");
         owner.setUser(savedUser);
         ownerRepository.save(owner);
+        profileIdCache.loginChanged(savedUser.getLogin());
         LOG.debug("Created Owner profile for User: {}", savedUser.getLogin());
 
         return savedUser;
@@ -218,6 +234,8 @@ public class UserService {
         }
         vet.setUser(savedUser);
         vetRepository.save(vet);
+        appointmentCalendarIndex.vetsChanged();
+        profileIdCache.loginChanged(savedUser.getLogin());
         LOG.debug("Created Vet profile for User: {}", savedUser.getLogin());
 
         return savedUser;
@@ -270,6 +288,7 @@ public class UserService {
         // Có thể thêm employeeId và department từ AssistantRegistrationVM nếu cần
         assistant.setUser(savedUser);
         assistantRepository.save(assistant);
+        profileIdCache.loginChanged(savedUser.getLogin());
         LOG.debug("Created Assistant profile for User: {}", savedUser.getLogin());
 
         return savedUser;
@@ -281,6 +300,7 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        profileIdCache.loginChanged(existingUser.getLogin());
         return true;
     }
 
@@ -313,6 +333,8 @@ public class UserService {
         String encryptedPassword = passwordEncoder.encode(newPassword);
         user.setPassword(encryptedPassword);
         userRepository.save(user);
+        refreshTokenService.revokeAll(user.getId());
+        tokenRevocationService.revokeUser(user.getId());
         LOG.debug("Changed password for User: {}", user);
     }
 
@@ -328,6 +350,7 @@ public class UserService {
             .forEach(user -> {
                 LOG.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
+                profileIdCache.loginChanged(user.getLogin());
             });
     }
 
@@ -345,7 +368,10 @@ public class UserService {
         userRepository
             .findOneByLogin(login)
             .ifPresent(user -> {
+                refreshTokenService.revokeAll(user.getId());
                 userRepository.delete(user);
+                tokenRevocationService.revokeUser(user.getId());
+                profileIdCache.loginChanged(user.getLogin());
                 LOG.debug("Deleted User: {}", user);
             });
     }
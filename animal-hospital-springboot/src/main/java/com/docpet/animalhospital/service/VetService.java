@@ -25,11 +25,27 @@ public class VetService {
     private final VetRepository vetRepository;
     private final VetMapper vetMapper;
     private final UserRepository userRepository;
+    private final AppointmentCalendarIndex appointmentCalendarIndex;
+    private final ProfileIdCache profileIdCache;
+    private final AppointmentAccessCache appointmentAccessCache;
+    private final TokenRevocationService tokenRevocationService;
 
-    public VetService(VetRepository vetRepository, VetMapper vetMapper, UserRepository userRepository) {
+    public VetService(
+        VetRepository vetRepository,
+        VetMapper vetMapper,
+        UserRepository userRepository,
+        AppointmentCalendarIndex appointmentCalendarIndex,
+        ProfileIdCache profileIdCache,
+        AppointmentAccessCache appointmentAccessCache,
+        TokenRevocationService tokenRevocationService
+    ) {
         this.vetRepository = vetRepository;
         this.vetMapper = vetMapper;
         this.userRepository = userRepository;
+        this.appointmentCalendarIndex = appointmentCalendarIndex;
+        this.profileIdCache = profileIdCache;
+        this.appointmentAccessCache = appointmentAccessCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public VetDTO save(VetDTO vetDTO) {
@@ -53,6 +69,8 @@ public class VetService {
                 // Đảm bảo user được set
                 existingVet.setUser(user);
                 Vet savedVet = vetRepository.save(existingVet);
+                appointmentCalendarIndex.vetsChanged();
+                profileIdCache.vetsChanged();
                 
                 // Xóa duplicate vets nếu có
                 final Long savedVetId = savedVet.getId();
@@ -62,6 +80,7 @@ public class VetService {
                         .filter(v -> !v.getId().equals(savedVetId))
                         .forEach(vetRepository::delete);
                     LOG.warn("Deleted {} duplicate vets for user {}", duplicateVets.size() - 1, user.getLogin());
+                    revokeProfileClaims(user);
                 }
                 
                 return vetMapper.toDto(savedVet);
@@ -80,6 +99,8 @@ public class VetService {
         }
         
         vet = vetRepository.save(vet);
+        appointmentCalendarIndex.vetsChanged();
+        profileIdCache.vetsChanged();
         return vetMapper.toDto(vet);
     }
 
@@ -102,11 +123,18 @@ public class VetService {
         if (vetDTO.getUserId() != null) {
             User user = userRepository.findById(vetDTO.getUserId())
                 .orElseThrow(() -> new BadRequestAlertException("User not found", ENTITY_NAME, "usernotfound"));
+            User previousUser = existingVet.getUser();
+            if (previousUser != null && !previousUser.getId().equals(user.getId())) {
+                revokeProfileClaims(previousUser);
+            }
             existingVet.setUser(user);
+            profileIdCache.vetsChanged();
+            appointmentAccessCache.profilesChanged();
             LOG.debug("Updated user {} for vet {}", user.getId(), existingVet.getId());
         }
         
         Vet savedVet = vetRepository.save(existingVet);
+        appointmentCalendarIndex.vetsChanged();
         return vetMapper.toDto(savedVet);
     }
 
@@ -124,7 +152,10 @@ public class VetService {
                 return existingVet;
             })
             .map(vetRepository::save)
-            .map(vetMapper::toDto);
+            .map(vet -> {
+                appointmentCalendarIndex.vetsChanged();
+                return vetMapper.toDto(vet);
+            });
     }
 
     @Transactional(readOnly = true)
@@ -141,7 +172,16 @@ public class VetService {
 
     public void delete(Long id) {
         LOG.debug("Request to delete Vet : {}", id);
+        vetRepository.findById(id).ifPresent(vet -> revokeProfileClaims(vet.getUser()));
         vetRepository.deleteById(id);
+        appointmentCalendarIndex.vetsChanged();
+        profileIdCache.vetsChanged();
     }
-}
 
+    // Token của user này vẫn mang vetId cũ trong claim; thu hồi để claim cũ không còn được dùng
+    private void revokeProfileClaims(User user) {
+        if (user != null && user.getId() != null) {
+            tokenRevocationService.revokeUser(user.getId());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.docpet.animalhospital.service.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Flat read model for appointment lists. Built directly by JPQL constructor expressions
+ * in {@code AppointmentRepository}, so list queries select only these columns.
+ */
+public class AppointmentSummaryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private ZonedDateTime timeStart;
+    private ZonedDateTime timeEnd;
+    private String type;
+    private String status;
+    private String notes;
+    private String appointmentType;
+    private String locationType;
+    private Long petId;
+    private String petName;
+    private String petSpecies;
+    private Long ownerId;
+    private String ownerName;
+    private String ownerPhone;
+    private Long vetId;
+    private String vetFirstName;
+    private String vetLastName;
+
+    public AppointmentSummaryDTO() {}
+
+    public AppointmentSummaryDTO(
+        Long id,
+        ZonedDateTime timeStart,
+        ZonedDateTime timeEnd,
+        String type,
+        String status,
+        String notes,
+        String appointmentType,
+        String locationType,
+        Long petId,
+        String petName,
+        String petSpecies,
+        Long ownerId,
+        String ownerName,
+        String ownerPhone,
+        Long vetId,
+        String vetFirstName,
+        String vetLastName
+    ) {
+        this.id = id;
+        this.timeStart = timeStart;
+        this.timeEnd = timeEnd;
+        this.type = type;
+        this.status = status;
+        this.notes = notes;
+        this.appointmentType = appointmentType;
+        this.locationType = locationType;
+        this.petId = petId;
+        this.petName = petName;
+        this.petSpecies = petSpecies;
+        this.ownerId = ownerId;
+        this.ownerName = ownerName;
+        this.ownerPhone = ownerPhone;
+        this.vetId = vetId;
+        this.vetFirstName = vetFirstName;
+        this.vetLastName = vetLastName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ZonedDateTime getTimeStart() {
+        return timeStart;
+    }
+
+    public void setTimeStart(ZonedDateTime timeStart) {
+        this.timeStart = timeStart;
+    }
+
+    public ZonedDateTime getTimeEnd() {
+        return timeEnd;
+    }
+
+    public void setTimeEnd(ZonedDateTime timeEnd) {
+        this.timeEnd = timeEnd;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public String getAppointmentType() {
+        return appointmentType;
+    }
+
+    public void setAppointmentType(String appointmentType) {
+        this.appointmentType = appointmentType;
+    }
+
+    public String getLocationType() {
+        return locationType;
+    }
+
+    public void setLocationType(String locationType) {
+        this.locationType = locationType;
+    }
+
+    public Long getPetId() {
+        return petId;
+    }
+
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+
+    public String getPetName() {
+        return petName;
+    }
+
+    public void setPetName(String petName) {
+        this.petName = petName;
+    }
+
+    public String getPetSpecies() {
+        return petSpecies;
+    }
+
+    public void setPetSpecies(String petSpecies) {
+        this.petSpecies = petSpecies;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public void setOwnerName(String ownerName) {
+        this.ownerName = ownerName;
+    }
+
+    public String getOwnerPhone() {
+        return ownerPhone;
+    }
+
+    public void setOwnerPhone(String ownerPhone) {
+        this.ownerPhone = ownerPhone;
+    }
+
+    public Long getVetId() {
+        return vetId;
+    }
+
+    public void setVetId(Long vetId) {
+        this.vetId = vetId;
+    }
+
+    public String getVetFirstName() {
+        return vetFirstName;
+    }
+
+    public void setVetFirstName(String vetFirstName) {
+        this.vetFirstName = vetFirstName;
+    }
+
+    public String getVetLastName() {
+        return vetLastName;
+    }
+
+    public void setVetLastName(String vetLastName) {
+        this.vetLastName = vetLastName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AppointmentSummaryDTO)) return false;
+        AppointmentSummaryDTO that = (AppointmentSummaryDTO) o;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentSummaryDTO{" +
+            "id=" + id +
+            ", timeStart='" + timeStart + "'" +
+            ", status='" + status + "'" +
+            ", appointmentType='" + appointmentType + "'" +
+            ", petId=" + petId +
+            ", vetId=" + vetId +
+            "}";
+    }
+}
@@ -0,0 +1,74 @@
+package com.docpet.animalhospital.service.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+public class AvailableSlotDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long vetId;
+    private String vetFirstName;
+    private String vetLastName;
+    private String specialization;
+    private ZonedDateTime timeStart;
+    private ZonedDateTime timeEnd;
+
+    public Long getVetId() {
+        return vetId;
+    }
+
+    public void setVetId(Long vetId) {
+        this.vetId = vetId;
+    }
+
+    public String getVetFirstName() {
+        return vetFirstName;
+    }
+
+    public void setVetFirstName(String vetFirstName) {
+        this.vetFirstName = vetFirstName;
+    }
+
+    public String getVetLastName() {
+        return vetLastName;
+    }
+
+    public void setVetLastName(String vetLastName) {
+        this.vetLastName = vetLastName;
+    }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(String specialization) {
+        this.specialization = specialization;
+    }
+
+    public ZonedDateTime getTimeStart() {
+        return timeStart;
+    }
+
+    public void setTimeStart(ZonedDateTime timeStart) {
+        this.timeStart = timeStart;
+    }
+
+    public ZonedDateTime getTimeEnd() {
+        return timeEnd;
+    }
+
+    public void setTimeEnd(ZonedDateTime timeEnd) {
+        this.timeEnd = timeEnd;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailableSlotDTO{" +
+            "vetId=" + vetId +
+            ", specialization='" + specialization + "'" +
+            ", timeStart='" + timeStart + "'" +
+            ", timeEnd='" + timeEnd + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.docpet.animalhospital.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list; {@code nextCursor} is null on the last page.
+ */
+public class CursorPageDTO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
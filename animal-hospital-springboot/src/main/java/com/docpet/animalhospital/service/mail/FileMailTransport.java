@@ -0,0 +1,41 @@
+package com.docpet.animalhospital.service.mail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Writes each email as an {@code .eml} file named after its message key, for local development.
+ * A resent email overwrites its earlier file.
+ */
+public class FileMailTransport implements MailTransport {
+
+    private final Path directory;
+
+    public FileMailTransport(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void send(List<MailMessage> batch) throws IOException {
+        Files.createDirectories(directory);
+        for (MailMessage message : batch) {
+            String eml =
+                "Message-ID: <" + message.messageKey() + ">\r\n" +
+                "From: " + message.from() + "\r\n" +
+                "To: " + message.to() + "\r\n" +
+                "Subject: " + message.subject() + "\r\n" +
+                "Content-Type: text/plain; charset=UTF-8\r\n" +
+                "\r\n" +
+                message.content();
+            // Ghi file tạm rồi đổi tên: không để lại email ghi dở
+            Path target = directory.resolve(message.messageKey().replaceAll("[^A-Za-z0-9._-]", "_") + ".eml");
+            Path tmp = Files.createTempFile(directory, "mail", ".tmp");
+            Files.writeString(tmp, eml, StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.docpet.animalhospital.service.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Keeps sent emails in memory so tests can assert on them. */
+public class InMemoryMailTransport implements MailTransport {
+
+    private final List<MailMessage> sent = new ArrayList<>();
+
+    @Override
+    public synchronized void send(List<MailMessage> batch) {
+        sent.addAll(batch);
+    }
+
+    public synchronized List<MailMessage> getSent() {
+        return List.copyOf(sent);
+    }
+
+    public synchronized void clear() {
+        sent.clear();
+    }
+}
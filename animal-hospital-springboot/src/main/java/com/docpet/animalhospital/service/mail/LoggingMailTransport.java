@@ -0,0 +1,18 @@
+package com.docpet.animalhospital.service.mail;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Only logs the emails. Default transport while no mail server is configured. */
+public class LoggingMailTransport implements MailTransport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoggingMailTransport.class);
+
+    @Override
+    public void send(List<MailMessage> batch) {
+        for (MailMessage message : batch) {
+            LOG.debug("Mail '{}' ({}) to '{}'", message.subject(), message.messageKey(), message.to());
+        }
+    }
+}
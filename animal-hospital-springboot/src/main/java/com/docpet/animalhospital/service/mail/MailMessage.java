@@ -0,0 +1,7 @@
+package com.docpet.animalhospital.service.mail;
+
+/**
+ * A rendered email. {@code messageKey} is unique per logical email and is used as the Message-ID,
+ * so a resent email can be recognised as a duplicate.
+ */
+public record MailMessage(String from, String to, String subject, String content, String messageKey) {}
@@ -0,0 +1,96 @@
+package com.docpet.animalhospital.service.mail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain-text email templates from {@code templates/mail/<name>.txt}, parsed once at startup. The
+ * first line is {@code Subject: ...}, the body follows a blank line; {@code {{name}}} is replaced by
+ * the variable of that name (empty when missing). A missing or malformed template fails startup.
+ */
+@Component
+public class MailTemplates {
+
+    public static final String ACTIVATION = "activation";
+    public static final String PASSWORD_RESET = "passwordReset";
+    public static final String WELCOME = "welcome";
+    public static final String APPOINTMENT_NOTIFICATION = "appointmentNotification";
+
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    private final Map<String, Template> templates = new HashMap<>();
+
+    public MailTemplates() {
+        for (String name : List.of(ACTIVATION, PASSWORD_RESET, WELCOME, APPOINTMENT_NOTIFICATION)) {
+            templates.put(name, load(name));
+        }
+    }
+
+    public Rendered render(String name, Map<String, String> variables) {
+        Template template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown mail template " + name);
+        }
+        return new Rendered(template.subject().render(variables), template.body().render(variables));
+    }
+
+    private static Template load(String name) {
+        String path = "templates/mail/" + name + ".txt";
+        String text;
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read mail template " + path, e);
+        }
+        int headerEnd = text.indexOf("\n\n");
+        if (!text.startsWith(SUBJECT_PREFIX) || headerEnd < 0) {
+            throw new IllegalStateException("Mail template " + path + " must start with a Subject line and a blank line");
+        }
+        return new Template(
+            compile(text.substring(SUBJECT_PREFIX.length(), headerEnd).trim()),
+            compile(text.substring(headerEnd + 2))
+        );
+    }
+
+    // Tách một lần thành các đoạn chữ và tên biến; render chỉ còn nối chuỗi
+    private static Compiled compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf("{{", position)) >= 0) {
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            literals.add(source.substring(position, open));
+            variables.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        literals.add(source.substring(position));
+        return new Compiled(literals.toArray(String[]::new), variables.toArray(String[]::new));
+    }
+
+    public record Rendered(String subject, String content) {}
+
+    private record Template(Compiled subject, Compiled body) {}
+
+    private record Compiled(String[] literals, String[] variables) {
+        String render(Map<String, String> values) {
+            StringBuilder out = new StringBuilder(literals[0]);
+            for (int i = 0; i < variables.length; i++) {
+                String value = values.get(variables[i]);
+                out.append(value != null ? value : "").append(literals[i + 1]);
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.docpet.animalhospital.service.mail;
+
+import java.util.List;
+
+/**
+ * Delivers rendered emails. Each call is one session with the mail server (connect once, send the
+ * whole batch); an exception means none of the batch can be assumed delivered.
+ */
+public interface MailTransport {
+    void send(List<MailMessage> batch) throws Exception;
+}
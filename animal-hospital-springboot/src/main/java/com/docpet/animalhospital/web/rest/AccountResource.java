@@ -55,6 +55,7 @@ public class AccountResource {
         userDTO.setLangKey(managedUserVM.getLangKey());
         userDTO.setImageUrl(managedUserVM.getImageUrl());
         User user = userService.registerUser(userDTO, managedUserVM.getPassword());
+        mailService.sendWelcomeEmail(user);
     }
 
     @GetMapping("/activate")
@@ -1,20 +1,19 @@
 package com.docpet.animalhospital.web.rest;
 
-import com.docpet.animalhospital.domain.AppointmentAssistant;
-import com.docpet.animalhospital.domain.Assistant;
-import com.docpet.animalhospital.repository.AppointmentAssistantRepository;
 import com.docpet.animalhospital.repository.AppointmentRepository;
-import com.docpet.animalhospital.repository.AssistantRepository;
-import com.docpet.animalhospital.repository.OwnerRepository;
-import com.docpet.animalhospital.repository.UserRepository;
 import com.docpet.animalhospital.security.AuthoritiesConstants;
 import com.docpet.animalhospital.security.SecurityUtils;
+import com.docpet.animalhospital.service.AppointmentAccessCache;
 import com.docpet.animalhospital.service.AppointmentActionService;
 import com.docpet.animalhospital.service.AppointmentMessageService;
 import com.docpet.animalhospital.service.AppointmentService;
+import com.docpet.animalhospital.service.ProfileIdCache;
 import com.docpet.animalhospital.service.dto.AppointmentActionDTO;
 import com.docpet.animalhospital.service.dto.AppointmentMessageDTO;
 import com.docpet.animalhospital.service.dto.AppointmentDTO;
+import com.docpet.animalhospital.service.dto.AppointmentSummaryDTO;
+import com.docpet.animalhospital.service.dto.AvailableSlotDTO;
+import com.docpet.animalhospital.service.dto.CursorPageDTO;
 import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
 import com.docpet.animalhospital.web.rest.vm.SendMessageVM;
 import jakarta.validation.Valid;
@@ -22,16 +21,23 @@ import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -39,34 +45,33 @@ public class AppointmentResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(AppointmentResource.class);
     private static final String ENTITY_NAME = "appointment";
+    private static final int MAX_SLOT_LIMIT = 100;
+    private static final int MAX_PAGE_LIMIT = 100;
+    private static final int DEFAULT_MESSAGE_LIMIT = 50;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
 
     private final AppointmentService appointmentService;
     private final AppointmentRepository appointmentRepository;
     private final AppointmentActionService appointmentActionService;
     private final AppointmentMessageService appointmentMessageService;
-    private final AppointmentAssistantRepository appointmentAssistantRepository;
-    private final UserRepository userRepository;
-    private final OwnerRepository ownerRepository;
-    private final AssistantRepository assistantRepository;
+    private final ProfileIdCache profileIdCache;
+    private final AppointmentAccessCache appointmentAccessCache;
 
     public AppointmentResource(
         AppointmentService appointmentService,
         AppointmentRepository appointmentRepository,
         AppointmentActionService appointmentActionService,
         AppointmentMessageService appointmentMessageService,
-        AppointmentAssistantRepository appointmentAssistantRepository,
-        UserRepository userRepository,
-        OwnerRepository ownerRepository,
-        AssistantRepository assistantRepository
+        ProfileIdCache profileIdCache,
+        AppointmentAccessCache appointmentAccessCache
     ) {
         this.appointmentService = appointmentService;
         this.appointmentRepository = appointmentRepository;
         this.appointmentActionService = appointmentActionService;
         this.appointmentMessageService = appointmentMessageService;
-        this.appointmentAssistantRepository = appointmentAssistantRepository;
-        this.userRepository = userRepository;
-        this.ownerRepository = ownerRepository;
-        this.assistantRepository = assistantRepository;
+        this.profileIdCache = profileIdCache;
+        this.appointmentAccessCache = appointmentAccessCache;
     }
 
     @PostMapping("")
@@ -130,51 +135,32 @@ public class AppointmentResource {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Appointments of the current user (as owner and/or vet), upcoming first, paginated by cursor.
+     * The next page is requested with {@code after=<X-Next-Cursor>}; the header is absent on the last page.
+     */
     @GetMapping("")
-    public ResponseEntity<List<AppointmentDTO>> getAllAppointments() {
-        LOG.debug("REST request to get all Appointments for current user");
+    public ResponseEntity<List<AppointmentSummaryDTO>> getAllAppointments(
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        LOG.debug("REST request to get Appointments for current user after: {} limit: {}", after, limit);
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
-        
-        List<AppointmentDTO> appointments;
-        
-        // Kiểm tra xem user là owner hay vet
-        boolean isOwner = ownerRepository.findByUser_Login(currentUserLogin).isPresent();
-        boolean isVet = SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.DOCTOR);
-        
-        if (isOwner && isVet) {
-            // User có cả owner và vet profile - trả về appointments của cả hai
-            List<AppointmentDTO> ownerAppointments = appointmentService.findAllForCurrentOwner(currentUserLogin);
-            List<AppointmentDTO> vetAppointments = appointmentService.findAllForCurrentVet(currentUserLogin);
-            
-            // Merge và loại bỏ duplicate
-            java.util.Set<Long> appointmentIds = new java.util.HashSet<>();
-            List<AppointmentDTO> allAppointments = new java.util.ArrayList<>();
-            
-            for (AppointmentDTO apt : ownerAppointments) {
-                if (appointmentIds.add(apt.getId())) {
-                    allAppointments.add(apt);
-                }
-            }
-            for (AppointmentDTO apt : vetAppointments) {
-                if (appointmentIds.add(apt.getId())) {
-                    allAppointments.add(apt);
-                }
-            }
-            
-            appointments = allAppointments;
-        } else if (isOwner) {
-            // User là owner
-            appointments = appointmentService.findAllForCurrentOwner(currentUserLogin);
-        } else if (isVet) {
-            // User là vet
-            appointments = appointmentService.findAllForCurrentVet(currentUserLogin);
-        } else {
-            // User không phải owner cũng không phải vet
-            appointments = java.util.Collections.emptyList();
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        CursorPageDTO<AppointmentSummaryDTO> page = appointmentService.findPageForCurrentUser(currentUserLogin, after, pageSize);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", page.getNextCursor())
+                .replaceQueryParam("limit", pageSize)
+                .toUriString();
+            headers.add(NEXT_CURSOR_HEADER, page.getNextCursor());
+            headers.add(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
         }
-        
-        return ResponseEntity.ok().body(appointments);
+        return ResponseEntity.ok().headers(headers).body(page.getItems());
     }
 
     @GetMapping("/{id}")
@@ -194,38 +180,38 @@ public class AppointmentResource {
 
     @GetMapping("/vet")
     @PreAuthorize("hasAuthority('" + AuthoritiesConstants.DOCTOR + "')")
-    public ResponseEntity<List<AppointmentDTO>> getAllAppointmentsForVet(
+    public ResponseEntity<List<AppointmentSummaryDTO>> getAllAppointmentsForVet(
         @RequestParam(value = "date", required = false) String date) {
         LOG.debug("REST request to get all appointments for date: {} for vet", date);
-        List<AppointmentDTO> appointments = appointmentService.getAllAppointmentsByDateForVet(date);
+        List<AppointmentSummaryDTO> appointments = appointmentService.getAllAppointmentsByDateForVet(date);
         return ResponseEntity.ok().body(appointments);
     }
 
     @GetMapping("/pet/{petId}/history")
-    public ResponseEntity<List<AppointmentDTO>> getPetAppointmentHistory(@PathVariable("petId") Long petId) {
+    public ResponseEntity<List<AppointmentSummaryDTO>> getPetAppointmentHistory(@PathVariable("petId") Long petId) {
         LOG.debug("REST request to get appointment history for pet: {}", petId);
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
         
-        List<AppointmentDTO> appointments = appointmentService.getPetAppointmentHistory(petId, currentUserLogin);
+        List<AppointmentSummaryDTO> appointments = appointmentService.getPetAppointmentHistory(petId, currentUserLogin);
         return ResponseEntity.ok().body(appointments);
     }
 
     @GetMapping("/regular")
-    public ResponseEntity<List<AppointmentDTO>> getRegularAppointmentsByDateAndVetId(
+    public ResponseEntity<List<AppointmentSummaryDTO>> getRegularAppointmentsByDateAndVetId(
         @RequestParam("date") String date,
         @RequestParam("vetId") Long vetId) {
         LOG.debug("REST request to get regular appointments for date: {} and vetId: {}", date, vetId);
-        List<AppointmentDTO> appointments = appointmentService.getRegularAppointmentsByDateAndVetId(date, vetId);
+        List<AppointmentSummaryDTO> appointments = appointmentService.getRegularAppointmentsByDateAndVetId(date, vetId);
         return ResponseEntity.ok().body(appointments);
     }
 
     @GetMapping("/emergency")
-    public ResponseEntity<List<AppointmentDTO>> getEmergencyAppointmentsByDateAndVetId(
+    public ResponseEntity<List<AppointmentSummaryDTO>> getEmergencyAppointmentsByDateAndVetId(
         @RequestParam("date") String date,
         @RequestParam("vetId") Long vetId) {
         LOG.debug("REST request to get emergency appointments for date: {} and vetId: {}", date, vetId);
-        List<AppointmentDTO> appointments = appointmentService.getEmergencyAppointmentsByDateAndVetId(date, vetId);
+        List<AppointmentSummaryDTO> appointments = appointmentService.getEmergencyAppointmentsByDateAndVetId(date, vetId);
         return ResponseEntity.ok().body(appointments);
     }
 
@@ -248,53 +234,58 @@ public class AppointmentResource {
         return ResponseEntity.ok().body(isAvailable);
     }
 
+    @GetMapping("/slots")
+    public ResponseEntity<List<AvailableSlotDTO>> getAvailableSlots(
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(value = "type", required = false) String type,
+        @RequestParam(value = "specialization", required = false) String specialization,
+        @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        LOG.debug("REST request to get available slots from {} to {} type {} specialization {}", from, to, type, specialization);
+        List<AvailableSlotDTO> slots = appointmentService.findAvailableSlots(
+            from,
+            to,
+            type,
+            specialization,
+            Math.min(Math.max(limit, 1), MAX_SLOT_LIMIT)
+        );
+        return ResponseEntity.ok().body(slots);
+    }
+
     @GetMapping("/assistant/assigned")
     @PreAuthorize("hasAuthority('" + AuthoritiesConstants.ASSISTANT + "')")
     public ResponseEntity<List<AppointmentActionDTO>> getMyAssignedAppointments(
-        @RequestParam(value = "status", required = false) String status
+        @RequestParam(value = "status", required = false) String status,
+        Pageable pageable
     ) {
         LOG.debug("REST request to get assigned appointments for current assistant with status: {}", status);
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
         // Lấy assistant theo user login của user đang đăng nhập
-        Assistant assistant = assistantRepository.findByUser_Login(currentUserLogin)
+        Long currentAssistantId = profileIdCache.currentAssistantId(currentUserLogin)
             .orElseThrow(() -> new BadRequestAlertException("Assistant not found", ENTITY_NAME, "assistantnotfound"));
-        
-        // Lấy appointments đã được phân công từ bảng appointment_assistant
-        // Query theo assistant_id của user đang đăng nhập
-        Long currentAssistantId = assistant.getId();
-        LOG.debug("Querying appointments for assistant_id: {}", currentAssistantId);
-        List<AppointmentAssistant> appointmentAssistants = appointmentAssistantRepository
-            .findByAssistantIdWithRelations(currentAssistantId);
-
-        // Convert sang AppointmentActionDTO và filter theo status nếu có
-        List<AppointmentActionDTO> actions = appointmentAssistants.stream()
-            .map(aa -> {
-                // Tìm appointment_action tương ứng với appointment này và assistant này
-                Long appointmentId = aa.getAppointment().getId();
-                Long assistantUserId = assistant.getUser() != null ? assistant.getUser().getId() : null;
-                
-                // Lấy appointment_action với action_type = ASSIGN_ASSISTANT
-                return appointmentActionService.findByAppointmentId(appointmentId).stream()
-                    .filter(action -> "ASSIGN_ASSISTANT".equals(action.getActionType()) &&
-                        (assistantUserId == null || assistantUserId.equals(action.getAssignedToId())))
-                    .findFirst()
-                    .orElse(null);
-            })
-            .filter(action -> action != null)
-            .filter(action -> status == null || status.trim().isEmpty() || status.equals(action.getStatus()))
-            .toList();
+        Long currentUserId = profileIdCache.currentUserId(currentUserLogin).orElse(null);
+
+        // appointment_assistant + appointment_action (ASSIGN_ASSISTANT), lọc status và phân trang trong SQL.
+        // Thứ tự do query quyết định nên bỏ sort từ request
+        List<AppointmentActionDTO> actions = appointmentActionService.findAssignmentsForAssistant(
+            currentAssistantId,
+            currentUserId,
+            status,
+            PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_LIMIT))
+        );
 
         return ResponseEntity.ok().body(actions);
     }
 
     @GetMapping("/assistant/assigned/pending")
     @PreAuthorize("hasAuthority('" + AuthoritiesConstants.ASSISTANT + "')")
-    public ResponseEntity<List<AppointmentActionDTO>> getMyPendingAssignments() {
+    public ResponseEntity<List<AppointmentActionDTO>> getMyPendingAssignments(Pageable pageable) {
         LOG.debug("REST request to get pending assigned appointments for current assistant");
         // Sử dụng lại logic của getMyAssignedAppointments với status = PENDING
-        return getMyAssignedAppointments("PENDING");
+        return getMyAssignedAppointments("PENDING", pageable);
     }
 
     @GetMapping("/assistant/{id}/detail")
@@ -304,15 +295,18 @@ public class AppointmentResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
-        // Lấy assistant theo user login của user đang đăng nhập
-        Assistant assistant = assistantRepository.findByUser_Login(currentUserLogin)
-            .orElseThrow(() -> new BadRequestAlertException("Assistant not found", ENTITY_NAME, "assistantnotfound"));
+        // Kiểm tra user đang đăng nhập có assistant profile
+        if (profileIdCache.currentAssistantId(currentUserLogin).isEmpty()) {
+            throw new BadRequestAlertException("Assistant not found", ENTITY_NAME, "assistantnotfound");
+        }
 
-        // Kiểm tra appointment đã được phân công cho assistant này
-        Optional<AppointmentAssistant> appointmentAssistant = appointmentAssistantRepository
-            .findByAppointmentIdAndAssistantId(id, assistant.getId());
+        // Kiểm tra appointment đã được phân công cho assistant này (appointment_assistant, theo user id)
+        Long currentUserId = profileIdCache.currentUserId(currentUserLogin).orElse(null);
+        boolean assigned = appointmentAccessCache.appointment(id)
+            .map(access -> access.isAssistant(currentUserId))
+            .orElse(false);
 
-        if (appointmentAssistant.isEmpty()) {
+        if (!assigned) {
             throw new BadRequestAlertException(
                 "Appointment not assigned to you or not found", 
                 ENTITY_NAME, 
@@ -346,16 +340,50 @@ public class AppointmentResource {
         return ResponseEntity.ok().body(messageDTO);
     }
 
+    // Không có tham số: cả hội thoại như trước. afterId: chỉ lấy message mới hơn;
+    // beforeId / limit: trang cũ hơn (hoặc mới nhất), luôn trả về theo thứ tự cũ nhất trước
     @GetMapping("/{id}/messages")
-    public ResponseEntity<List<AppointmentMessageDTO>> getMessages(@PathVariable("id") Long appointmentId) {
-        LOG.debug("REST request to get messages for appointment: {}", appointmentId);
+    public ResponseEntity<List<AppointmentMessageDTO>> getMessages(
+        @PathVariable("id") Long appointmentId,
+        @RequestParam(value = "afterId", required = false) Long afterId,
+        @RequestParam(value = "beforeId", required = false) Long beforeId,
+        @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        LOG.debug("REST request to get messages for appointment: {} after: {} before: {} limit: {}", appointmentId, afterId, beforeId, limit);
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
         
-        List<AppointmentMessageDTO> messages = appointmentMessageService.findByAppointmentId(appointmentId, currentUserLogin);
+        if (afterId == null && beforeId == null && limit == null) {
+            return ResponseEntity.ok().body(appointmentMessageService.findByAppointmentId(appointmentId, currentUserLogin));
+        }
+        int pageSize = limit == null ? DEFAULT_MESSAGE_LIMIT : Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        List<AppointmentMessageDTO> messages = appointmentMessageService.findPage(appointmentId, currentUserLogin, afterId, beforeId, pageSize);
         return ResponseEntity.ok().body(messages);
     }
 
+    // Thay cho việc poll GET /{id}/messages: nhận message mới qua Server-Sent Events
+    @GetMapping(value = "/{id}/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(
+        @PathVariable("id") Long appointmentId,
+        @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId
+    ) {
+        LOG.debug("REST request to stream messages for appointment: {}", appointmentId);
+        String currentUserLogin = SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
+
+        return appointmentMessageService.subscribe(appointmentId, currentUserLogin, lastEventId);
+    }
+
+    // Một stream cho mọi appointment mà user là owner hoặc vet
+    @GetMapping(value = "/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAllMessages(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        LOG.debug("REST request to stream messages of all appointments of current user");
+        String currentUserLogin = SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
+
+        return appointmentMessageService.subscribeAll(currentUserLogin, lastEventId);
+    }
+
     // Request DTOs
     public static class CheckAvailabilityRequest implements Serializable {
         private static final long serialVersionUID = 1L;
@@ -1,13 +1,19 @@
 package com.docpet.animalhospital.web.rest;
 
 import com.docpet.animalhospital.config.JwtProperties;
+import com.docpet.animalhospital.security.AuthenticatedUser;
 import com.docpet.animalhospital.security.DomainUserDetailsService.UserWithId;
+import com.docpet.animalhospital.service.ProfileIdCache;
+import com.docpet.animalhospital.service.RefreshTokenService;
+import com.docpet.animalhospital.service.TokenRevocationService;
 import com.docpet.animalhospital.web.rest.vm.LoginVM;
+import com.docpet.animalhospital.web.rest.vm.RefreshTokenVM;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import java.security.Principal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +26,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
@@ -34,15 +41,24 @@ public class AuthenticateController {
     private final JwtEncoder jwtEncoder;
     private final JwtProperties jwtProperties;
     private final AuthenticationManager authenticationManager;
+    private final ProfileIdCache profileIdCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthenticateController(
         JwtEncoder jwtEncoder,
         JwtProperties jwtProperties,
-        AuthenticationManager authenticationManager
+        AuthenticationManager authenticationManager,
+        ProfileIdCache profileIdCache,
+        RefreshTokenService refreshTokenService,
+        TokenRevocationService tokenRevocationService
     ) {
         this.jwtEncoder = jwtEncoder;
         this.jwtProperties = jwtProperties;
         this.authenticationManager = authenticationManager;
+        this.profileIdCache = profileIdCache;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/authenticate")
@@ -55,9 +71,43 @@ public class AuthenticateController {
         Authentication authentication = authenticationManager.authenticate(authenticationToken);
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = this.createToken(authentication, loginVM.isRememberMe());
+        String refreshToken = null;
+        if (authentication.getPrincipal() instanceof UserWithId user) {
+            refreshToken = refreshTokenService.create(user.getId(), authentication.getName(), authorities(authentication), loginVM.isRememberMe());
+        }
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setBearerAuth(jwt);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token (the old one
+     * stops working). No password check: an invalid, expired or reused token, or one of a user who
+     * is no longer activated, gets a 401. The new token carries the user's current authorities.
+     */
+    @PostMapping("/authenticate/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenVM.getRefreshToken());
+        String jwt = createToken(rotation.login(), rotation.userId(), rotation.authorities(), rotation.rememberMe());
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setBearerAuth(jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, rotation.refreshToken()), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * Revokes the access token of the request and, when given, the family of the refresh token, so
+     * neither can be used again even before it expires.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenVM refreshTokenVM, Authentication authentication) {
+        LOG.debug("REST request to logout user: {}", authentication.getName());
+        if (authentication.getCredentials() instanceof Jwt jwt) {
+            tokenRevocationService.revokeToken(jwt.getId(), jwt.getExpiresAt());
+        }
+        if (refreshTokenVM != null && refreshTokenVM.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshTokenVM.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/authenticate")
@@ -67,10 +117,11 @@ public class AuthenticateController {
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
-        String authorities = authentication.getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.joining(" "));
+        Long userId = authentication.getPrincipal() instanceof UserWithId user ? user.getId() : null;
+        return createToken(authentication.getName(), userId, authorities(authentication), rememberMe);
+    }
 
+    private String createToken(String login, Long userId, String authorities, boolean rememberMe) {
         Instant now = Instant.now();
         Instant validity;
         if (rememberMe) {
@@ -80,24 +131,37 @@ public class AuthenticateController {
         }
 
         JwtClaimsSet.Builder builder = JwtClaimsSet.builder()
+            .id(UUID.randomUUID().toString())
             .issuedAt(now)
             .expiresAt(validity)
-            .subject(authentication.getName())
+            .subject(login)
             .claim("auth", authorities);
         
-        if (authentication.getPrincipal() instanceof UserWithId user) {
-            builder.claim("id", user.getId());
+        if (userId != null) {
+            builder.claim(AuthenticatedUser.USER_ID_CLAIM, userId);
         }
+        // Profile id của user, để các request sau không phải tra cứu lại owner / vet / assistant
+        profileIdCache.ownerId(login).ifPresent(id -> builder.claim(AuthenticatedUser.OWNER_ID_CLAIM, id));
+        profileIdCache.vetId(login).ifPresent(id -> builder.claim(AuthenticatedUser.VET_ID_CLAIM, id));
+        profileIdCache.assistantId(login).ifPresent(id -> builder.claim(AuthenticatedUser.ASSISTANT_ID_CLAIM, id));
 
         JwsHeader jwsHeader = JwsHeader.with(org.springframework.security.oauth2.jose.jws.MacAlgorithm.HS256).build();
         return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, builder.build())).getTokenValue();
     }
 
+    private static String authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.joining(" "));
+    }
+
     static class JWTToken {
         private String idToken;
+        private String refreshToken;
 
-        JWTToken(String idToken) {
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -108,6 +172,15 @@ public class AuthenticateController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
 
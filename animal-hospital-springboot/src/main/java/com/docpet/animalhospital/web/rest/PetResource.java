@@ -1,11 +1,10 @@
 package com.docpet.animalhospital.web.rest;
 
-import com.docpet.animalhospital.domain.Owner;
 import com.docpet.animalhospital.domain.Pet;
-import com.docpet.animalhospital.repository.OwnerRepository;
 import com.docpet.animalhospital.repository.PetRepository;
 import com.docpet.animalhospital.security.SecurityUtils;
 import com.docpet.animalhospital.service.PetService;
+import com.docpet.animalhospital.service.ProfileIdCache;
 import com.docpet.animalhospital.service.dto.OwnerDTO;
 import com.docpet.animalhospital.service.dto.PetDTO;
 import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
@@ -31,12 +30,12 @@ public class PetResource {
 
     private final PetService petService;
     private final PetRepository petRepository;
-    private final OwnerRepository ownerRepository;
+    private final ProfileIdCache profileIdCache;
 
-    public PetResource(PetService petService, PetRepository petRepository, OwnerRepository ownerRepository) {
+    public PetResource(PetService petService, PetRepository petRepository, ProfileIdCache profileIdCache) {
         this.petService = petService;
         this.petRepository = petRepository;
-        this.ownerRepository = ownerRepository;
+        this.profileIdCache = profileIdCache;
     }
 
     @PostMapping("")
@@ -49,10 +48,10 @@ public class PetResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
         
-        Owner currentOwner = ownerRepository.findByUser_Login(currentUserLogin)
+        Long currentOwnerId = profileIdCache.currentOwnerId(currentUserLogin)
             .orElseThrow(() -> new BadRequestAlertException("Owner profile not found", ENTITY_NAME, "noowner"));
         
-        petDTO.setOwnerId(currentOwner.getId());
+        petDTO.setOwnerId(currentOwnerId);
         
         petDTO = petService.save(petDTO);
         return ResponseEntity.created(new URI("/api/pets/" + petDTO.getId())).body(petDTO);
@@ -1,20 +1,21 @@
 package com.docpet.animalhospital.web.rest;
 
 import com.docpet.animalhospital.domain.Appointment;
-import com.docpet.animalhospital.domain.AppointmentAction;
 import com.docpet.animalhospital.domain.AppointmentAssistant;
 import com.docpet.animalhospital.domain.Assistant;
-import com.docpet.animalhospital.repository.AppointmentActionRepository;
 import com.docpet.animalhospital.repository.AppointmentAssistantRepository;
 import com.docpet.animalhospital.repository.AppointmentRepository;
 import com.docpet.animalhospital.repository.AssistantRepository;
 import com.docpet.animalhospital.repository.UserRepository;
 import com.docpet.animalhospital.security.AuthoritiesConstants;
 import com.docpet.animalhospital.security.SecurityUtils;
+import com.docpet.animalhospital.service.AppointmentAccessCache;
 import com.docpet.animalhospital.service.AppointmentActionService;
-import com.docpet.animalhospital.service.AppointmentMessageService;
+import com.docpet.animalhospital.service.AppointmentCalendarIndex;
 import com.docpet.animalhospital.service.AppointmentService;
+import com.docpet.animalhospital.service.AppointmentWorkflowService;
 import com.docpet.animalhospital.service.LabTestService;
+import com.docpet.animalhospital.service.ProfileIdCache;
 import com.docpet.animalhospital.service.dto.AppointmentActionDTO;
 import com.docpet.animalhospital.service.dto.AppointmentDTO;
 import com.docpet.animalhospital.service.dto.LabTestDTO;
@@ -27,7 +28,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,34 +41,40 @@ public class VetWorkflowResource {
 
     private final AppointmentService appointmentService;
     private final AppointmentActionService appointmentActionService;
-    private final AppointmentMessageService appointmentMessageService;
+    private final AppointmentWorkflowService appointmentWorkflowService;
     private final LabTestService labTestService;
     private final AppointmentRepository appointmentRepository;
-    private final AppointmentActionRepository appointmentActionRepository;
+    private final AppointmentCalendarIndex appointmentCalendarIndex;
     private final AppointmentAssistantRepository appointmentAssistantRepository;
     private final UserRepository userRepository;
     private final AssistantRepository assistantRepository;
+    private final AppointmentAccessCache appointmentAccessCache;
+    private final ProfileIdCache profileIdCache;
 
     public VetWorkflowResource(
         AppointmentService appointmentService,
         AppointmentActionService appointmentActionService,
-        AppointmentMessageService appointmentMessageService,
+        AppointmentWorkflowService appointmentWorkflowService,
         LabTestService labTestService,
         AppointmentRepository appointmentRepository,
-        AppointmentActionRepository appointmentActionRepository,
+        AppointmentCalendarIndex appointmentCalendarIndex,
         AppointmentAssistantRepository appointmentAssistantRepository,
         UserRepository userRepository,
-        AssistantRepository assistantRepository
+        AssistantRepository assistantRepository,
+        AppointmentAccessCache appointmentAccessCache,
+        ProfileIdCache profileIdCache
     ) {
         this.appointmentService = appointmentService;
         this.appointmentActionService = appointmentActionService;
-        this.appointmentMessageService = appointmentMessageService;
+        this.appointmentWorkflowService = appointmentWorkflowService;
         this.labTestService = labTestService;
         this.appointmentRepository = appointmentRepository;
-        this.appointmentActionRepository = appointmentActionRepository;
+        this.appointmentCalendarIndex = appointmentCalendarIndex;
         this.appointmentAssistantRepository = appointmentAssistantRepository;
         this.userRepository = userRepository;
         this.assistantRepository = assistantRepository;
+        this.appointmentAccessCache = appointmentAccessCache;
+        this.profileIdCache = profileIdCache;
     }
 
     @GetMapping("/appointments/{id}/detail")
@@ -77,17 +83,19 @@ public class VetWorkflowResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
+        Optional<AppointmentAccessCache.AppointmentAccess> access = appointmentAccessCache.appointment(id);
+        if (access.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isCurrentVet(access.get(), currentUserLogin)) {
+            throw new BadRequestAlertException("You can only view your own appointments", ENTITY_NAME, "notauthorized");
+        }
+
         Optional<AppointmentDTO> appointmentDTO = appointmentService.findOne(id);
         if (appointmentDTO.isPresent()) {
-            Appointment appointment = appointmentRepository.findById(id).orElse(null);
-            if (appointment != null && appointment.getVet() != null && 
-                appointment.getVet().getUser().getLogin().equals(currentUserLogin)) {
-                AppointmentDTO dto = appointmentDTO.get();
-                dto.setVet(null); // Không hiển thị thông tin vet trong response
-                return ResponseEntity.ok().body(dto);
-            } else {
-                throw new BadRequestAlertException("You can only view your own appointments", ENTITY_NAME, "notauthorized");
-            }
+            AppointmentDTO dto = appointmentDTO.get();
+            dto.setVet(null); // Không hiển thị thông tin vet trong response
+            return ResponseEntity.ok().body(dto);
         }
         return ResponseEntity.notFound().build();
     }
@@ -128,73 +136,8 @@ public class VetWorkflowResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
-        // Load appointment entity với eager loading để giữ nguyên pet, vet, owner
-        Appointment appointment = appointmentRepository.findOneWithEagerRelationships(id)
-            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", ENTITY_NAME, "notfound"));
-        
-        // Lưu lại thông tin gốc của appointment trước khi thay đổi
-        ZonedDateTime originalTimeStart = appointment.getTimeStart();
-        ZonedDateTime originalTimeEnd = appointment.getTimeEnd();
-        String appointmentType = appointment.getAppointmentType();
-        
-        // Chỉ thay đổi thời gian bắt đầu
-        appointment.setTimeStart(rescheduleRequest.getNewTimeStart());
-        
-        // Tự động tính endTime dựa trên thời lượng của appointment gốc
-        if (originalTimeStart != null && originalTimeEnd != null) {
-            // Giữ nguyên thời lượng, chỉ thay đổi thời gian bắt đầu
-            java.time.Duration duration = java.time.Duration.between(originalTimeStart, originalTimeEnd);
-            appointment.setTimeEnd(rescheduleRequest.getNewTimeStart().plus(duration));
-        } else {
-            // Nếu appointment gốc không có timeEnd, tính dựa trên appointmentType
-            // EMERGENCY: 2 giờ, NORMAL: 1 giờ
-            int durationHours = "EMERGENCY".equals(appointmentType) ? 2 : 1;
-            appointment.setTimeEnd(rescheduleRequest.getNewTimeStart().plusHours(durationHours));
-        }
-        
-        appointment.setStatus("RESCHEDULED");
-        
-        // Thêm ghi chú vào appointment nếu có
-        if (rescheduleRequest.getNotes() != null && !rescheduleRequest.getNotes().trim().isEmpty()) {
-            String currentNotes = appointment.getNotes();
-            if (currentNotes != null && !currentNotes.trim().isEmpty()) {
-                // Thêm ghi chú mới vào cuối, cách nhau bởi 2 dòng mới để tách biệt rõ ràng
-                appointment.setNotes(currentNotes + "\n\n[Đổi lịch] " + rescheduleRequest.getNotes());
-            } else {
-                // Nếu chưa có ghi chú, thêm mới
-                appointment.setNotes("[Đổi lịch] " + rescheduleRequest.getNotes());
-            }
-        }
-        
-        // Save appointment (giữ nguyên pet, vet, owner)
-        appointment = appointmentRepository.save(appointment);
-        
-        // Tạo appointment action
-        appointmentActionService.createAppointmentAction(id, "RESCHEDULE", "COMPLETED", "Appointment rescheduled", rescheduleRequest.getNotes(), currentUserLogin, null);
-        
-        // Tự động gửi tin nhắn thông báo đổi lịch cho owner
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-            String newTimeStartFormatted = appointment.getTimeStart().format(formatter);
-            String newTimeEndFormatted = appointment.getTimeEnd() != null ? appointment.getTimeEnd().format(formatter) : "";
-            
-            StringBuilder messageBuilder = new StringBuilder();
-            messageBuilder.append("Lịch hẹn của bạn đã được đổi lịch.\n");
-            messageBuilder.append("Thời gian mới: ").append(newTimeStartFormatted);
-            if (!newTimeEndFormatted.isEmpty()) {
-                messageBuilder.append(" - ").append(newTimeEndFormatted);
-            }
-            
-            if (rescheduleRequest.getNotes() != null && !rescheduleRequest.getNotes().trim().isEmpty()) {
-                messageBuilder.append("\nGhi chú: ").append(rescheduleRequest.getNotes());
-            }
-            
-            appointmentMessageService.createMessage(id, messageBuilder.toString(), currentUserLogin);
-            LOG.debug("Sent reschedule notification message to owner for appointment: {}", id);
-        } catch (Exception e) {
-            // Log lỗi nhưng không làm gián đoạn luồng chính
-            LOG.warn("Failed to send reschedule notification message: {}", e.getMessage());
-        }
+        // Đổi lịch, tạo action và outbox event thông báo cho owner trong cùng một transaction
+        appointmentWorkflowService.reschedule(id, rescheduleRequest.getNewTimeStart(), rescheduleRequest.getNotes(), currentUserLogin);
         
         // Convert sang DTO để trả về
         AppointmentDTO updatedAppointment = appointmentService.findOne(id)
@@ -237,30 +180,13 @@ public class VetWorkflowResource {
         com.docpet.animalhospital.domain.User assistantUser = assistant.getUser();
 
         // Kiểm tra conflict: timeStart không được trùng nhau và phải cách nhau ít nhất 1 tiếng
-        List<AppointmentAction> existingAssignments = appointmentActionRepository
-            .findActiveAssignmentsByAssistantAndDate(assistantUser.getId(), appointment.getTimeStart());
-
-        for (AppointmentAction existingAction : existingAssignments) {
-            Appointment existingAppointment = existingAction.getAppointment();
-            // Bỏ qua appointment hiện tại đang được phân công
-            if (existingAppointment.getId().equals(id)) {
-                continue;
-            }
-
-            ZonedDateTime existingTimeStart = existingAppointment.getTimeStart();
-            ZonedDateTime newTimeStart = appointment.getTimeStart();
-
-            // Tính khoảng cách giữa 2 timeStart
-            long hoursDiff = Math.abs(java.time.Duration.between(existingTimeStart, newTimeStart).toHours());
-
-            // Kiểm tra: trùng giờ (cùng hour) hoặc cách nhau < 1 tiếng
-            if (existingTimeStart.getHour() == newTimeStart.getHour() || hoursDiff < 1) {
-                throw new BadRequestAlertException(
-                    "Trợ lý đã được phân công cho lịch hẹn khác vào thời gian này. TimeStart không được trùng nhau và phải cách nhau ít nhất 1 tiếng.",
-                    ENTITY_NAME,
-                    "assistantnotavailable"
-                );
-            }
+        // (bỏ qua appointment hiện tại đang được phân công)
+        if (!appointmentCalendarIndex.isAssistantAvailable(assistantUser.getId(), appointment.getTimeStart(), id)) {
+            throw new BadRequestAlertException(
+                "Trợ lý đã được phân công cho lịch hẹn khác vào thời gian này. TimeStart không được trùng nhau và phải cách nhau ít nhất 1 tiếng.",
+                ENTITY_NAME,
+                "assistantnotavailable"
+            );
         }
 
         // Tạo appointment action (lưu vào bảng appointment_action)
@@ -284,6 +210,7 @@ public class VetWorkflowResource {
             appointmentAssistant.setAssistant(assistant);
             appointmentAssistant.setCreatedAt(ZonedDateTime.now());
             appointmentAssistantRepository.save(appointmentAssistant);
+            appointmentAccessCache.appointmentChanged(id);
             LOG.debug("Saved appointment_assistant record: appointmentId={}, assistantId={}", id, assistant.getId());
         } else {
             LOG.debug("Appointment assistant relationship already exists: appointmentId={}, assistantId={}", id, assistant.getId());
@@ -300,37 +227,8 @@ public class VetWorkflowResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
-        // Load appointment với eager loading để giữ nguyên pet, vet, owner
-        Appointment appointment = appointmentRepository.findOneWithEagerRelationships(id)
-            .orElseThrow(() -> new BadRequestAlertException("Appointment not found", ENTITY_NAME, "notfound"));
-        
-        // Chỉ update locationType, giữ nguyên các relationships
-        appointment.setLocationType("AT_HOME");
-        appointment = appointmentRepository.save(appointment);
-
-        AppointmentActionDTO actionDTO = appointmentActionService.createAppointmentAction(
-            id, 
-            "REQUEST_HOME_VISIT", 
-            "PENDING", 
-            "Home visit requested", 
-            homeVisitRequest.getNotes(), 
-            currentUserLogin,
-            null
-        );
-        
-        // Tự động gửi tin nhắn thông báo yêu cầu khám tại nhà cho owner
-        try {
-            String messageContent = "Bác sĩ đã yêu cầu thăm khám tại nhà cho lịch hẹn này.";
-            if (homeVisitRequest.getNotes() != null && !homeVisitRequest.getNotes().trim().isEmpty()) {
-                messageContent += "\nGhi chú: " + homeVisitRequest.getNotes();
-            }
-            
-            appointmentMessageService.createMessage(id, messageContent, currentUserLogin);
-            LOG.debug("Sent home visit request notification message to owner for appointment: {}", id);
-        } catch (Exception e) {
-            // Log lỗi nhưng không làm gián đoạn luồng chính
-            LOG.warn("Failed to send home visit request notification message: {}", e.getMessage());
-        }
+        // Cập nhật locationType, tạo action và outbox event thông báo cho owner trong cùng một transaction
+        AppointmentActionDTO actionDTO = appointmentWorkflowService.requestHomeVisit(id, homeVisitRequest.getNotes(), currentUserLogin);
         
         return ResponseEntity.ok().body(actionDTO);
     }
@@ -361,10 +259,10 @@ public class VetWorkflowResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
-        Appointment appointment = appointmentRepository.findById(id)
+        AppointmentAccessCache.AppointmentAccess access = appointmentAccessCache.appointment(id)
             .orElseThrow(() -> new BadRequestAlertException("Appointment not found", ENTITY_NAME, "notfound"));
         
-        if (appointment.getVet() == null || !appointment.getVet().getUser().getLogin().equals(currentUserLogin)) {
+        if (!isCurrentVet(access, currentUserLogin)) {
             throw new BadRequestAlertException("You can only view actions for your own appointments", ENTITY_NAME, "notauthorized");
         }
 
@@ -378,10 +276,10 @@ public class VetWorkflowResource {
         String currentUserLogin = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "noauth"));
 
-        Appointment appointment = appointmentRepository.findById(id)
+        AppointmentAccessCache.AppointmentAccess access = appointmentAccessCache.appointment(id)
             .orElseThrow(() -> new BadRequestAlertException("Appointment not found", ENTITY_NAME, "notfound"));
         
-        if (appointment.getVet() == null || !appointment.getVet().getUser().getLogin().equals(currentUserLogin)) {
+        if (!isCurrentVet(access, currentUserLogin)) {
             throw new BadRequestAlertException("You can only view lab tests for your own appointments", ENTITY_NAME, "notauthorized");
         }
 
@@ -389,6 +287,11 @@ public class VetWorkflowResource {
         return ResponseEntity.ok().body(labTests);
     }
 
+    // So sánh user id của caller với vet user id của appointment
+    private boolean isCurrentVet(AppointmentAccessCache.AppointmentAccess access, String currentUserLogin) {
+        return access.isVet(profileIdCache.currentUserId(currentUserLogin).orElse(null));
+    }
+
     // Request DTOs
     public static class RescheduleRequest {
         private ZonedDateTime newTimeStart;
@@ -8,7 +8,9 @@ import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -27,6 +29,19 @@ public class ExceptionTranslator {
         return createBadRequestResponse(ex);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("params", ex.getEntityName());
+        log.warn("Service unavailable: {}", ex.getMessage());
+        // Content-Type cố định: request có thể đến từ endpoint text/event-stream
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Map<String, Object>> handleInvalidPasswordException(InvalidPasswordException ex) {
         Map<String, Object> body = new HashMap<>();
@@ -0,0 +1,32 @@
+package com.docpet.animalhospital.web.rest.errors;
+
+/**
+ * Node đang quá tải (hết chỗ cho kết nối / tác vụ mới), trả về 503 kèm Retry-After.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+    private final String errorKey;
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String defaultMessage, String entityName, String errorKey, long retryAfterSeconds) {
+        super(defaultMessage);
+        this.entityName = entityName;
+        this.errorKey = errorKey;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
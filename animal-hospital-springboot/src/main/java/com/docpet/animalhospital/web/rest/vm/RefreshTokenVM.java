@@ -0,0 +1,23 @@
+package com.docpet.animalhospital.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class RefreshTokenVM {
+
+    @NotNull
+    @Size(min = 1, max = 100)
+    @JsonProperty("refresh_token")
+    @JsonAlias("refreshToken")
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,23 @@
+package com.docpet.animalhospital;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Full application context on the {@code test} profile (H2 in-memory, see
+ * {@code application-test.yml}) with a {@code MockMvc} that runs the whole filter chain. All test
+ * classes with this annotation share one context and one database, so each test creates its own
+ * data with unique logins.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(classes = AnimalHospitalApp.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public @interface IntegrationTest {
+}
@@ -0,0 +1,67 @@
+package com.docpet.animalhospital.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * SQL statement budgets in integration tests, as enforced by {@link QueryCountFilter}.
+ * <p>
+ * Every request a test makes is checked against its {@code query-budget} entry (or the default
+ * budget) and the {@code repeat-threshold}: the filter counts violations in
+ * {@code sql.budget.exceeded}, and the test fails if that counter moved while it ran. A test that
+ * pins a single request to a tighter number reads it with {@link #queryCount(MvcResult)}, from the
+ * {@code X-Query-Count} header.
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+    private static final String EXCEEDED_BEFORE = "exceededBefore";
+
+    /** SQL statements executed by the request, including those of the security filters. */
+    public static int queryCount(MvcResult result) {
+        String header = result.getResponse().getHeader(QueryCountFilter.QUERY_COUNT_HEADER);
+        assertThat(header).as("%s header of %s", QueryCountFilter.QUERY_COUNT_HEADER, result.getRequest().getRequestURI()).isNotNull();
+        return Integer.parseInt(header);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(EXCEEDED_BEFORE, exceeded(meterRegistry(context)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterEach(ExtensionContext context) {
+        Map<String, Double> before = context.getStore(NAMESPACE).remove(EXCEEDED_BEFORE, Map.class);
+        Map<String, Double> after = exceeded(meterRegistry(context));
+        Map<String, Double> violations = new TreeMap<>();
+        after.forEach((key, count) -> {
+            double added = count - before.getOrDefault(key, 0d);
+            if (added > 0) {
+                violations.put(key, added);
+            }
+        });
+        assertThat(violations).as("requests over their SQL budget (see the QueryCountFilter warnings)").isEmpty();
+    }
+
+    private static Map<String, Double> exceeded(MeterRegistry meterRegistry) {
+        Map<String, Double> counts = new TreeMap<>();
+        for (Counter counter : meterRegistry.find("sql.budget.exceeded").counters()) {
+            counts.put(counter.getId().getTag("endpoint") + " reason=" + counter.getId().getTag("reason"), counter.count());
+        }
+        return counts;
+    }
+
+    private static MeterRegistry meterRegistry(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(MeterRegistry.class);
+    }
+}
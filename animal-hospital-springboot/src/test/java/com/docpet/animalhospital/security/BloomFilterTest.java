@@ -0,0 +1,64 @@
+package com.docpet.animalhospital.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        String[] keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.add(keys[i]);
+        }
+
+        for (String key : keys) {
+            assertThat(filter.mightContain(key)).as(key).isTrue();
+        }
+        assertThat(filter.entries()).isEqualTo(keys.length);
+    }
+
+    @Test
+    void neverMissesAnAddedKeyWhenOverfilled() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.add("user:" + i);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(filter.mightContain("user:" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain(UUID.randomUUID().toString())).isFalse();
+        assertThat(filter.expectedFalsePositiveRate()).isZero();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("jti-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+}
@@ -0,0 +1,89 @@
+package com.docpet.animalhospital.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // Giá trị bất kỳ, System.nanoTime() có thể âm
+    private static final long T0 = -5_000 * SECOND;
+
+    @Test
+    void allowsBurstUpToCapacityThenAsksToWaitOneInterval() {
+        // 60 token / phút: mỗi giây hồi một token
+        TokenBucket bucket = new TokenBucket(3, 60, T0);
+
+        assertThat(bucket.tryConsume(T0)).isZero();
+        assertThat(bucket.tryConsume(T0)).isZero();
+        assertThat(bucket.tryConsume(T0)).isZero();
+        assertThat(bucket.tryConsume(T0)).isEqualTo(SECOND);
+        assertThat(bucket.tryConsume(T0 + SECOND / 4)).isEqualTo(SECOND * 3 / 4);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, 60, T0);
+        bucket.tryConsume(T0);
+        bucket.tryConsume(T0);
+
+        assertThat(bucket.tryConsume(T0 + SECOND)).isZero();
+        assertThat(bucket.tryConsume(T0 + SECOND)).isEqualTo(SECOND);
+        assertThat(bucket.tryConsume(T0 + 2 * SECOND)).isZero();
+    }
+
+    @Test
+    void rejectedRequestDoesNotTakeAToken() {
+        TokenBucket bucket = new TokenBucket(1, 60, T0);
+        bucket.tryConsume(T0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryConsume(T0)).isEqualTo(SECOND);
+        }
+
+        assertThat(bucket.tryConsume(T0 + SECOND)).isZero();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 60, T0);
+        long later = T0 + 3_600 * SECOND;
+
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void isIdleOnceFullAgain() {
+        TokenBucket bucket = new TokenBucket(2, 60, T0);
+        bucket.tryConsume(T0);
+        bucket.tryConsume(T0);
+
+        assertThat(bucket.isIdleSince(T0 + SECOND)).isFalse();
+        assertThat(bucket.isIdleSince(T0 + 2 * SECOND + 1)).isTrue();
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertThat(RateLimitFilter.retryAfterSeconds(1)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(SECOND - 1)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(SECOND)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(SECOND + 1)).isEqualTo(2);
+        assertThat(RateLimitFilter.retryAfterSeconds(12 * SECOND)).isEqualTo(12);
+    }
+
+    @Test
+    void retryAfterMatchesTheBucketWait() {
+        // 5 token / phút: một token mỗi 12 giây
+        TokenBucket bucket = new TokenBucket(1, 5, T0);
+        bucket.tryConsume(T0);
+
+        long wait = bucket.tryConsume(T0 + 500_000_000L);
+
+        assertThat(RateLimitFilter.retryAfterSeconds(wait)).isEqualTo(12);
+        assertThat(bucket.tryConsume(T0 + 500_000_000L + TimeUnit.SECONDS.toNanos(RateLimitFilter.retryAfterSeconds(wait)))).isZero();
+    }
+}
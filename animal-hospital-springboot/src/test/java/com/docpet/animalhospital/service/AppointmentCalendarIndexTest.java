@@ -0,0 +1,188 @@
+package com.docpet.animalhospital.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.docpet.animalhospital.repository.AppointmentActionRepository;
+import com.docpet.animalhospital.repository.AppointmentRepository;
+import com.docpet.animalhospital.repository.VetRepository;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Conflict boundaries of the 60-minute rule: 59 minutes apart conflicts, 60 and 61 do not, also
+ * when the two times fall on different UTC days (different buckets of the index).
+ */
+class AppointmentCalendarIndexTest {
+
+    private static final long VET_ID = 21L;
+    private static final long ASSISTANT_USER_ID = 301L;
+    private static final ZonedDateTime DAY = ZonedDateTime.of(2026, 3, 10, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final List<AppointmentRepository.TimeSlot> vetSlots = new ArrayList<>();
+    private final List<AppointmentActionRepository.AssignmentSlot> assistantSlots = new ArrayList<>();
+
+    private AppointmentCalendarIndex calendarIndex;
+
+    @BeforeEach
+    void setUp() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        AppointmentActionRepository appointmentActionRepository = mock(AppointmentActionRepository.class);
+        // Repository trả về các lịch trong khoảng [from, to) như query thật
+        when(appointmentRepository.findActiveTimeSlotsForVet(anyLong(), any(), any())).thenAnswer(invocation ->
+            vetSlots
+                .stream()
+                .filter(slot -> invocation.getArgument(0).equals(VET_ID))
+                .filter(slot -> inRange(slot.getTimeStart(), invocation.getArgument(1), invocation.getArgument(2)))
+                .toList()
+        );
+        when(appointmentActionRepository.findActiveAssignmentSlotsForAssistant(anyLong(), any(), any())).thenAnswer(invocation ->
+            assistantSlots
+                .stream()
+                .filter(slot -> slot.getAssignedToId().equals(invocation.getArgument(0)))
+                .filter(slot -> inRange(slot.getTimeStart(), invocation.getArgument(1), invocation.getArgument(2)))
+                .toList()
+        );
+        calendarIndex = new AppointmentCalendarIndex(appointmentRepository, appointmentActionRepository, mock(VetRepository.class));
+    }
+
+    @ParameterizedTest(name = "vet booked 10:00, new {0} -> available={1}")
+    @CsvSource({ "10:59, false", "11:00, true", "11:01, true", "09:01, false", "09:00, true", "08:59, true", "10:00, false" })
+    void vetSixtyMinuteBoundaries(String time, boolean available) {
+        bookVet(1L, DAY.withHour(10));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID, at(DAY, time), null)).isEqualTo(available);
+    }
+
+    @ParameterizedTest(name = "assistant booked 10:00, new {0} -> available={1}")
+    @CsvSource({ "10:59, false", "11:00, true", "11:01, true", "09:01, false", "09:00, true", "08:59, true", "10:00, false" })
+    void assistantSixtyMinuteBoundaries(String time, boolean available) {
+        assignAssistant(1L, DAY.withHour(10));
+
+        assertThat(calendarIndex.isAssistantAvailable(ASSISTANT_USER_ID, at(DAY, time), null)).isEqualTo(available);
+    }
+
+    @ParameterizedTest(name = "vet booked 23:30, new {0} next day -> available={1}")
+    @CsvSource({ "00:29, false", "00:30, true", "00:31, true" })
+    void vetBoundariesAfterUtcMidnight(String time, boolean available) {
+        bookVet(1L, DAY.withHour(23).withMinute(30));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID, at(DAY.plusDays(1), time), null)).isEqualTo(available);
+    }
+
+    @ParameterizedTest(name = "vet booked 00:15 next day, new {0} -> available={1}")
+    @CsvSource({ "23:16, false", "23:15, true", "23:14, true" })
+    void vetBoundariesBeforeUtcMidnight(String time, boolean available) {
+        bookVet(1L, DAY.plusDays(1).withMinute(15));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID, at(DAY, time), null)).isEqualTo(available);
+    }
+
+    @ParameterizedTest(name = "assistant booked 23:30, new {0} next day -> available={1}")
+    @CsvSource({ "00:29, false", "00:30, true", "00:31, true" })
+    void assistantBoundariesAfterUtcMidnight(String time, boolean available) {
+        assignAssistant(1L, DAY.withHour(23).withMinute(30));
+
+        assertThat(calendarIndex.isAssistantAvailable(ASSISTANT_USER_ID, at(DAY.plusDays(1), time), null)).isEqualTo(available);
+    }
+
+    @Test
+    void localMidnightIsNotTheBucketBoundary() {
+        // 23:30 và 00:29 giờ Việt Nam cùng một ngày UTC, vẫn cách nhau 59 phút
+        ZoneId saigon = ZoneId.of("Asia/Ho_Chi_Minh");
+        bookVet(1L, ZonedDateTime.of(2026, 3, 10, 23, 30, 0, 0, saigon));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID, ZonedDateTime.of(2026, 3, 11, 0, 29, 0, 0, saigon), null)).isFalse();
+        assertThat(calendarIndex.isVetAvailable(VET_ID, ZonedDateTime.of(2026, 3, 11, 0, 30, 0, 0, saigon), null)).isTrue();
+    }
+
+    @Test
+    void vetStartOffTheSlotGridBlocksWholeSlots() {
+        // Lịch bác sĩ làm tròn theo slot 15 phút như appointment_slot; lịch assistant thì không
+        bookVet(1L, DAY.withHour(10).withMinute(5));
+        assignAssistant(1L, DAY.withHour(10).withMinute(5));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID, DAY.withHour(11).withMinute(5), null)).isFalse();
+        assertThat(calendarIndex.isVetAvailable(VET_ID, DAY.withHour(11).withMinute(15), null)).isTrue();
+        assertThat(calendarIndex.isAssistantAvailable(ASSISTANT_USER_ID, DAY.withHour(11).withMinute(5), null)).isTrue();
+    }
+
+    @Test
+    void ignoresTheAppointmentBeingUpdated() {
+        bookVet(1L, DAY.withHour(10));
+        assignAssistant(1L, DAY.withHour(10));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID, DAY.withHour(10).withMinute(30), 1L)).isTrue();
+        assertThat(calendarIndex.isVetAvailable(VET_ID, DAY.withHour(10).withMinute(30), 2L)).isFalse();
+        assertThat(calendarIndex.isAssistantAvailable(ASSISTANT_USER_ID, DAY.withHour(10).withMinute(30), 1L)).isTrue();
+    }
+
+    @Test
+    void otherVetIsNotBlocked() {
+        bookVet(1L, DAY.withHour(10));
+
+        assertThat(calendarIndex.isVetAvailable(VET_ID + 1, DAY.withHour(10), null)).isTrue();
+    }
+
+    private void bookVet(Long appointmentId, ZonedDateTime timeStart) {
+        vetSlots.add(new TimeSlot(appointmentId, timeStart));
+    }
+
+    private void assignAssistant(Long appointmentId, ZonedDateTime timeStart) {
+        assistantSlots.add(new AssignmentSlot(1000L + appointmentId, appointmentId, ASSISTANT_USER_ID, timeStart));
+    }
+
+    private static ZonedDateTime at(ZonedDateTime day, String time) {
+        String[] parts = time.split(":");
+        return day.withHour(Integer.parseInt(parts[0])).withMinute(Integer.parseInt(parts[1]));
+    }
+
+    private static boolean inRange(ZonedDateTime time, ZonedDateTime from, ZonedDateTime to) {
+        return !time.isBefore(from) && time.isBefore(to);
+    }
+
+    private record TimeSlot(Long id, ZonedDateTime timeStart) implements AppointmentRepository.TimeSlot {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public ZonedDateTime getTimeStart() {
+            return timeStart;
+        }
+    }
+
+    private record AssignmentSlot(Long id, Long appointmentId, Long assignedToId, ZonedDateTime timeStart)
+        implements AppointmentActionRepository.AssignmentSlot {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getAppointmentId() {
+            return appointmentId;
+        }
+
+        @Override
+        public Long getAssignedToId() {
+            return assignedToId;
+        }
+
+        @Override
+        public ZonedDateTime getTimeStart() {
+            return timeStart;
+        }
+    }
+}
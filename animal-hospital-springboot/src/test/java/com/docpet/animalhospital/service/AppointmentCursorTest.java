@@ -0,0 +1,99 @@
+package com.docpet.animalhospital.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.docpet.animalhospital.service.dto.AppointmentSummaryDTO;
+import com.docpet.animalhospital.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AppointmentCursorTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T08:15:30.123Z");
+
+    @Test
+    void firstPageRoundTrips() {
+        AppointmentCursor decoded = AppointmentCursor.decode(AppointmentCursor.first(NOW).encode());
+
+        assertThat(decoded.isPast()).isFalse();
+        assertThat(decoded.getTimeStart()).isEqualTo(NOW.atZone(ZoneOffset.UTC));
+        assertThat(decoded.getId()).isZero();
+    }
+
+    @Test
+    void cursorAfterAnAppointmentRoundTrips() {
+        AppointmentSummaryDTO appointment = new AppointmentSummaryDTO();
+        appointment.setId(4242L);
+        appointment.setTimeStart(ZonedDateTime.of(2026, 3, 11, 16, 30, 0, 0, ZoneId.of("Asia/Ho_Chi_Minh")));
+
+        AppointmentCursor cursor = AppointmentCursor.first(NOW).after(appointment);
+        AppointmentCursor decoded = AppointmentCursor.decode(cursor.encode());
+
+        assertThat(decoded.isPast()).isFalse();
+        assertThat(decoded.getId()).isEqualTo(4242L);
+        assertThat(decoded.getTimeStart().toInstant()).isEqualTo(Instant.parse("2026-03-11T09:30:00Z"));
+        assertThat(decoded.encode()).isEqualTo(cursor.encode());
+    }
+
+    @Test
+    void pastPhaseKeepsTheBoundary() {
+        AppointmentSummaryDTO appointment = new AppointmentSummaryDTO();
+        appointment.setId(7L);
+        appointment.setTimeStart(ZonedDateTime.of(2026, 3, 1, 9, 0, 0, 0, ZoneOffset.UTC));
+
+        AppointmentCursor startPast = AppointmentCursor.decode(AppointmentCursor.first(NOW).encode()).startPast();
+        AppointmentCursor decoded = AppointmentCursor.decode(startPast.after(appointment).encode());
+
+        assertThat(startPast.isPast()).isTrue();
+        assertThat(startPast.getTimeStart().toInstant()).isEqualTo(NOW);
+        assertThat(decoded.isPast()).isTrue();
+        assertThat(decoded.getId()).isEqualTo(7L);
+        // Boundary cố định từ trang đầu: startPast() của cursor sau vẫn quay về NOW
+        assertThat(decoded.startPast().getTimeStart().toInstant()).isEqualTo(NOW);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        assertThat(AppointmentCursor.first(NOW).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "",
+            "not base64!",
+            "2|U|2026-03-10T08:15:30Z|2026-03-10T08:15:30Z|0",
+            "1|X|2026-03-10T08:15:30Z|2026-03-10T08:15:30Z|0",
+            "1|U|2026-03-10T08:15:30Z|2026-03-10T08:15:30Z",
+            "1|U|2026-03-10T08:15:30Z|2026-03-10T08:15:30Z|0|1",
+            "1|U|yesterday|2026-03-10T08:15:30Z|0",
+            "1|P|2026-03-10T08:15:30Z|2026-03-10T08:15:30Z|abc",
+            "1|P|2026-03-10T08:15:30Z|2026-03-10T08:15:30Z|99999999999999999999",
+        }
+    )
+    void rejectsTamperedCursor(String raw) {
+        String value = raw.equals("not base64!")
+            ? raw
+            : Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> AppointmentCursor.decode(value))
+            .isInstanceOf(BadRequestAlertException.class)
+            .hasFieldOrPropertyWithValue("errorKey", "invalidcursor");
+    }
+
+    @Test
+    void rejectsCursorWithFlippedCharacter() {
+        String encoded = AppointmentCursor.first(NOW).encode();
+        String tampered = (encoded.charAt(0) == 'A' ? 'B' : 'A') + encoded.substring(1);
+
+        assertThatThrownBy(() -> AppointmentCursor.decode(tampered)).isInstanceOf(BadRequestAlertException.class);
+    }
+}
@@ -0,0 +1,117 @@
+package com.docpet.animalhospital.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+    private final Map<String, Long> database = new HashMap<>();
+    private final List<String> loads = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Function<String, Long> loader;
+
+    @BeforeEach
+    void setUp() {
+        database.put("owner1", 11L);
+        database.put("owner2", 12L);
+        database.put("owner3", 13L);
+        loader = login -> {
+            loads.add(login);
+            return database.get(login);
+        };
+    }
+
+    @Test
+    void loadsOnceThenServesFromCache() {
+        BoundedCache<String, Long> cache = cache(10, 60_000);
+
+        assertThat(cache.get("owner1")).contains(11L);
+        assertThat(cache.get("owner1")).contains(11L);
+
+        assertThat(loads).containsExactly("owner1");
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cachesNotFound() {
+        BoundedCache<String, Long> cache = cache(10, 60_000);
+
+        assertThat(cache.get("nobody")).isEmpty();
+        assertThat(cache.get("nobody")).isEmpty();
+
+        assertThat(loads).containsExactly("nobody");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        BoundedCache<String, Long> cache = cache(2, 60_000);
+        cache.get("owner1");
+        cache.get("owner2");
+        cache.get("owner1");
+        cache.get("owner3");
+
+        cache.get("owner1");
+        cache.get("owner2");
+
+        assertThat(loads).containsExactly("owner1", "owner2", "owner3", "owner2");
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void reloadsAfterTtl() throws InterruptedException {
+        BoundedCache<String, Long> cache = cache(10, 20);
+        cache.get("owner1");
+        Thread.sleep(50);
+
+        cache.get("owner1");
+
+        assertThat(loads).containsExactly("owner1", "owner1");
+    }
+
+    @Test
+    void reloadsAfterEvictAndClear() {
+        BoundedCache<String, Long> cache = cache(10, 60_000);
+        cache.get("owner1");
+        cache.get("owner2");
+        database.put("owner1", 21L);
+
+        cache.evict("owner1");
+
+        assertThat(cache.get("owner1")).contains(21L);
+        assertThat(cache.get("owner2")).contains(12L);
+        cache.clear();
+        assertThat(cache.get("owner2")).contains(12L);
+        assertThat(loads).containsExactly("owner1", "owner2", "owner1", "owner2");
+    }
+
+    @Test
+    void loadRacingAnEvictIsNotCached() {
+        AtomicReference<BoundedCache<String, Long>> cache = new AtomicReference<>();
+        // Evict xảy ra trong lúc đang load: giá trị cũ vừa đọc không được ghi vào cache
+        loader = login -> {
+            loads.add(login);
+            Long stale = database.put(login, 21L);
+            cache.get().evict(login);
+            return stale;
+        };
+        cache.set(cache(10, 60_000));
+
+        assertThat(cache.get().get("owner1")).contains(11L);
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isZero();
+    }
+
+    private BoundedCache<String, Long> cache(int maxEntries, long ttlMillis) {
+        return new BoundedCache<>("test", maxEntries, ttlMillis, login -> loader.apply(login), meterRegistry);
+    }
+}
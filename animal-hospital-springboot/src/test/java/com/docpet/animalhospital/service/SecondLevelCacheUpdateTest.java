@@ -0,0 +1,185 @@
+package com.docpet.animalhospital.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.CacheRegionsEndpoint;
+import com.docpet.animalhospital.config.CacheRegionsEndpoint.RegionStats;
+import com.docpet.animalhospital.domain.Owner;
+import com.docpet.animalhospital.domain.Pet;
+import com.docpet.animalhospital.domain.Vet;
+import com.docpet.animalhospital.repository.OwnerRepository;
+import com.docpet.animalhospital.repository.VetRepository;
+import com.docpet.animalhospital.service.dto.AdminUserDTO;
+import com.docpet.animalhospital.service.dto.OwnerDTO;
+import com.docpet.animalhospital.service.dto.PetDTO;
+import com.docpet.animalhospital.service.dto.VetDTO;
+import com.docpet.animalhospital.web.rest.vm.VetRegistrationVM;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Updates through the services must leave the second-level cache ({@code LocalRegionFactory}) in
+ * step with the database: the cached version is replaced by a soft lock during the transaction and
+ * the new version is put after commit, so a read from a new session is a cache hit that already
+ * returns the new values.
+ */
+@IntegrationTest
+class SecondLevelCacheUpdateTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    // READ_WRITE: một put cho soft lock (thay bản cũ), một put cho bản mới sau commit
+    private static final long PUTS_PER_UPDATE = 2;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VetService vetService;
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private VetRepository vetRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private CacheRegionsEndpoint cacheRegionsEndpoint;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void vetUpdateReplacesCachedVersion() {
+        Long vetId = createVet();
+        assertThat(readInNewSession(Vet.class, vetId, Vet::getLicenseNo)).isEqualTo("LIC-" + SEQUENCE.get());
+
+        RegionStats before = stats("vet");
+        VetDTO update = new VetDTO();
+        update.setId(vetId);
+        update.setLicenseNo("LIC-UPDATED");
+        update.setSpecialization("Cardiology");
+        vetService.update(update);
+        RegionStats afterUpdate = stats("vet");
+
+        assertThat(afterUpdate.puts() - before.puts()).isEqualTo(PUTS_PER_UPDATE);
+        assertThat(readInNewSession(Vet.class, vetId, vet -> vet.getLicenseNo() + "/" + vet.getSpecialization())).isEqualTo(
+            "LIC-UPDATED/Cardiology"
+        );
+        assertCacheHit("vet", afterUpdate);
+        assertThat(jdbcTemplate.queryForObject("select license_no from vet where id = ?", String.class, vetId)).isEqualTo("LIC-UPDATED");
+    }
+
+    @Test
+    void ownerUpdateReplacesCachedVersion() {
+        Long ownerId = createOwner();
+        assertThat(readInNewSession(Owner.class, ownerId, Owner::getPhone)).isEmpty();
+
+        RegionStats before = stats("owner");
+        OwnerDTO update = new OwnerDTO();
+        update.setId(ownerId);
+        update.setName("Nguyễn Văn Bình");
+        update.setPhone("0901234567");
+        update.setAddress("12 Lê Lợi, Quận 1");
+        ownerService.update(update);
+        RegionStats afterUpdate = stats("owner");
+
+        assertThat(afterUpdate.puts() - before.puts()).isEqualTo(PUTS_PER_UPDATE);
+        assertThat(readInNewSession(Owner.class, ownerId, owner -> owner.getName() + "/" + owner.getPhone() + "/" + owner.getAddress())).isEqualTo(
+            "Nguyễn Văn Bình/0901234567/12 Lê Lợi, Quận 1"
+        );
+        assertCacheHit("owner", afterUpdate);
+        assertThat(jdbcTemplate.queryForObject("select phone from owner where id = ?", String.class, ownerId)).isEqualTo("0901234567");
+    }
+
+    @Test
+    void petPartialUpdateReplacesCachedVersion() {
+        PetDTO pet = new PetDTO();
+        pet.setName("Milu");
+        pet.setSpecies("Dog");
+        pet.setOwnerId(createOwner());
+        Long petId = petService.save(pet).getId();
+        assertThat(readInNewSession(Pet.class, petId, Pet::getName)).isEqualTo("Milu");
+
+        RegionStats before = stats("pet");
+        PetDTO update = new PetDTO();
+        update.setId(petId);
+        update.setWeight(new BigDecimal("7.50"));
+        update.setNotes("Dị ứng thịt gà");
+        petService.partialUpdate(update);
+        RegionStats afterUpdate = stats("pet");
+
+        assertThat(afterUpdate.puts() - before.puts()).isEqualTo(PUTS_PER_UPDATE);
+        assertThat(readInNewSession(Pet.class, petId, p -> p.getName() + "/" + p.getWeight() + "/" + p.getNotes())).isEqualTo(
+            "Milu/7.50/Dị ứng thịt gà"
+        );
+        assertCacheHit("pet", afterUpdate);
+        assertThat(jdbcTemplate.queryForObject("select notes from pet where id = ?", String.class, petId)).isEqualTo("Dị ứng thịt gà");
+    }
+
+    private Long createVet() {
+        int n = SEQUENCE.incrementAndGet();
+        VetRegistrationVM vm = new VetRegistrationVM();
+        vm.setLogin("cachevet" + n);
+        vm.setEmail("cachevet" + n + "@example.com");
+        vm.setFirstName("Vet");
+        vm.setLastName("Cache");
+        vm.setLangKey("vi");
+        vm.setLicenseNo("LIC-" + n);
+        vm.setSpecialization("Surgery");
+        userService.registerVet(vm, "secret123");
+        return vetRepository.findByUser_Login("cachevet" + n).orElseThrow().getId();
+    }
+
+    private Long createOwner() {
+        int n = SEQUENCE.incrementAndGet();
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin("cacheowner" + n);
+        user.setEmail("cacheowner" + n + "@example.com");
+        user.setFirstName("Owner");
+        user.setLastName("Cache");
+        user.setLangKey("vi");
+        userService.registerUser(user, "secret123");
+        return ownerRepository.findByUser_Login("cacheowner" + n).orElseThrow().getId();
+    }
+
+    // Session mới, không dùng persistence context của service
+    private <T> String readInNewSession(Class<T> type, Long id, Function<T, String> read) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return read.apply(entityManager.find(type, id));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    // Lần đọc vừa rồi lấy từ cache (không query lại DB) mà vẫn thấy giá trị mới
+    private void assertCacheHit(String region, RegionStats afterUpdate) {
+        RegionStats afterRead = stats(region);
+        assertThat(afterRead.hits() - afterUpdate.hits()).isEqualTo(1);
+        assertThat(afterRead.misses()).isEqualTo(afterUpdate.misses());
+    }
+
+    private RegionStats stats(String region) {
+        Map<String, RegionStats> regions = cacheRegionsEndpoint.regions();
+        assertThat(regions).containsKey(region);
+        return regions.get(region);
+    }
+}
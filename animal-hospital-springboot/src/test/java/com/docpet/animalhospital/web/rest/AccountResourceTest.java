@@ -0,0 +1,62 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class AccountResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void register() throws Exception {
+        Map<String, Object> vet = ApiFixtures.registration(ApiFixtures.nextLogin("vet"));
+        vet.put("licenseNumber", "LIC-" + vet.get("login"));
+
+        MvcResult owner = api.call(post("/api/register"), null, ApiFixtures.registration(ApiFixtures.nextLogin("owner")));
+        MvcResult registeredVet = api.call(post("/api/register-vet"), null, vet);
+
+        assertThat(queryCount(owner)).isLessThanOrEqualTo(5);
+        assertThat(queryCount(registeredVet)).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void getAndSaveAccount() throws Exception {
+        Account owner = api.owner();
+        Map<String, Object> account = ApiFixtures.registration(owner.login());
+        account.remove("password");
+        account.put("firstName", "Bình");
+
+        MvcResult read = api.call(get("/api/account"), owner);
+        MvcResult save = api.call(post("/api/account"), owner, account);
+
+        assertThat(queryCount(read)).isLessThanOrEqualTo(1);
+        assertThat(queryCount(save)).isLessThanOrEqualTo(4);
+    }
+}
@@ -0,0 +1,176 @@
+package com.docpet.animalhospital.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.docpet.animalhospital.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Creates accounts, pets, appointments and assignments through the REST API, the way the client
+ * does, for tests that share one database: logins are unique and every vet gets its own calendar.
+ */
+class ApiFixtures {
+
+    static final String PASSWORD = "secret123";
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    ApiFixtures(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    Account owner() throws Exception {
+        String login = nextLogin("owner");
+        call(post("/api/register"), null, registration(login));
+        return login(login);
+    }
+
+    Account vet() throws Exception {
+        String login = nextLogin("vet");
+        Map<String, Object> body = registration(login);
+        body.put("licenseNumber", "LIC-" + login);
+        body.put("specialization", "Surgery");
+        call(post("/api/register-vet"), null, body);
+        return login(login);
+    }
+
+    Account assistant(Account vet) throws Exception {
+        String login = nextLogin("assistant");
+        call(post("/api/vets/assistants"), vet, registration(login));
+        return login(login);
+    }
+
+    Account login(String login) throws Exception {
+        JsonNode response = json(call(post("/api/authenticate"), null, Map.of("username", login, "password", PASSWORD)));
+        String token = response.get("id_token").asText();
+        return new Account(login, token, claims(token));
+    }
+
+    long pet(Account owner) throws Exception {
+        return json(call(post("/api/pets"), owner, Map.of("name", "Milu", "species", "Dog"))).get("id").asLong();
+    }
+
+    long appointment(Account owner, long petId, Account vet, int index) throws Exception {
+        return json(call(post("/api/appointments"), owner, appointmentBody(petId, vet, index))).get("id").asLong();
+    }
+
+    /** The {@code index}-th appointment of the vet: one per clinic hour, from 08:00 of the day after tomorrow. */
+    static Map<String, Object> appointmentBody(long petId, Account vet, int index) {
+        ZonedDateTime start = ZonedDateTime.of(LocalDate.now(CLINIC_ZONE).plusDays(2 + index / 10), LocalTime.of(8 + index % 10, 0), CLINIC_ZONE);
+        return Map.of(
+            "timeStart",
+            start.toOffsetDateTime().toString(),
+            "type",
+            "CHECKUP",
+            "status",
+            "PENDING",
+            "appointmentType",
+            "NORMAL",
+            "locationType",
+            "AT_CLINIC",
+            "pet",
+            Map.of("id", petId),
+            "vet",
+            Map.of("id", vet.vetId())
+        );
+    }
+
+    void assignAssistant(Account vet, long appointmentId, Account assistant) throws Exception {
+        call(
+            post("/api/vet/appointments/{id}/assign-assistant", appointmentId),
+            vet,
+            Map.of("assistantId", assistant.assistantId(), "notes", "Lấy mẫu máu")
+        );
+    }
+
+    void labTest(Account vet, long appointmentId) throws Exception {
+        call(post("/api/vet/appointments/{id}/request-lab-test", appointmentId), vet, Map.of("testName", "CBC", "testType", "BLOOD"));
+    }
+
+    /** Performs the request as {@code account} (anonymous if null) and checks for a 2xx status. */
+    MvcResult call(MockHttpServletRequestBuilder request, Account account) throws Exception {
+        if (account != null) {
+            request.header(HttpHeaders.AUTHORIZATION, account.bearer());
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        assertThat(response.getStatus())
+            .as("%s: %s", result.getRequest().getRequestURI(), response.getContentAsString(StandardCharsets.UTF_8))
+            .isBetween(200, 299);
+        return result;
+    }
+
+    /** Same as {@link #call(MockHttpServletRequestBuilder, Account)} with {@code body} as JSON. */
+    MvcResult call(MockHttpServletRequestBuilder request, Account account, Object body) throws Exception {
+        return call(request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(body)), account);
+    }
+
+    JsonNode json(MvcResult result) throws Exception {
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return content.isEmpty() ? null : objectMapper.readTree(content);
+    }
+
+    static String nextLogin(String prefix) {
+        return prefix + SEQUENCE.incrementAndGet();
+    }
+
+    static Map<String, Object> registration(String login) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("login", login);
+        body.put("password", PASSWORD);
+        body.put("email", login + "@example.com");
+        body.put("firstName", "An");
+        body.put("lastName", "Nguyễn");
+        body.put("langKey", "vi");
+        return body;
+    }
+
+    private JsonNode claims(String token) throws Exception {
+        String payload = token.split("\\.")[1];
+        return objectMapper.readTree(new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8));
+    }
+
+    record Account(String login, String token, JsonNode claims) {
+        String bearer() {
+            return "Bearer " + token;
+        }
+
+        long userId() {
+            return claims.get(AuthenticatedUser.USER_ID_CLAIM).asLong();
+        }
+
+        long ownerId() {
+            return claims.get(AuthenticatedUser.OWNER_ID_CLAIM).asLong();
+        }
+
+        long vetId() {
+            return claims.get(AuthenticatedUser.VET_ID_CLAIM).asLong();
+        }
+
+        long assistantId() {
+            return claims.get(AuthenticatedUser.ASSISTANT_ID_CLAIM).asLong();
+        }
+    }
+}
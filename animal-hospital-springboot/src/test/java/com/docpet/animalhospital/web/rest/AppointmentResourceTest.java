@@ -0,0 +1,168 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * SQL statements per request of {@link AppointmentResource}. The lists are checked with one row and
+ * with six: the count must not grow with the rows (no per-row lookups of pet, owner, vet or user).
+ */
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class AppointmentResourceTest {
+
+    private static final int ROWS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+    private Account owner;
+    private Account vet;
+    private long petId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        api = new ApiFixtures(mockMvc, objectMapper);
+        owner = api.owner();
+        vet = api.vet();
+        petId = api.pet(owner);
+    }
+
+    @Test
+    void listDoesNotGrowWithAppointments() throws Exception {
+        api.appointment(owner, petId, vet, 0);
+        int ownerOneRow = queryCount(api.call(get("/api/appointments"), owner));
+        int vetOneRow = queryCount(api.call(get("/api/appointments"), vet));
+
+        for (int i = 1; i < ROWS; i++) {
+            api.appointment(owner, petId, vet, i);
+        }
+        int ownerRows = queryCount(api.call(get("/api/appointments"), owner));
+        int vetRows = queryCount(api.call(get("/api/appointments"), vet));
+
+        assertThat(ownerOneRow).isLessThanOrEqualTo(2);
+        assertThat(vetOneRow).isLessThanOrEqualTo(2);
+        assertThat(ownerRows).isLessThanOrEqualTo(ownerOneRow);
+        assertThat(vetRows).isLessThanOrEqualTo(vetOneRow);
+    }
+
+    @Test
+    void pagesFollowTheCursor() throws Exception {
+        List<Long> booked = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            booked.add(api.appointment(owner, petId, vet, i));
+        }
+
+        assertThat(walkPages(owner)).isEqualTo(booked);
+        assertThat(walkPages(vet)).isEqualTo(booked);
+    }
+
+    @Test
+    void vetWithOwnerProfileSeesBothSides() throws Exception {
+        api.call(post("/api/owners"), vet, Map.of("name", "Bác sĩ có thú cưng", "phone", "0901234567", "address", "12 Lê Lợi"));
+        Account vetAndOwner = api.login(vet.login());
+        long asVet = api.appointment(owner, petId, vet, 0);
+        long asOwner = api.appointment(vetAndOwner, api.pet(vetAndOwner), api.vet(), 1);
+
+        MvcResult result = api.call(get("/api/appointments"), vetAndOwner);
+
+        assertThat(api.json(result).findValuesAsText("id")).containsExactly(String.valueOf(asVet), String.valueOf(asOwner));
+        assertThat(queryCount(result)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void assignedAppointmentsDoNotGrowWithAssignments() throws Exception {
+        // Không tra thêm appointment, pet, owner hay user cho từng dòng
+        Account assistant = api.assistant(vet);
+        api.assignAssistant(vet, api.appointment(owner, petId, vet, 0), assistant);
+        int oneRow = queryCount(api.call(get("/api/appointments/assistant/assigned"), assistant));
+
+        for (int i = 1; i < ROWS; i++) {
+            api.assignAssistant(vet, api.appointment(owner, petId, vet, i), assistant);
+        }
+        MvcResult result = api.call(get("/api/appointments/assistant/assigned"), assistant);
+
+        assertThat(api.json(result)).hasSize(ROWS);
+        assertThat(oneRow).isLessThanOrEqualTo(1);
+        assertThat(queryCount(result)).isLessThanOrEqualTo(oneRow);
+    }
+
+    @Test
+    void assistantDetail() throws Exception {
+        Account assistant = api.assistant(vet);
+        long appointmentId = api.appointment(owner, petId, vet, 0);
+        api.assignAssistant(vet, appointmentId, assistant);
+
+        assertThat(queryCount(api.call(get("/api/appointments/assistant/{id}/detail", appointmentId), assistant))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void detailAndPetHistory() throws Exception {
+        long appointmentId = api.appointment(owner, petId, vet, 0);
+
+        assertThat(queryCount(api.call(get("/api/appointments/{id}", appointmentId), owner))).isLessThanOrEqualTo(1);
+        assertThat(queryCount(api.call(get("/api/appointments/pet/{petId}/history", petId), owner))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void book() throws Exception {
+        api.appointment(owner, petId, vet, 0);
+
+        MvcResult result = api.call(post("/api/appointments"), owner, ApiFixtures.appointmentBody(petId, vet, 1));
+
+        assertThat(queryCount(result)).isLessThanOrEqualTo(7);
+    }
+
+    @Test
+    void messages() throws Exception {
+        long appointmentId = api.appointment(owner, petId, vet, 0);
+
+        MvcResult sent = api.call(post("/api/appointments/{id}/messages", appointmentId), owner, Map.of("message", "Bé ăn ít hơn mọi ngày"));
+        MvcResult read = api.call(get("/api/appointments/{id}/messages", appointmentId), vet);
+
+        assertThat(queryCount(sent)).isLessThanOrEqualTo(3);
+        assertThat(queryCount(read)).isLessThanOrEqualTo(2);
+    }
+
+    // Đi hết các trang (limit 2) theo X-Next-Cursor
+    private List<Long> walkPages(Account account) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        String after = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/appointments").param("limit", "2");
+            if (after != null) {
+                request.param("after", after);
+            }
+            MvcResult result = api.call(request, account);
+            api.json(result).forEach(appointment -> ids.add(appointment.get("id").asLong()));
+            counts.add(queryCount(result));
+            after = result.getResponse().getHeader("X-Next-Cursor");
+        } while (after != null);
+
+        // Tối đa một query cho mỗi phase (upcoming, past), trang nào cũng vậy
+        assertThat(counts).hasSize(3).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(2));
+        return ids;
+    }
+}
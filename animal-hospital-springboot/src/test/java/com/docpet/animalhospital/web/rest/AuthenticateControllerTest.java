@@ -0,0 +1,57 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class AuthenticateControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void authenticateRefreshAndLogout() throws Exception {
+        Account owner = api.owner();
+
+        MvcResult authenticate = api.call(post("/api/authenticate"), null, Map.of("username", owner.login(), "password", ApiFixtures.PASSWORD));
+        String refreshToken = api.json(authenticate).get("refresh_token").asText();
+        MvcResult refresh = api.call(post("/api/authenticate/refresh"), null, Map.of("refreshToken", refreshToken));
+        MvcResult logout = api.call(post("/api/logout"), owner, Map.of());
+
+        assertThat(queryCount(authenticate)).isLessThanOrEqualTo(2);
+        assertThat(queryCount(refresh)).isLessThanOrEqualTo(4);
+        assertThat(queryCount(logout)).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void isAuthenticatedReadsTheToken() throws Exception {
+        Account owner = api.owner();
+
+        assertThat(queryCount(api.call(get("/api/authenticate"), owner))).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class OwnerResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void listAndGet() throws Exception {
+        Account owner = api.owner();
+        api.owner();
+
+        MvcResult list = api.call(get("/api/owners"), owner);
+        MvcResult read = api.call(get("/api/owners/{id}", owner.ownerId()), owner);
+
+        assertThat(queryCount(list)).isLessThanOrEqualTo(2);
+        assertThat(queryCount(read)).isLessThanOrEqualTo(1);
+    }
+}
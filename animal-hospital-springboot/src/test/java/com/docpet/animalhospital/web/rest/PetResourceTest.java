@@ -0,0 +1,67 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class PetResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void listDoesNotGrowWithPets() throws Exception {
+        Account owner = api.owner();
+        api.pet(owner);
+        int onePet = queryCount(api.call(get("/api/pets"), owner));
+
+        for (int i = 0; i < 5; i++) {
+            api.pet(owner);
+        }
+        MvcResult result = api.call(get("/api/pets"), owner);
+
+        assertThat(api.json(result)).hasSize(6);
+        assertThat(onePet).isLessThanOrEqualTo(1);
+        assertThat(queryCount(result)).isLessThanOrEqualTo(onePet);
+    }
+
+    @Test
+    void getAndUpdate() throws Exception {
+        Account owner = api.owner();
+        long petId = api.pet(owner);
+
+        MvcResult read = api.call(get("/api/pets/{id}", petId), owner);
+        MvcResult update = api.call(put("/api/pets/{id}", petId), owner, Map.of("id", petId, "name", "Milu", "species", "Cat"));
+        MvcResult partialUpdate = api.call(patch("/api/pets/{id}", petId), owner, Map.of("id", petId, "notes", "Đã tiêm phòng dại"));
+
+        assertThat(queryCount(read)).isLessThanOrEqualTo(1);
+        assertThat(queryCount(update)).isLessThanOrEqualTo(2);
+        assertThat(queryCount(partialUpdate)).isLessThanOrEqualTo(2);
+    }
+}
@@ -0,0 +1,50 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class PublicUserResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void pageDoesNotGrowWithPageSize() throws Exception {
+        Account owner = api.owner();
+        for (int i = 0; i < 6; i++) {
+            api.owner();
+        }
+
+        // Cả hai trang đều chưa hết danh sách nên đều có thêm câu count
+        MvcResult onePerPage = api.call(get("/api/users").param("size", "1"), owner);
+        MvcResult sixPerPage = api.call(get("/api/users").param("size", "6"), owner);
+
+        assertThat(api.json(sixPerPage)).hasSize(6);
+        assertThat(queryCount(onePerPage)).isLessThanOrEqualTo(2);
+        assertThat(queryCount(sixPerPage)).isLessThanOrEqualTo(queryCount(onePerPage));
+    }
+}
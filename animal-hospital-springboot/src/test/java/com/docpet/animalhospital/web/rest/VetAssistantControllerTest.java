@@ -0,0 +1,63 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class VetAssistantControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void listDoesNotGrowWithAssistants() throws Exception {
+        Account vet = api.vet();
+        api.assistant(vet);
+        int before = queryCount(api.call(get("/api/vets/assistants"), vet));
+
+        for (int i = 0; i < 5; i++) {
+            api.assistant(vet);
+        }
+        MvcResult result = api.call(get("/api/vets/assistants"), vet);
+
+        assertThat(before).isLessThanOrEqualTo(1);
+        assertThat(queryCount(result)).isLessThanOrEqualTo(before);
+    }
+
+    @Test
+    void createAndGet() throws Exception {
+        Account vet = api.vet();
+        Account assistant = api.assistant(vet);
+
+        MvcResult created = api.call(post("/api/vets/assistants"), vet, ApiFixtures.registration(ApiFixtures.nextLogin("assistant")));
+        MvcResult read = api.call(get("/api/vets/assistants/{id}", assistant.assistantId()), vet);
+
+        assertThat(queryCount(created)).isLessThanOrEqualTo(5);
+        assertThat(queryCount(read)).isLessThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class VetResourceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixtures api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ApiFixtures(mockMvc, objectMapper);
+    }
+
+    @Test
+    void listAndGet() throws Exception {
+        Account vet = api.vet();
+        api.vet();
+
+        MvcResult list = api.call(get("/api/vets"), vet);
+        MvcResult read = api.call(get("/api/vets/{id}", vet.vetId()), vet);
+
+        assertThat(queryCount(list)).isLessThanOrEqualTo(2);
+        assertThat(queryCount(read)).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void update() throws Exception {
+        Account vet = api.vet();
+
+        MvcResult update = api.call(put("/api/vets/{id}", vet.vetId()), vet, Map.of("id", vet.vetId(), "licenseNo", "LIC-" + vet.login() + "-2"));
+        MvcResult partialUpdate = api.call(patch("/api/vets/{id}", vet.vetId()), vet, Map.of("id", vet.vetId(), "specialization", "Dermatology"));
+
+        assertThat(queryCount(update)).isLessThanOrEqualTo(3);
+        assertThat(queryCount(partialUpdate)).isLessThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,163 @@
+package com.docpet.animalhospital.web.rest;
+
+import static com.docpet.animalhospital.config.QueryCountExtension.queryCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.docpet.animalhospital.IntegrationTest;
+import com.docpet.animalhospital.config.QueryCountExtension;
+import com.docpet.animalhospital.web.rest.ApiFixtures.Account;
+import com.docpet.animalhospital.service.mail.InMemoryMailTransport;
+import com.docpet.animalhospital.service.mail.MailMessage;
+import com.docpet.animalhospital.service.mail.MailTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * SQL statements per request of {@link VetWorkflowResource}. The ownership check reads the
+ * appointment's vet user id from {@code AppointmentAccessCache} instead of walking
+ * {@code appointment.getVet().getUser()}, and the action and lab test lists must not grow with
+ * their rows.
+ */
+@IntegrationTest
+@ExtendWith(QueryCountExtension.class)
+class VetWorkflowResourceTest {
+
+    private static final int ROWS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MailTransport mailTransport;
+
+    private ApiFixtures api;
+    private Account owner;
+    private Account vet;
+    private long appointmentId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        api = new ApiFixtures(mockMvc, objectMapper);
+        owner = api.owner();
+        vet = api.vet();
+        appointmentId = api.appointment(owner, api.pet(owner), vet, 0);
+    }
+
+    @Test
+    void detail() throws Exception {
+        MvcResult result = api.call(get("/api/vet/appointments/{id}/detail", appointmentId), vet);
+
+        assertThat(queryCount(result)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void actionsDoNotGrowWithActions() throws Exception {
+        homeVisit();
+        int oneRow = queryCount(api.call(get("/api/vet/appointments/{id}/actions", appointmentId), vet));
+
+        for (int i = 1; i < ROWS; i++) {
+            homeVisit();
+        }
+        MvcResult result = api.call(get("/api/vet/appointments/{id}/actions", appointmentId), vet);
+
+        assertThat(api.json(result)).hasSize(ROWS);
+        assertThat(oneRow).isLessThanOrEqualTo(2);
+        assertThat(queryCount(result)).isLessThanOrEqualTo(oneRow);
+    }
+
+    @Test
+    void labTestsDoNotGrowWithLabTests() throws Exception {
+        api.labTest(vet, appointmentId);
+        int oneRow = queryCount(api.call(get("/api/vet/appointments/{id}/lab-tests", appointmentId), vet));
+
+        for (int i = 1; i < ROWS; i++) {
+            api.labTest(vet, appointmentId);
+        }
+        MvcResult result = api.call(get("/api/vet/appointments/{id}/lab-tests", appointmentId), vet);
+
+        assertThat(api.json(result)).hasSize(ROWS);
+        assertThat(oneRow).isLessThanOrEqualTo(2);
+        assertThat(queryCount(result)).isLessThanOrEqualTo(oneRow);
+    }
+
+    @Test
+    void workflowSteps() throws Exception {
+        Account assistant = api.assistant(vet);
+
+        MvcResult approve = api.call(
+            post("/api/vet/appointments/{id}/approve", appointmentId).contentType(MediaType.APPLICATION_JSON).content("Đồng ý"),
+            vet
+        );
+        MvcResult assign = api.call(
+            post("/api/vet/appointments/{id}/assign-assistant", appointmentId),
+            vet,
+            Map.of("assistantId", assistant.assistantId(), "notes", "Lấy mẫu máu")
+        );
+        MvcResult labTest = api.call(
+            post("/api/vet/appointments/{id}/request-lab-test", appointmentId),
+            vet,
+            Map.of("testName", "CBC", "testType", "BLOOD")
+        );
+        MvcResult homeVisit = homeVisit();
+
+        assertThat(queryCount(approve)).isLessThanOrEqualTo(7);
+        assertThat(queryCount(assign)).isLessThanOrEqualTo(8);
+        assertThat(queryCount(labTest)).isLessThanOrEqualTo(3);
+        assertThat(queryCount(homeVisit)).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void homeVisitEmailsTheOwnerOnceAfterTheOutboxCommits() throws Exception {
+        homeVisit();
+
+        // Outbox dispatcher và mail worker chạy nền
+        String to = owner.login() + "@example.com";
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (sentTo(to).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(200);
+
+        assertThat(sentTo(to)).singleElement().satisfies(mail -> assertThat(mail.subject()).isEqualTo("Yêu cầu thăm khám tại nhà"));
+    }
+
+    @Test
+    void otherVetIsRejectedWithoutLoadingTheAppointment() throws Exception {
+        Account otherVet = api.vet();
+
+        MvcResult result = mockMvc
+            .perform(get("/api/vet/appointments/{id}/detail", appointmentId).header(HttpHeaders.AUTHORIZATION, otherVet.bearer()))
+            .andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(queryCount(result)).isLessThanOrEqualTo(1);
+    }
+
+    // Mỗi yêu cầu khám tại nhà tạo thêm một action cho lịch hẹn
+    private MvcResult homeVisit() throws Exception {
+        return api.call(post("/api/vet/appointments/{id}/request-home-visit", appointmentId), vet, Map.of("notes", "Khám tại nhà"));
+    }
+
+    // Email do outbox gửi (message key outbox-<event id>), không tính email chào mừng
+    private List<MailMessage> sentTo(String to) {
+        return ((InMemoryMailTransport) mailTransport)
+            .getSent()
+            .stream()
+            .filter(mail -> to.equals(mail.to()) && mail.messageKey().startsWith("outbox-"))
+            .toList();
+    }
+}
@@ -0,0 +1 @@
+insert into jhi_authority (name) values ('ROLE_ADMIN'), ('ROLE_USER'), ('ROLE_DOCTOR'), ('ROLE_ASSISTANT');